@@ -0,0 +1,9 @@
+package com.infraflow.common.blob;
+
+/**
+ * Claim-check reference to content held in a {@link BlobStore}.
+ *
+ * @param digest content address, {@code sha256:<hex>} of the uncompressed bytes
+ * @param length uncompressed size in bytes
+ */
+public record BlobRef(String digest, long length) {}
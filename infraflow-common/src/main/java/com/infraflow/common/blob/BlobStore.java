@@ -0,0 +1,58 @@
+package com.infraflow.common.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Content-addressed store for large payloads (raw CI logs) that should not
+ * travel inline through Kafka. Producers write once and put the returned
+ * {@link BlobRef} in the event; consumers fetch by digest only if and when
+ * they need the content.
+ *
+ * <p>Writing identical content twice yields the same digest and stores it once.
+ * Stores may age content out; consumers must cope with a digest that is gone.</p>
+ */
+public interface BlobStore {
+
+    /**
+     * Opens a streaming writer. Text is encoded as UTF-8; the blob becomes
+     * visible only when {@link BlobWriter#commit()} is called.
+     */
+    BlobWriter openWriter() throws IOException;
+
+    /** Opens the uncompressed content for reading, or empty if the digest is unknown. */
+    Optional<InputStream> open(String digest) throws IOException;
+
+    /**
+     * Removes the content, e.g. for an event that was never published.
+     * Returns {@code false} if the digest was unknown. Identical content is
+     * stored once, so the caller must know no published event refers to it.
+     */
+    boolean delete(String digest) throws IOException;
+
+    default BlobRef put(String content) throws IOException {
+        try (BlobWriter writer = openWriter()) {
+            writer.write(content);
+            return writer.commit();
+        }
+    }
+
+    default Optional<String> getString(String digest) throws IOException {
+        Optional<InputStream> in = open(digest);
+        if (in.isEmpty()) return Optional.empty();
+        try (InputStream stream = in.get()) {
+            return Optional.of(new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * A {@link Writer} whose content is stored under its own digest on
+     * {@link #commit()}. Closing without committing discards what was written.
+     */
+    abstract class BlobWriter extends Writer {
+        public abstract BlobRef commit() throws IOException;
+    }
+}
@@ -0,0 +1,229 @@
+package com.infraflow.common.blob;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link BlobStore} on a local (or shared) filesystem.
+ *
+ * <p>Layout: {@code <root>/<first two hex chars>/<sha256 hex>.gz}. Content is
+ * gzip-compressed on the way in; the SHA-256 is computed over the
+ * uncompressed bytes while streaming, into a temp file that is atomically
+ * moved into place on commit. If the target already exists the temp file is
+ * dropped, so identical logs are stored once.</p>
+ *
+ * <p>Producers and consumers on different hosts must point at the same
+ * directory (e.g. a shared volume).</p>
+ *
+ * <p>Nothing expires on its own: {@link #purge} deletes blobs not written for
+ * longer than a maximum age, then the least recently written ones until the
+ * store fits a size cap. Writing content that is already stored refreshes
+ * its age.</p>
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final String DIGEST_PREFIX = "sha256:";
+    private static final Duration STALE_TEMP_AGE = Duration.ofHours(1);
+
+    private final Path root;
+
+    public FileSystemBlobStore(Path root) throws IOException {
+        this.root = Files.createDirectories(root);
+    }
+
+    @Override
+    public BlobWriter openWriter() throws IOException {
+        return new FileBlobWriter();
+    }
+
+    @Override
+    public Optional<InputStream> open(String digest) throws IOException {
+        Path path = pathFor(digest);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(new GZIPInputStream(Files.newInputStream(path), 64 * 1024));
+    }
+
+    @Override
+    public boolean delete(String digest) throws IOException {
+        return Files.deleteIfExists(pathFor(digest));
+    }
+
+    /**
+     * Deletes blobs last written before {@code maxAge} ago, then the oldest
+     * remaining ones while the store holds more than {@code maxBytes}; also
+     * clears temp files left behind by writers that died mid-write.
+     *
+     * @return the number of blobs deleted
+     */
+    public int purge(Duration maxAge, long maxBytes) throws IOException {
+        Instant expiry = Instant.now().minus(maxAge);
+        Instant staleTemp = Instant.now().minus(STALE_TEMP_AGE);
+        List<Stored> kept = new ArrayList<>();
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                boolean blob = name.endsWith(".gz");
+                if (!blob && !name.endsWith(".tmp")) continue;
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;  // removed by a concurrent delete or purge
+                }
+                Instant written = attributes.lastModifiedTime().toInstant();
+                if (!blob) {
+                    if (written.isBefore(staleTemp)) Files.deleteIfExists(path);
+                } else if (written.isBefore(expiry)) {
+                    if (Files.deleteIfExists(path)) deleted++;
+                } else {
+                    kept.add(new Stored(path, written, attributes.size()));
+                }
+            }
+        }
+
+        long totalBytes = kept.stream().mapToLong(Stored::size).sum();
+        if (totalBytes > maxBytes) {
+            kept.sort(Comparator.comparing(Stored::written));
+            for (Stored stored : kept) {
+                if (totalBytes <= maxBytes) break;
+                if (Files.deleteIfExists(stored.path())) deleted++;
+                totalBytes -= stored.size();
+            }
+        }
+        return deleted;
+    }
+
+    private record Stored(Path path, Instant written, long size) {}
+
+    private Path pathFor(String digest) {
+        if (digest == null || !digest.startsWith(DIGEST_PREFIX)) {
+            throw new IllegalArgumentException("Unsupported blob digest: " + digest);
+        }
+        String hex = digest.substring(DIGEST_PREFIX.length());
+        if (hex.length() != 64 || !hex.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Malformed blob digest: " + digest);
+        }
+        return root.resolve(hex.substring(0, 2)).resolve(hex + ".gz");
+    }
+
+    private final class FileBlobWriter extends BlobWriter {
+
+        private final Path temp;
+        private final MessageDigest sha256;
+        private final CountingOutputStream counter;
+        private final Writer out;
+        private boolean finished;
+
+        FileBlobWriter() throws IOException {
+            this.temp = Files.createTempFile(root, "blob-", ".tmp");
+            try {
+                this.sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 algorithm not available", e);
+            }
+            OutputStream gzip = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024), 64 * 1024);
+            this.counter = new CountingOutputStream(new DigestOutputStream(gzip, sha256));
+            this.out = new OutputStreamWriter(counter, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public BlobRef commit() throws IOException {
+            out.close();
+            finished = true;
+            String hex = HexFormat.of().formatHex(sha256.digest());
+            String digest = DIGEST_PREFIX + hex;
+            Path target = pathFor(digest);
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target)) {
+                Files.deleteIfExists(temp);
+                // Referenced again: restart its retention clock
+                Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            } else {
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Lost a race with an identical write — the content is already there
+                    Files.deleteIfExists(temp);
+                }
+            }
+            return new BlobRef(digest, counter.count);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                finished = true;
+                try {
+                    out.close();
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.infraflow.common.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Cursor over a buffer written by {@link BinaryEncoder}. Typical use:
+ * <pre>{@code
+ * while (in.hasNext()) {
+ *     switch (in.nextField()) {
+ *         case 1 -> name = in.readString();
+ *         default -> in.skip();   // field from a newer schema
+ *     }
+ * }
+ * }</pre>
+ */
+public final class BinaryDecoder {
+
+    private final byte[] buf;
+    private int pos;
+    private int wireType;
+
+    public BinaryDecoder(byte[] buf, int offset) {
+        this.buf = buf;
+        this.pos = offset;
+    }
+
+    public byte readRaw() {
+        require(1);
+        return buf[pos++];
+    }
+
+    public boolean hasNext() {
+        return pos < buf.length;
+    }
+
+    /** Reads the next field key and returns its field number. */
+    public int nextField() {
+        long key = readVarint();
+        wireType = (int) (key & 0x7);
+        return (int) (key >>> 3);
+    }
+
+    public long readLong() {
+        expect(BinaryEncoder.WIRE_VARINT);
+        long raw = readVarint();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public int readInt() {
+        return Math.toIntExact(readLong());
+    }
+
+    public double readDouble() {
+        expect(BinaryEncoder.WIRE_FIXED64);
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (buf[pos++] & 0xFFL) << (8 * i);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        expect(BinaryEncoder.WIRE_BYTES);
+        int length = Math.toIntExact(readVarint());
+        require(length);
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    /** Unknown enum names (added by a newer producer) decode to {@code fallback}. */
+    public <E extends Enum<E>> E readEnum(Class<E> type, E fallback) {
+        String name = readString();
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    public Instant readInstant() {
+        return Instant.ofEpochMilli(readLong());
+    }
+
+    /** Skips the value of the field just read by {@link #nextField()}. */
+    public void skip() {
+        switch (wireType) {
+            case BinaryEncoder.WIRE_VARINT -> readVarint();
+            case BinaryEncoder.WIRE_FIXED64 -> {
+                require(8);
+                pos += 8;
+            }
+            case BinaryEncoder.WIRE_BYTES -> {
+                int length = Math.toIntExact(readVarint());
+                require(length);
+                pos += length;
+            }
+            default -> throw new IllegalStateException("Unknown wire type " + wireType);
+        }
+    }
+
+    private long readVarint() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = buf[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private void expect(int expected) {
+        if (wireType != expected) {
+            throw new IllegalStateException("Wire type " + wireType + " where " + expected + " was expected");
+        }
+    }
+
+    private void require(int bytes) {
+        if (pos + bytes > buf.length) {
+            throw new IllegalStateException("Truncated event: need " + bytes + " byte(s) at offset " + pos);
+        }
+    }
+}
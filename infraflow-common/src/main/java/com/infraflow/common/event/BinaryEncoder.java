@@ -0,0 +1,98 @@
+package com.infraflow.common.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Append-only writer for the tagged binary format used by {@link EventCodec}.
+ *
+ * <p>Each field is written as a varint key {@code (fieldNumber << 3) | wireType}
+ * followed by its value: zig-zag varint for integers, 8 little-endian bytes for
+ * doubles, and a varint length prefix for UTF-8 strings. Null strings and
+ * zero/default numbers are simply omitted, which is what makes adding and
+ * removing fields safe in both directions.</p>
+ */
+public final class BinaryEncoder {
+
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_FIXED64 = 1;
+    static final int WIRE_BYTES = 2;
+
+    private byte[] buf;
+    private int pos;
+
+    public BinaryEncoder(int initialCapacity) {
+        this.buf = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public BinaryEncoder writeRaw(byte b) {
+        ensure(1);
+        buf[pos++] = b;
+        return this;
+    }
+
+    public BinaryEncoder writeLong(int field, long value) {
+        if (value != 0) {
+            writeKey(field, WIRE_VARINT);
+            writeVarint((value << 1) ^ (value >> 63));
+        }
+        return this;
+    }
+
+    public BinaryEncoder writeDouble(int field, double value) {
+        if (value != 0.0) {
+            writeKey(field, WIRE_FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            ensure(8);
+            for (int i = 0; i < 8; i++) {
+                buf[pos++] = (byte) (bits >>> (8 * i));
+            }
+        }
+        return this;
+    }
+
+    public BinaryEncoder writeString(int field, String value) {
+        if (value != null) {
+            writeKey(field, WIRE_BYTES);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+        return this;
+    }
+
+    /** Enums travel by name, so reordering or inserting constants never breaks old readers. */
+    public BinaryEncoder writeEnum(int field, Enum<?> value) {
+        return writeString(field, value != null ? value.name() : null);
+    }
+
+    public BinaryEncoder writeInstant(int field, Instant value) {
+        return value != null ? writeLong(field, value.toEpochMilli()) : this;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, pos);
+    }
+
+    private void writeKey(int field, int wireType) {
+        writeVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    private void ensure(int extra) {
+        if (pos + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+        }
+    }
+}
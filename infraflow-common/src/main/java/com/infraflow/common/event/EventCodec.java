@@ -0,0 +1,232 @@
+package com.infraflow.common.event;
+
+import com.infraflow.common.enums.FailureType;
+import com.infraflow.common.enums.HealingStatus;
+import com.infraflow.common.enums.PipelineStatus;
+
+import java.time.Instant;
+
+/**
+ * Compact, reflection-free binary wire format for the InfraFlow Kafka events.
+ *
+ * <p>Layout: a three-byte header — magic {@code 'I'}, event type, schema
+ * version — followed by tagged fields (see {@link BinaryEncoder}). Readers skip
+ * field numbers they do not know and leave missing fields at their defaults,
+ * so fields can be added or retired without coordinated deploys. Field
+ * numbers must never be reused for a different meaning; bump the schema
+ * version only for changes that cannot be expressed that way.</p>
+ */
+public final class EventCodec {
+
+    public static final byte MAGIC = 'I';
+    public static final byte SCHEMA_VERSION = 1;
+
+    static final byte TYPE_PIPELINE = 1;
+    static final byte TYPE_HEALING = 2;
+    static final byte TYPE_SECURITY = 3;
+    static final byte TYPE_PIPELINE_VIEW = 4;
+
+    private EventCodec() {}
+
+    public static byte[] encode(Object event) {
+        if (event instanceof PipelineEventMessage e) return encodePipeline(e);
+        if (event instanceof HealingEventMessage e) return encodeHealing(e);
+        if (event instanceof SecurityEventMessage e) return encodeSecurity(e);
+        if (event instanceof PipelineViewMessage e) return encodePipelineView(e);
+        throw new IllegalArgumentException("Not an InfraFlow event: "
+                + (event != null ? event.getClass().getName() : "null"));
+    }
+
+    public static Object decode(byte[] data) {
+        BinaryDecoder in = new BinaryDecoder(data, 0);
+        if (data.length < 3 || in.readRaw() != MAGIC) {
+            throw new IllegalArgumentException("Not an InfraFlow binary event");
+        }
+        byte type = in.readRaw();
+        byte version = in.readRaw();
+        if (version > SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported event schema version " + version);
+        }
+        return switch (type) {
+            case TYPE_PIPELINE -> decodePipeline(in);
+            case TYPE_HEALING -> decodeHealing(in);
+            case TYPE_SECURITY -> decodeSecurity(in);
+            case TYPE_PIPELINE_VIEW -> decodePipelineView(in);
+            default -> throw new IllegalArgumentException("Unknown event type " + type);
+        };
+    }
+
+    // ── PipelineEventMessage ────────────────────────────
+
+    private static byte[] encodePipeline(PipelineEventMessage e) {
+        int logs = e.rawLogs() != null ? e.rawLogs().length() * 3 : 0;
+        return header(new BinaryEncoder(256 + logs), TYPE_PIPELINE)
+                .writeString(1, e.repoUrl())
+                .writeString(2, e.repoName())
+                .writeString(3, e.branch())
+                .writeString(4, e.commitSha())
+                .writeString(5, e.provider())
+                .writeEnum(6, e.status())
+                .writeLong(7, e.workflowRunId())
+                .writeString(8, e.workflowName())
+                .writeInstant(9, e.triggeredAt())
+                .writeInstant(10, e.completedAt())
+                .writeString(11, e.rawLogs())
+                .writeString(12, e.rawLogsRef())
+                .writeLong(13, e.rawLogsLength())
+                .writeString(14, e.failedStep())
+                .toByteArray();
+    }
+
+    private static PipelineEventMessage decodePipeline(BinaryDecoder in) {
+        String repoUrl = null, repoName = null, branch = null, commitSha = null, provider = null;
+        String workflowName = null, rawLogs = null, rawLogsRef = null, failedStep = null;
+        PipelineStatus status = null;
+        long workflowRunId = 0, rawLogsLength = 0;
+        Instant triggeredAt = null, completedAt = null;
+        while (in.hasNext()) {
+            switch (in.nextField()) {
+                case 1 -> repoUrl = in.readString();
+                case 2 -> repoName = in.readString();
+                case 3 -> branch = in.readString();
+                case 4 -> commitSha = in.readString();
+                case 5 -> provider = in.readString();
+                case 6 -> status = in.readEnum(PipelineStatus.class, null);
+                case 7 -> workflowRunId = in.readLong();
+                case 8 -> workflowName = in.readString();
+                case 9 -> triggeredAt = in.readInstant();
+                case 10 -> completedAt = in.readInstant();
+                case 11 -> rawLogs = in.readString();
+                case 12 -> rawLogsRef = in.readString();
+                case 13 -> rawLogsLength = in.readLong();
+                case 14 -> failedStep = in.readString();
+                default -> in.skip();
+            }
+        }
+        return new PipelineEventMessage(repoUrl, repoName, branch, commitSha, provider, status,
+                workflowRunId, workflowName, triggeredAt, completedAt, rawLogs, rawLogsRef, rawLogsLength,
+                failedStep);
+    }
+
+    // ── HealingEventMessage ─────────────────────────────
+
+    private static byte[] encodeHealing(HealingEventMessage e) {
+        return header(new BinaryEncoder(128 + (e.summary() != null ? e.summary().length() * 3 : 0)), TYPE_HEALING)
+                .writeLong(1, e.sessionId())
+                .writeLong(2, e.pipelineEventId())
+                .writeString(3, e.repoName())
+                .writeEnum(4, e.failureType())
+                .writeEnum(5, e.healingStatus())
+                .writeDouble(6, e.confidence())
+                .writeString(7, e.fixBranch())
+                .writeString(8, e.summary())
+                .toByteArray();
+    }
+
+    private static HealingEventMessage decodeHealing(BinaryDecoder in) {
+        long sessionId = 0, pipelineEventId = 0;
+        String repoName = null, fixBranch = null, summary = null;
+        FailureType failureType = null;
+        HealingStatus healingStatus = null;
+        double confidence = 0.0;
+        while (in.hasNext()) {
+            switch (in.nextField()) {
+                case 1 -> sessionId = in.readLong();
+                case 2 -> pipelineEventId = in.readLong();
+                case 3 -> repoName = in.readString();
+                case 4 -> failureType = in.readEnum(FailureType.class, FailureType.UNKNOWN);
+                case 5 -> healingStatus = in.readEnum(HealingStatus.class, null);
+                case 6 -> confidence = in.readDouble();
+                case 7 -> fixBranch = in.readString();
+                case 8 -> summary = in.readString();
+                default -> in.skip();
+            }
+        }
+        return new HealingEventMessage(sessionId, pipelineEventId, repoName, failureType, healingStatus,
+                confidence, fixBranch, summary);
+    }
+
+    // ── SecurityEventMessage ────────────────────────────
+
+    private static byte[] encodeSecurity(SecurityEventMessage e) {
+        return header(new BinaryEncoder(128), TYPE_SECURITY)
+                .writeString(1, e.repoName())
+                .writeString(2, e.branch())
+                .writeString(3, e.commitSha())
+                .writeLong(4, e.totalFindings())
+                .writeLong(5, e.critical())
+                .writeLong(6, e.high())
+                .writeLong(7, e.medium())
+                .writeLong(8, e.low())
+                .writeLong(9, e.pipelineEventId())
+                .toByteArray();
+    }
+
+    private static SecurityEventMessage decodeSecurity(BinaryDecoder in) {
+        String repoName = null, branch = null, commitSha = null;
+        int totalFindings = 0;
+        long critical = 0, high = 0, medium = 0, low = 0, pipelineEventId = 0;
+        while (in.hasNext()) {
+            switch (in.nextField()) {
+                case 1 -> repoName = in.readString();
+                case 2 -> branch = in.readString();
+                case 3 -> commitSha = in.readString();
+                case 4 -> totalFindings = in.readInt();
+                case 5 -> critical = in.readLong();
+                case 6 -> high = in.readLong();
+                case 7 -> medium = in.readLong();
+                case 8 -> low = in.readLong();
+                case 9 -> pipelineEventId = in.readLong();
+                default -> in.skip();
+            }
+        }
+        return new SecurityEventMessage(repoName, branch, commitSha, totalFindings,
+                critical, high, medium, low, pipelineEventId);
+    }
+
+    // ── PipelineViewMessage ─────────────────────────────
+
+    private static byte[] encodePipelineView(PipelineViewMessage e) {
+        return header(new BinaryEncoder(256), TYPE_PIPELINE_VIEW)
+                .writeLong(1, e.workflowRunId())
+                .writeString(2, e.workflowName())
+                .writeString(3, e.repoUrl())
+                .writeString(4, e.repoName())
+                .writeString(5, e.branch())
+                .writeString(6, e.commitSha())
+                .writeString(7, e.provider())
+                .writeEnum(8, e.status())
+                .writeInstant(9, e.triggeredAt())
+                .writeInstant(10, e.completedAt())
+                .toByteArray();
+    }
+
+    private static PipelineViewMessage decodePipelineView(BinaryDecoder in) {
+        long workflowRunId = 0;
+        String workflowName = null, repoUrl = null, repoName = null, branch = null;
+        String commitSha = null, provider = null;
+        PipelineStatus status = null;
+        Instant triggeredAt = null, completedAt = null;
+        while (in.hasNext()) {
+            switch (in.nextField()) {
+                case 1 -> workflowRunId = in.readLong();
+                case 2 -> workflowName = in.readString();
+                case 3 -> repoUrl = in.readString();
+                case 4 -> repoName = in.readString();
+                case 5 -> branch = in.readString();
+                case 6 -> commitSha = in.readString();
+                case 7 -> provider = in.readString();
+                case 8 -> status = in.readEnum(PipelineStatus.class, null);
+                case 9 -> triggeredAt = in.readInstant();
+                case 10 -> completedAt = in.readInstant();
+                default -> in.skip();
+            }
+        }
+        return new PipelineViewMessage(workflowRunId, workflowName, repoUrl, repoName, branch,
+                commitSha, provider, status, triggeredAt, completedAt);
+    }
+
+    private static BinaryEncoder header(BinaryEncoder out, byte type) {
+        return out.writeRaw(MAGIC).writeRaw(type).writeRaw(SCHEMA_VERSION);
+    }
+}
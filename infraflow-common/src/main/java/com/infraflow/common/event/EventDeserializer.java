@@ -0,0 +1,72 @@
+package com.infraflow.common.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Kafka value deserializer for the InfraFlow event records ({@link EventCodec}).
+ * Returns the concrete record type encoded in the message header, so one
+ * deserializer serves every topic. Configure as
+ * {@code spring.kafka.consumer.value-deserializer}.
+ *
+ * <p>When the consumer property {@value #ACCEPT_PIPELINE_STATUS} is set (a
+ * comma-separated list of {@code PipelineStatus} names), pipeline records whose
+ * {@link EventHeaders#PIPELINE_STATUS} header is not in the list are returned
+ * as {@code null} without decoding the value. Pair it with a
+ * {@code RecordFilterStrategy} that discards null values. Records without the
+ * header (older producers) are always decoded.</p>
+ *
+ * <p>Values that do not start with the codec's magic byte but look like a
+ * JSON object are read as the JSON maps published before the binary codec,
+ * so a rollout does not strand the records already on a topic. Anything else
+ * raises {@link SerializationException}; wrap this deserializer in Spring's
+ * {@code ErrorHandlingDeserializer} so such a record is logged and skipped
+ * instead of failing the consumer on every poll.</p>
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    public static final String ACCEPT_PIPELINE_STATUS = "infraflow.event.accept-pipeline-status";
+
+    private Set<String> acceptedStatuses = Set.of();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object accepted = configs.get(ACCEPT_PIPELINE_STATUS);
+        if (accepted != null && !accepted.toString().isBlank()) {
+            acceptedStatuses = Arrays.stream(accepted.toString().split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (!acceptedStatuses.isEmpty()) {
+            String status = EventHeaders.get(headers, EventHeaders.PIPELINE_STATUS);
+            if (status != null && !acceptedStatuses.contains(status)) {
+                return null;
+            }
+        }
+        return deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) return null;
+        try {
+            if (data.length > 0 && data[0] != EventCodec.MAGIC && LegacyJsonEvents.isJson(data)) {
+                return LegacyJsonEvents.decode(data);
+            }
+            return EventCodec.decode(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to decode event on topic " + topic, e);
+        }
+    }
+}
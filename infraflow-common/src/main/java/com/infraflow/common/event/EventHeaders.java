@@ -0,0 +1,39 @@
+package com.infraflow.common.event;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka record headers stamped by producers so consumers can route or drop
+ * records without decoding the value.
+ */
+public final class EventHeaders {
+
+    /** {@code PipelineStatus} name of a pipeline event, e.g. {@code FAILED}. */
+    public static final String PIPELINE_STATUS = "infraflow-pipeline-status";
+
+    /** Repository full name ({@code owner/repo}). */
+    public static final String REPO = "infraflow-repo";
+
+    /** Event kind: {@code pipeline}, {@code healing} or {@code security}. */
+    public static final String EVENT_TYPE = "infraflow-event-type";
+
+    private EventHeaders() {}
+
+    public static void put(Headers headers, String name, String value) {
+        if (value != null) {
+            headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Last value of the header, or {@code null} when absent. */
+    public static String get(Headers headers, String name) {
+        if (headers == null) return null;
+        Header header = headers.lastHeader(name);
+        return header != null && header.value() != null
+                ? new String(header.value(), StandardCharsets.UTF_8)
+                : null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.infraflow.common.event;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka value serializer for the InfraFlow event records ({@link EventCodec}).
+ * Configure as {@code spring.kafka.producer.value-serializer}.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : EventCodec.encode(data);
+    }
+}
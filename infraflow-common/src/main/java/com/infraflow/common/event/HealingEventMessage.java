@@ -0,0 +1,19 @@
+package com.infraflow.common.event;
+
+import com.infraflow.common.enums.FailureType;
+import com.infraflow.common.enums.HealingStatus;
+
+/**
+ * Healing session state change, published by the healing-engine on
+ * {@code pipeline.events.healed}. Wire format: {@link EventCodec}.
+ */
+public record HealingEventMessage(
+        long sessionId,
+        long pipelineEventId,
+        String repoName,
+        FailureType failureType,
+        HealingStatus healingStatus,
+        double confidence,
+        String fixBranch,
+        String summary
+) {}
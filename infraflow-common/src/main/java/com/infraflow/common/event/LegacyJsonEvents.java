@@ -0,0 +1,112 @@
+package com.infraflow.common.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.common.enums.FailureType;
+import com.infraflow.common.enums.HealingStatus;
+import com.infraflow.common.enums.PipelineStatus;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads the JSON maps the services published before {@link EventCodec}, so
+ * records still on a topic when the binary codec is rolled out are consumed
+ * rather than poisoning the listener. The event type is told apart by its
+ * keys: {@code sessionId} for healing, {@code totalFindings} for security,
+ * anything else is a pipeline event.
+ */
+final class LegacyJsonEvents {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private LegacyJsonEvents() {}
+
+    static boolean isJson(byte[] data) {
+        for (byte b : data) {
+            if (b == '{') return true;
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') return false;
+        }
+        return false;
+    }
+
+    static Object decode(byte[] data) {
+        JsonNode json;
+        try {
+            json = MAPPER.readTree(data);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON event", e);
+        }
+        if (json.has("sessionId")) return healing(json);
+        if (json.has("totalFindings")) return security(json);
+        return pipeline(json);
+    }
+
+    private static PipelineEventMessage pipeline(JsonNode json) {
+        return new PipelineEventMessage(
+                text(json, "repoUrl"),
+                text(json, "repoName"),
+                text(json, "branch"),
+                text(json, "commitSha"),
+                text(json, "provider"),
+                enumValue(PipelineStatus.class, text(json, "status"), null),
+                json.path("workflowRunId").asLong(),
+                text(json, "workflowName"),
+                instant(text(json, "triggeredAt")),
+                instant(text(json, "completedAt")),
+                text(json, "rawLogs"),
+                text(json, "rawLogsRef"),
+                json.path("rawLogsLength").asLong(),
+                text(json, "failedStep"));
+    }
+
+    private static HealingEventMessage healing(JsonNode json) {
+        return new HealingEventMessage(
+                json.path("sessionId").asLong(),
+                json.path("pipelineEventId").asLong(),
+                text(json, "repoName"),
+                enumValue(FailureType.class, text(json, "failureType"), FailureType.UNKNOWN),
+                enumValue(HealingStatus.class, text(json, "healingStatus"), null),
+                json.path("confidence").asDouble(),
+                text(json, "fixBranch"),
+                text(json, "summary"));
+    }
+
+    private static SecurityEventMessage security(JsonNode json) {
+        return new SecurityEventMessage(
+                text(json, "repoName"),
+                text(json, "branch"),
+                text(json, "commitSha"),
+                json.path("totalFindings").asInt(),
+                json.path("critical").asLong(),
+                json.path("high").asLong(),
+                json.path("medium").asLong(),
+                json.path("low").asLong(),
+                json.path("pipelineEventId").asLong());
+    }
+
+    private static String text(JsonNode json, String field) {
+        JsonNode value = json.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name, E fallback) {
+        if (name == null) return fallback;
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    /** The old producers sent GitHub's ISO-8601 timestamps as strings, sometimes empty. */
+    private static Instant instant(String value) {
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.infraflow.common.event;
+
+import com.infraflow.common.enums.PipelineStatus;
+
+import java.time.Instant;
+
+/**
+ * Normalized CI pipeline event, published by the event-normalizer on
+ * {@code pipeline.events.raw}. Wire format: {@link EventCodec}.
+ *
+ * <p>Raw logs arrive either inline ({@code rawLogs}) or as a claim-check
+ * reference ({@code rawLogsRef} + {@code rawLogsLength}); both are null when
+ * the run carried no logs. When the normalizer recognised a failed step in
+ * the log, the logs are cut down to that step and {@code failedStep} names it.</p>
+ */
+public record PipelineEventMessage(
+        String repoUrl,
+        String repoName,
+        String branch,
+        String commitSha,
+        String provider,
+        PipelineStatus status,
+        long workflowRunId,
+        String workflowName,
+        Instant triggeredAt,
+        Instant completedAt,
+        String rawLogs,
+        String rawLogsRef,
+        long rawLogsLength,
+        String failedStep
+) {}
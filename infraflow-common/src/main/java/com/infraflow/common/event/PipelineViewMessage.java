@@ -0,0 +1,30 @@
+package com.infraflow.common.event;
+
+import com.infraflow.common.enums.PipelineStatus;
+
+import java.time.Instant;
+
+/**
+ * Log-free projection of a {@link PipelineEventMessage}, published by the
+ * event-normalizer on {@code pipeline.events.view} for the dashboard. Its size
+ * does not depend on the run's log volume. Wire format: {@link EventCodec}.
+ */
+public record PipelineViewMessage(
+        long workflowRunId,
+        String workflowName,
+        String repoUrl,
+        String repoName,
+        String branch,
+        String commitSha,
+        String provider,
+        PipelineStatus status,
+        Instant triggeredAt,
+        Instant completedAt
+) {
+
+    public static PipelineViewMessage of(PipelineEventMessage event) {
+        return new PipelineViewMessage(event.workflowRunId(), event.workflowName(), event.repoUrl(),
+                event.repoName(), event.branch(), event.commitSha(), event.provider(), event.status(),
+                event.triggeredAt(), event.completedAt());
+    }
+}
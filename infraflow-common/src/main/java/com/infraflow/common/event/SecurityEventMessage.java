@@ -0,0 +1,17 @@
+package com.infraflow.common.event;
+
+/**
+ * Security scan summary for one pipeline run, published by the healing-engine
+ * on {@code pipeline.events.security}. Wire format: {@link EventCodec}.
+ */
+public record SecurityEventMessage(
+        String repoName,
+        String branch,
+        String commitSha,
+        int totalFindings,
+        long critical,
+        long high,
+        long medium,
+        long low,
+        long pipelineEventId
+) {}
@@ -0,0 +1,51 @@
+package com.infraflow.common.logs;
+
+/**
+ * Layout of the failed-step excerpt the normalizer stores in place of a full
+ * GitHub Actions log: optionally a context block with the tail of the step
+ * before, then a header line per failed step followed by its output.
+ *
+ * <pre>
+ * --- context: Set up JDK (last 3 lines) ---
+ * ...
+ * === step: Run tests ===
+ * ...
+ * </pre>
+ */
+public final class StepExcerptFormat {
+
+    public static final String CONTEXT_PREFIX = "--- context: ";
+    public static final String STEP_PREFIX = "=== step: ";
+    public static final String STEP_SUFFIX = " ===";
+
+    private StepExcerptFormat() {
+    }
+
+    public static String contextHeader(String previousStep, int lines) {
+        return CONTEXT_PREFIX + previousStep + " (last " + lines + " lines) ---";
+    }
+
+    public static String stepHeader(String step) {
+        return STEP_PREFIX + step + STEP_SUFFIX;
+    }
+
+    /**
+     * The output of the first failed step, without the context block or the
+     * step header. Logs that are not an excerpt are returned unchanged.
+     */
+    public static String failedStepBody(String logs) {
+        if (logs == null) return null;
+        int header;
+        if (logs.startsWith(STEP_PREFIX)) {
+            header = 0;
+        } else if (logs.startsWith(CONTEXT_PREFIX)) {
+            int found = logs.indexOf("\n" + STEP_PREFIX);
+            if (found < 0) return logs;
+            header = found + 1;
+        } else {
+            return logs;
+        }
+        int body = logs.indexOf('\n', header);
+        return body < 0 ? "" : logs.substring(body + 1);
+    }
+}
@@ -38,6 +38,10 @@ public class PipelineEvent {
     @Column(columnDefinition = "TEXT")
     private String rawLogs;
 
+    // Step the normalizer recognised as failing; raw logs then hold only that step
+    @Column(columnDefinition = "TEXT")
+    private String failedStep;
+
     private Long userId;
 
     private Long workflowRunId;
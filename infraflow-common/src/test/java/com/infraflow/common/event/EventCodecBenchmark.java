@@ -0,0 +1,110 @@
+package com.infraflow.common.event;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.common.enums.PipelineStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventCodec} against the JSON maps it replaced: a {@code HashMap}
+ * written and read by Jackson, as Spring Kafka's {@code JsonSerializer} /
+ * {@code JsonDeserializer} did, including the {@code ((Number) get(...))}
+ * casts the consumer needed. Run with
+ * <pre>
+ * mvn -pl infraflow-common test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.infraflow.common.event.EventCodecBenchmark
+ * </pre>
+ * and add {@code -prof gc} via {@code -Dexec.args} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+    /** Inline log size in chars; 0 is a claim-checked event, 8192 the inline threshold. */
+    @Param({"0", "8192"})
+    public int logChars;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PipelineEventMessage event;
+    private Map<String, Object> map;
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        String logs = logChars > 0 ? "npm ERR! code ELIFECYCLE at step build\n".repeat(logChars / 40) : null;
+        Instant triggeredAt = Instant.parse("2024-06-01T10:15:30Z");
+        Instant completedAt = Instant.parse("2024-06-01T10:19:02Z");
+        event = new PipelineEventMessage("https://github.com/acme/shop", "acme/shop", "main",
+                "9fceb02d0ae598e95dc970b74767f19372d61af8", "GITHUB", PipelineStatus.FAILED, 9_876_543_210L,
+                "CI", triggeredAt, completedAt, logs, null, 0L, "Run tests");
+
+        map = new HashMap<>();
+        map.put("repoUrl", event.repoUrl());
+        map.put("repoName", event.repoName());
+        map.put("branch", event.branch());
+        map.put("commitSha", event.commitSha());
+        map.put("provider", event.provider());
+        map.put("status", event.status().name());
+        map.put("workflowRunId", event.workflowRunId());
+        map.put("workflowName", event.workflowName());
+        map.put("triggeredAt", triggeredAt.toString());
+        map.put("completedAt", completedAt.toString());
+        if (logs != null) map.put("rawLogs", logs);
+        map.put("failedStep", event.failedStep());
+
+        binary = EventCodec.encode(event);
+        json = objectMapper.writeValueAsBytes(map);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return EventCodec.encode(event);
+    }
+
+    @Benchmark
+    public Object binaryDecode() {
+        return EventCodec.decode(binary);
+    }
+
+    @Benchmark
+    public byte[] jsonMapEncode() throws Exception {
+        return objectMapper.writeValueAsBytes(map);
+    }
+
+    @Benchmark
+    public long jsonMapDecode() throws Exception {
+        Map<String, Object> decoded = objectMapper.readValue(json, MAP);
+        return ((Number) decoded.get("workflowRunId")).longValue() + ((String) decoded.get("status")).length();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
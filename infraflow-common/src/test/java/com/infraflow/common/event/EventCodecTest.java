@@ -0,0 +1,134 @@
+package com.infraflow.common.event;
+
+import com.infraflow.common.enums.FailureType;
+import com.infraflow.common.enums.HealingStatus;
+import com.infraflow.common.enums.PipelineStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecTest {
+
+    private static final Instant TRIGGERED = Instant.parse("2024-06-01T10:15:30.123Z");
+    private static final Instant COMPLETED = Instant.parse("2024-06-01T10:19:02Z");
+
+    @Test
+    void pipelineEventRoundTrips() {
+        PipelineEventMessage event = new PipelineEventMessage("https://github.com/acme/shop", "acme/shop",
+                "main", "9fceb02d0ae598e95dc970b74767f19372d61af8", "GITHUB", PipelineStatus.FAILED,
+                9_876_543_210L, "CI", TRIGGERED, COMPLETED, "npm ERR! ✗ build failed — exit 1",
+                "sha256:" + "ab".repeat(32), 123_456L, "Run tests");
+
+        assertThat(EventCodec.decode(EventCodec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void nullsAndDefaultsRoundTrip() {
+        PipelineEventMessage event = new PipelineEventMessage(null, "acme/shop", null, null, null, null,
+                0L, null, null, null, null, null, 0L, null);
+
+        assertThat(EventCodec.decode(EventCodec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void healingEventRoundTrips() {
+        HealingEventMessage event = new HealingEventMessage(42L, 7L, "acme/shop", FailureType.DEPENDENCY_CONFLICT,
+                HealingStatus.FIX_GENERATED, 0.87, "infraflow/fix-42", "Lockfile out of date");
+
+        assertThat(EventCodec.decode(EventCodec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void securityEventRoundTrips() {
+        SecurityEventMessage event = new SecurityEventMessage("acme/shop", "main", "9fceb02", 12,
+                1L, 2L, 3L, 6L, 99L);
+
+        assertThat(EventCodec.decode(EventCodec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void pipelineViewRoundTrips() {
+        PipelineViewMessage event = new PipelineViewMessage(1L, "CI", "https://github.com/acme/shop",
+                "acme/shop", "main", "9fceb02", "GITHUB", PipelineStatus.RUNNING, TRIGGERED, null);
+
+        assertThat(EventCodec.decode(EventCodec.encode(event))).isEqualTo(event);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, -1, 63, -64, 64, -65, 127, 128, 16_383, 16_384, Integer.MAX_VALUE,
+            Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1})
+    void zigZagVarintsRoundTrip(long value) {
+        byte[] encoded = new BinaryEncoder(16).writeLong(5, value).toByteArray();
+
+        BinaryDecoder in = new BinaryDecoder(encoded, 0);
+        assertThat(in.nextField()).isEqualTo(5);
+        assertThat(in.readLong()).isEqualTo(value);
+        assertThat(in.hasNext()).isFalse();
+    }
+
+    @Test
+    void smallMagnitudesTakeOneByte() {
+        // key (1 byte) + value: zig-zag keeps -64..63 in a single varint byte
+        assertThat(new BinaryEncoder(16).writeLong(1, -64).toByteArray()).hasSize(2);
+        assertThat(new BinaryEncoder(16).writeLong(1, 63).toByteArray()).hasSize(2);
+        assertThat(new BinaryEncoder(16).writeLong(1, 64).toByteArray()).hasSize(3);
+    }
+
+    @Test
+    void zeroIsOmitted() {
+        assertThat(new BinaryEncoder(16).writeLong(1, 0).writeDouble(2, 0.0).writeString(3, null)
+                .toByteArray()).isEmpty();
+    }
+
+    @Test
+    void unknownFieldsAreSkipped() {
+        byte[] newer = new BinaryEncoder(64)
+                .writeRaw(EventCodec.MAGIC).writeRaw(EventCodec.TYPE_SECURITY).writeRaw(EventCodec.SCHEMA_VERSION)
+                .writeString(1, "acme/shop")
+                .writeLong(40, 123)
+                .writeDouble(41, 1.5)
+                .writeString(42, "added by a newer producer")
+                .writeLong(5, 3)
+                .toByteArray();
+
+        SecurityEventMessage event = (SecurityEventMessage) EventCodec.decode(newer);
+
+        assertThat(event.repoName()).isEqualTo("acme/shop");
+        assertThat(event.critical()).isEqualTo(3);
+    }
+
+    @Test
+    void unknownEnumNamesFallBack() {
+        byte[] data = new BinaryEncoder(64)
+                .writeRaw(EventCodec.MAGIC).writeRaw(EventCodec.TYPE_HEALING).writeRaw(EventCodec.SCHEMA_VERSION)
+                .writeLong(1, 5)
+                .writeString(4, "SOME_FUTURE_FAILURE")
+                .toByteArray();
+
+        HealingEventMessage event = (HealingEventMessage) EventCodec.decode(data);
+
+        assertThat(event.failureType()).isEqualTo(FailureType.UNKNOWN);
+    }
+
+    @Test
+    void truncatedEventIsRejected() {
+        byte[] encoded = EventCodec.encode(new SecurityEventMessage("acme/shop", "main", "9fceb02", 1,
+                1L, 0L, 0L, 0L, 1L));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 3);
+
+        assertThatThrownBy(() -> EventCodec.decode(truncated)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void newerSchemaVersionIsRejected() {
+        byte[] data = {EventCodec.MAGIC, EventCodec.TYPE_PIPELINE, EventCodec.SCHEMA_VERSION + 1};
+
+        assertThatThrownBy(() -> EventCodec.decode(data)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
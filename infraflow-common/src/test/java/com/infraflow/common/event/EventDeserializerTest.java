@@ -0,0 +1,152 @@
+package com.infraflow.common.event;
+
+import com.infraflow.common.enums.FailureType;
+import com.infraflow.common.enums.HealingStatus;
+import com.infraflow.common.enums.PipelineStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventDeserializerTest {
+
+    private final EventDeserializer deserializer = new EventDeserializer();
+
+    @Test
+    void decodesBinaryEvents() {
+        SecurityEventMessage event = new SecurityEventMessage("acme/shop", "main", "9fceb02", 1,
+                1L, 0L, 0L, 0L, 3L);
+
+        assertThat(deserializer.deserialize("pipeline.events.security", EventCodec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void readsLegacyJsonPipelineEvent() {
+        String json = """
+                {"repoUrl":"https://github.com/acme/shop","repoName":"acme/shop","branch":"main",
+                 "commitSha":"9fceb02","provider":"GITHUB","status":"FAILED","workflowRunId":9876543210,
+                 "workflowName":"CI","triggeredAt":"2024-06-01T10:15:30Z","completedAt":"",
+                 "rawLogs":"npm ERR! build failed"}""";
+
+        Object decoded = deserializer.deserialize("pipeline.events.raw", json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(decoded).isEqualTo(new PipelineEventMessage("https://github.com/acme/shop", "acme/shop",
+                "main", "9fceb02", "GITHUB", PipelineStatus.FAILED, 9_876_543_210L, "CI",
+                Instant.parse("2024-06-01T10:15:30Z"), null, "npm ERR! build failed", null, 0L, null));
+    }
+
+    @Test
+    void readsLegacyJsonHealingEvent() {
+        String json = """
+                {"sessionId":42,"pipelineEventId":7,"repoName":"acme/shop","failureType":"TEST_FAILURE",
+                 "healingStatus":"PENDING_APPROVAL","confidence":0.8,"fixBranch":"","summary":"Flaky test"}""";
+
+        Object decoded = deserializer.deserialize("pipeline.events.healed", json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(decoded).isEqualTo(new HealingEventMessage(42L, 7L, "acme/shop", FailureType.TEST_FAILURE,
+                HealingStatus.PENDING_APPROVAL, 0.8, "", "Flaky test"));
+    }
+
+    @Test
+    void readsLegacyJsonSecurityEvent() {
+        String json = """
+                {"repoName":"acme/shop","branch":"main","commitSha":"9fceb02","totalFindings":3,
+                 "critical":1,"high":2,"medium":0,"low":0,"pipelineEventId":5}""";
+
+        Object decoded = deserializer.deserialize("pipeline.events.security", json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(decoded).isEqualTo(new SecurityEventMessage("acme/shop", "main", "9fceb02", 3,
+                1L, 2L, 0L, 0L, 5L));
+    }
+
+    @Test
+    void rejectsGarbageWithSerializationException() {
+        assertThatThrownBy(() -> deserializer.deserialize("pipeline.events.raw", new byte[]{1, 2, 3}))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> deserializer.deserialize("pipeline.events.raw",
+                "{not json".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void skipsRecordsWhoseStatusHeaderIsNotAccepted() {
+        EventDeserializer filtering = new EventDeserializer();
+        filtering.configure(Map.of(EventDeserializer.ACCEPT_PIPELINE_STATUS, "FAILED, CANCELLED"), false);
+        PipelineEventMessage running = pipelineEvent(PipelineStatus.RUNNING);
+
+        assertThat(filtering.deserialize("pipeline.events.raw", statusHeader("RUNNING"), EventCodec.encode(running)))
+                .isNull();
+    }
+
+    @Test
+    void decodesRecordsWhoseStatusHeaderIsAccepted() {
+        EventDeserializer filtering = new EventDeserializer();
+        filtering.configure(Map.of(EventDeserializer.ACCEPT_PIPELINE_STATUS, "FAILED, CANCELLED"), false);
+        PipelineEventMessage failed = pipelineEvent(PipelineStatus.FAILED);
+
+        assertThat(filtering.deserialize("pipeline.events.raw", statusHeader("FAILED"), EventCodec.encode(failed)))
+                .isEqualTo(failed);
+        assertThat(filtering.deserialize("pipeline.events.raw", statusHeader("CANCELLED"), EventCodec.encode(failed)))
+                .isEqualTo(failed);
+    }
+
+    @Test
+    void decodesRecordsWithoutStatusHeaderEvenWhenFiltering() {
+        EventDeserializer filtering = new EventDeserializer();
+        filtering.configure(Map.of(EventDeserializer.ACCEPT_PIPELINE_STATUS, "FAILED"), false);
+        PipelineEventMessage running = pipelineEvent(PipelineStatus.RUNNING);
+
+        assertThat(filtering.deserialize("pipeline.events.raw", new RecordHeaders(), EventCodec.encode(running)))
+                .isEqualTo(running);
+    }
+
+    @Test
+    void acceptsEveryStatusWhenNotConfigured() {
+        deserializer.configure(Map.of(), false);
+        PipelineEventMessage running = pipelineEvent(PipelineStatus.RUNNING);
+
+        assertThat(deserializer.deserialize("pipeline.events.raw", statusHeader("RUNNING"), EventCodec.encode(running)))
+                .isEqualTo(running);
+    }
+
+    @Test
+    void skippedRecordsAreNotDecoded() {
+        EventDeserializer filtering = new EventDeserializer();
+        filtering.configure(Map.of(EventDeserializer.ACCEPT_PIPELINE_STATUS, "FAILED"), false);
+        byte[] garbage = {EventCodec.MAGIC, 0x7f, 0x7f};
+
+        assertThat(filtering.deserialize("pipeline.events.raw", statusHeader("SUCCESS"), garbage)).isNull();
+    }
+
+    @Test
+    void blankStatusListAcceptsEveryStatus() {
+        deserializer.configure(Map.of(EventDeserializer.ACCEPT_PIPELINE_STATUS, " , "), false);
+        PipelineEventMessage running = pipelineEvent(PipelineStatus.RUNNING);
+
+        assertThat(deserializer.deserialize("pipeline.events.raw", statusHeader("RUNNING"), EventCodec.encode(running)))
+                .isEqualTo(running);
+    }
+
+    @Test
+    void nullValueStaysNull() {
+        assertThat(deserializer.deserialize("pipeline.events.raw", (byte[]) null)).isNull();
+    }
+
+    private static PipelineEventMessage pipelineEvent(PipelineStatus status) {
+        return new PipelineEventMessage("https://github.com/acme/shop", "acme/shop", "main", "9fceb02",
+                "GITHUB", status, 1L, "CI", Instant.parse("2024-06-01T10:15:30Z"), null, null, null, 0L, null);
+    }
+
+    private static Headers statusHeader(String status) {
+        Headers headers = new RecordHeaders();
+        EventHeaders.put(headers, EventHeaders.PIPELINE_STATUS, status);
+        return headers;
+    }
+}
@@ -1,13 +1,23 @@
 package com.infraflow.dashboard.consumer;
 
+import com.infraflow.common.event.HealingEventMessage;
+import com.infraflow.common.event.PipelineViewMessage;
+import com.infraflow.common.event.SecurityEventMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Forwards Kafka events to WebSocket clients. Payloads keep the JSON shape
+ * the UI was built against — enum names and ISO timestamps as strings, empty
+ * strings for missing text — whatever the Kafka wire format.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -15,23 +25,77 @@ public class DashboardEventConsumer {
 
     private final SimpMessagingTemplate messagingTemplate;
 
-    @KafkaListener(topics = "${infraflow.kafka.topic.pipeline-events}", groupId = "dashboard-backend")
-    public void consumePipelineEvent(Map<String, Object> event) {
-        log.info("Dashboard received pipeline event: {}", event.get("repoName"));
-        messagingTemplate.convertAndSend("/topic/pipeline-events", event);
+    @KafkaListener(topics = "${infraflow.kafka.topic.pipeline-view-events}", groupId = "dashboard-backend")
+    public void consumePipelineEvent(PipelineViewMessage event) {
+        log.info("Dashboard received pipeline event: {}", event.repoName());
+        messagingTemplate.convertAndSend("/topic/pipeline-events", pipelinePayload(event));
     }
 
     @KafkaListener(topics = "${infraflow.kafka.topic.healing-events}", groupId = "dashboard-backend")
-    public void consumeHealingEvent(Map<String, Object> event) {
+    public void consumeHealingEvent(HealingEventMessage event) {
         log.info("Dashboard received healing event: session={}, status={}",
-                event.get("sessionId"), event.get("healingStatus"));
-        messagingTemplate.convertAndSend("/topic/healing-events", event);
+                event.sessionId(), event.healingStatus());
+        messagingTemplate.convertAndSend("/topic/healing-events", healingPayload(event));
     }
 
     @KafkaListener(topics = "${infraflow.kafka.topic.security-events}", groupId = "dashboard-backend")
-    public void consumeSecurityEvent(Map<String, Object> event) {
-        log.info("Dashboard received security event: repo={}, severity={}",
-                event.get("repoName"), event.get("severity"));
-        messagingTemplate.convertAndSend("/topic/security-events", event);
+    public void consumeSecurityEvent(SecurityEventMessage event) {
+        log.info("Dashboard received security event: repo={}, critical={}, high={}",
+                event.repoName(), event.critical(), event.high());
+        messagingTemplate.convertAndSend("/topic/security-events", securityPayload(event));
+    }
+
+    private static Map<String, Object> pipelinePayload(PipelineViewMessage event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("repoUrl", text(event.repoUrl()));
+        payload.put("repoName", text(event.repoName()));
+        payload.put("branch", text(event.branch()));
+        payload.put("commitSha", text(event.commitSha()));
+        payload.put("provider", text(event.provider()));
+        payload.put("status", name(event.status()));
+        payload.put("workflowRunId", event.workflowRunId());
+        payload.put("workflowName", text(event.workflowName()));
+        payload.put("triggeredAt", timestamp(event.triggeredAt()));
+        payload.put("completedAt", timestamp(event.completedAt()));
+        return payload;
+    }
+
+    private static Map<String, Object> healingPayload(HealingEventMessage event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sessionId", event.sessionId());
+        payload.put("pipelineEventId", event.pipelineEventId());
+        payload.put("repoName", text(event.repoName()));
+        payload.put("failureType", name(event.failureType()));
+        payload.put("healingStatus", name(event.healingStatus()));
+        payload.put("confidence", event.confidence());
+        payload.put("fixBranch", text(event.fixBranch()));
+        payload.put("summary", text(event.summary()));
+        return payload;
+    }
+
+    private static Map<String, Object> securityPayload(SecurityEventMessage event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("repoName", text(event.repoName()));
+        payload.put("branch", text(event.branch()));
+        payload.put("commitSha", text(event.commitSha()));
+        payload.put("totalFindings", event.totalFindings());
+        payload.put("critical", event.critical());
+        payload.put("high", event.high());
+        payload.put("medium", event.medium());
+        payload.put("low", event.low());
+        payload.put("pipelineEventId", event.pipelineEventId());
+        return payload;
+    }
+
+    private static String text(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : "";
+    }
+
+    private static String timestamp(Instant value) {
+        return value != null ? value.toString() : "";
     }
 }
@@ -93,6 +93,7 @@ public class DashboardService {
         map.put("status", e.getStatus().name());
         map.put("failureType", e.getFailureType() != null ? e.getFailureType().name() : null);
         map.put("workflowName", e.getWorkflowName());
+        map.put("failedStep", e.getFailedStep());
         map.put("createdAt", e.getCreatedAt() != null ? e.getCreatedAt().toString() : null);
         return map;
     }
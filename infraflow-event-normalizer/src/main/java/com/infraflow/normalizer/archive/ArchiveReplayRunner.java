@@ -0,0 +1,219 @@
+package com.infraflow.normalizer.archive;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.normalizer.service.GitHubNormalizerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Re-drives archived webhooks ({@link WebhookArchive}) through
+ * {@link GitHubNormalizerService} — for Knowledge Base backfill and
+ * capacity tests.
+ *
+ * <p>Activated by {@code --infraflow.replay.file=<segment or archive dir>}.
+ * With {@code infraflow.replay.speed=1} the original inter-arrival gaps are
+ * reproduced, {@code 10} plays ten times faster, and {@code 0} (the default)
+ * replays as fast as the normalizer accepts. At most
+ * {@code infraflow.replay.max-in-flight} webhooks are published and not yet
+ * acknowledged at a time, which is what bounds a full-speed replay; the
+ * final summary waits for all of them, and counts a webhook as failed if
+ * its publish fails. Throughput and lag behind the pacing schedule are
+ * logged every few seconds and in the final summary.</p>
+ *
+ * <p>Payloads were verified when first received, so signatures are not
+ * checked again. Delivery ids are kept, so redelivery dedup behaves as it
+ * would for live traffic. Rate limiting was already applied when the
+ * webhook first arrived, and a fast replay would be mostly shed, so replayed
+ * events bypass {@code WebhookLoadShedder} unless
+ * {@code infraflow.replay.rate-limit=true}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "infraflow.replay.file")
+@Slf4j
+public class ArchiveReplayRunner implements ApplicationRunner {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final GitHubNormalizerService normalizerService;
+    private final JsonFactory jsonFactory;
+
+    @Value("${infraflow.replay.file}")
+    private Path source;
+
+    @Value("${infraflow.replay.speed:0}")
+    private double speed;
+
+    @Value("${infraflow.replay.rate-limit:false}")
+    private boolean rateLimit;
+
+    @Value("${infraflow.replay.max-in-flight:256}")
+    private int maxInFlight;
+
+    private Semaphore inFlight;
+    private long replayed;
+    private final AtomicLong failed = new AtomicLong();
+    private long maxLagMillis;
+
+    public ArchiveReplayRunner(GitHubNormalizerService normalizerService, ObjectMapper objectMapper) {
+        this.normalizerService = normalizerService;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<Path> segments = Files.isDirectory(source)
+                ? WebhookArchive.listSegments(source)
+                : List.of(source);
+        log.info("Replaying {} archive segment(s) from {} at {}, rate limiting {}", segments.size(), source,
+                speed > 0 ? speed + "x real time" : "full speed", rateLimit ? "on" : "off");
+
+        inFlight = new Semaphore(maxInFlight);
+        Pacer pacer = new Pacer();
+        long startNanos = System.nanoTime();
+        for (Path segment : segments) {
+            replaySegment(segment, pacer);
+        }
+        inFlight.acquire(maxInFlight);
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        log.info("Replay finished: {} webhook(s) in {}s ({}/s), {} failed, max lag {}ms",
+                replayed, String.format("%.1f", seconds), String.format("%.0f", replayed / Math.max(seconds, 1e-9)),
+                failed.get(), maxLagMillis);
+    }
+
+    private void replaySegment(Path segment, Pacer pacer) throws IOException, InterruptedException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(segment), 64 * 1024), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = readLine(reader, segment)) != null) {
+                if (line.isBlank()) continue;
+                ArchivedWebhook webhook;
+                try {
+                    webhook = parse(line);
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    log.warn("Skipping malformed archive line in {}: {}", segment.getFileName(), e.getMessage());
+                    continue;
+                }
+
+                long lagMillis = pacer.awaitSlot(webhook.receivedAt());
+                maxLagMillis = Math.max(maxLagMillis, lagMillis);
+                inFlight.acquire();
+                replayed++;
+                Optional<CompletableFuture<Void>> published;
+                try {
+                    published = normalizerService.republish(webhook.payload(), webhook.deliveryId(), rateLimit);
+                } catch (Exception e) {
+                    published = Optional.of(CompletableFuture.failedFuture(e));
+                }
+                published.orElse(CompletableFuture.completedFuture(null)).whenComplete((result, ex) -> {
+                    inFlight.release();
+                    if (ex != null) {
+                        failed.incrementAndGet();
+                        log.warn("Replay of delivery {} failed: {}", webhook.deliveryId(), ex.getMessage());
+                    }
+                });
+                pacer.report(replayed, lagMillis);
+            }
+        }
+    }
+
+    /** Treats a truncated tail (segment cut short by a crash) as end of segment. */
+    private static String readLine(BufferedReader reader, Path segment) throws IOException {
+        try {
+            return reader.readLine();
+        } catch (EOFException e) {
+            log.warn("Archive segment {} is truncated; replayed up to the cut", segment.getFileName());
+            return null;
+        }
+    }
+
+    private record ArchivedWebhook(long receivedAt, String deliveryId, byte[] payload) {}
+
+    /** Slices the embedded payload out of the line by offset instead of re-serializing it. */
+    private ArchivedWebhook parse(String line) throws IOException {
+        long receivedAt = 0;
+        String deliveryId = null;
+        byte[] payload = null;
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("archive line is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "receivedAt" -> receivedAt = parser.getLongValue();
+                    case "deliveryId" -> deliveryId = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "payload" -> {
+                        int start = (int) parser.currentTokenLocation().getCharOffset();
+                        parser.skipChildren();
+                        int end = (int) parser.currentLocation().getCharOffset();
+                        payload = line.substring(start, end).getBytes(StandardCharsets.UTF_8);
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (payload == null) {
+            throw new IOException("archive line has no payload");
+        }
+        return new ArchivedWebhook(receivedAt, deliveryId, payload);
+    }
+
+    /** Maps archive time onto wall-clock time at the configured speed. */
+    private final class Pacer {
+        private long firstReceivedAt = -1;
+        private long startNanos;
+        private long lastReportNanos;
+        private long lastReportCount;
+
+        /** Sleeps until the webhook's slot and returns how far behind schedule it is, in ms. */
+        long awaitSlot(long receivedAt) throws InterruptedException {
+            long now = System.nanoTime();
+            if (firstReceivedAt < 0) {
+                firstReceivedAt = receivedAt;
+                startNanos = now;
+                lastReportNanos = now;
+            }
+            if (speed <= 0) return 0;
+            long due = startNanos + (long) ((receivedAt - firstReceivedAt) * 1_000_000L / speed);
+            if (due > now) {
+                TimeUnit.NANOSECONDS.sleep(due - now);
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis(now - due);
+        }
+
+        void report(long count, long lagMillis) {
+            long now = System.nanoTime();
+            if (now - lastReportNanos < REPORT_INTERVAL_NANOS) return;
+            double rate = (count - lastReportCount) / ((now - lastReportNanos) / 1e9);
+            log.info("Replay progress: {} webhook(s), {}/s, lag {}ms", count, String.format("%.0f", rate), lagMillis);
+            lastReportNanos = now;
+            lastReportCount = count;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.infraflow.normalizer.archive;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps every accepted webhook body so historical traffic can be re-driven
+ * through the normalizer (see {@link ArchiveReplayRunner}) — to rebuild the
+ * Knowledge Base or for capacity tests.
+ *
+ * <p>Segments are gzip-compressed NDJSON files named
+ * {@code webhooks-<yyyyMMdd-HHmmss>.ndjson.gz}, or
+ * {@code webhooks-<yyyyMMdd-HHmmss>-<n>.ndjson.gz} for the n-th further one
+ * opened within the same second, one line per webhook:</p>
+ * <pre>{"receivedAt":1718000000000,"deliveryId":"…","payload":{…original body…}}</pre>
+ * <p>The body is embedded verbatim; its insignificant newlines are replaced
+ * by spaces to keep it on one line. A segment is rotated once it holds
+ * {@code segment-size} of uncompressed data or is older than
+ * {@code rotate-interval}; only the newest {@code max-segments} are kept.
+ * The open segment is sync-flushed at most once a second — on append, and by
+ * the {@code archive-flusher} thread when appends stop — so one cut short by
+ * a crash is still readable up to a second before it.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookArchive {
+
+    static final String SEGMENT_PREFIX = "webhooks-";
+    static final String SEGMENT_SUFFIX = ".ndjson.gz";
+
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private static final DateTimeFormatter SEGMENT_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final int SEGMENT_TIME_LENGTH = "yyyyMMdd-HHmmss".length();
+
+    /**
+     * By time, then the unsuffixed segment before its numbered successors in
+     * numeric order. Plain name order would not do: {@code -} sorts before
+     * {@code .}, and {@code -10} before {@code -2}.
+     */
+    static final Comparator<Path> SEGMENT_ORDER = Comparator
+            .comparing(WebhookArchive::segmentTime)
+            .thenComparingLong(WebhookArchive::segmentSequence)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${infraflow.archive.dir}")
+    private Path dir;
+
+    @Value("${infraflow.archive.segment-size:256MB}")
+    private DataSize segmentSize;
+
+    @Value("${infraflow.archive.rotate-interval:1h}")
+    private Duration rotateInterval;
+
+    @Value("${infraflow.archive.max-segments:168}")
+    private int maxSegments;
+
+    private OutputStream out;
+    private long segmentBytes;
+    private long segmentOpenedAtMillis;
+    private long lastFlushMillis;
+    private boolean unflushed;
+    private Thread flusher;
+
+    private Counter archived;
+    private Counter failures;
+
+    @PostConstruct
+    void init() throws IOException {
+        archived = Counter.builder("infraflow.archive.written")
+                .description("Webhook payloads written to the replay archive")
+                .register(meterRegistry);
+        failures = Counter.builder("infraflow.archive.failures").register(meterRegistry);
+        if (enabled) {
+            Files.createDirectories(dir);
+            log.info("Webhook archive enabled: dir={}, segmentSize={}, rotateInterval={}",
+                    dir, segmentSize, rotateInterval);
+            flusher = new Thread(this::flushLoop, "archive-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (flusher != null) flusher.interrupt();
+        synchronized (this) {
+            closeSegment();
+        }
+    }
+
+    /**
+     * Appends one webhook body. Never throws: a failing archive must not
+     * cost a webhook.
+     */
+    public void append(byte[] rawPayload, String deliveryId, long receivedAtMillis) {
+        if (!enabled) return;
+        byte[] prefix = ("{\"receivedAt\":" + receivedAtMillis + ",\"deliveryId\":"
+                + (deliveryId != null ? "\"" + new String(JsonStringEncoder.getInstance().quoteAsString(deliveryId)) + "\"" : "null")
+                + ",\"payload\":").getBytes(StandardCharsets.UTF_8);
+        byte[] payload = oneLine(rawPayload);
+
+        synchronized (this) {
+            try {
+                if (out == null || segmentBytes >= segmentSize.toBytes()
+                        || System.currentTimeMillis() - segmentOpenedAtMillis >= rotateInterval.toMillis()) {
+                    rotate();
+                }
+                out.write(prefix);
+                out.write(payload);
+                out.write('}');
+                out.write('\n');
+                unflushed = true;
+                flushIfDue(System.currentTimeMillis());
+                segmentBytes += prefix.length + payload.length + 2;
+                archived.increment();
+            } catch (IOException e) {
+                failures.increment();
+                log.warn("Failed to archive webhook {}: {}", deliveryId, e.getMessage());
+                closeSegment();
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                try {
+                    flushIfDue(System.currentTimeMillis());
+                } catch (IOException e) {
+                    failures.increment();
+                    log.warn("Failed to flush webhook archive segment: {}", e.getMessage());
+                    closeSegment();
+                }
+            }
+        }
+    }
+
+    /** Sync-flushes at most once a second: bounds crash loss without hurting compression. */
+    private void flushIfDue(long now) throws IOException {
+        if (out == null || !unflushed || now - lastFlushMillis < FLUSH_INTERVAL_MILLIS) return;
+        out.flush();
+        unflushed = false;
+        lastFlushMillis = now;
+    }
+
+    /** JSON allows raw CR/LF only as whitespace between tokens, so blanking them is lossless. */
+    private static byte[] oneLine(byte[] rawPayload) {
+        byte[] copy = null;
+        for (int i = 0; i < rawPayload.length; i++) {
+            if (rawPayload[i] == '\n' || rawPayload[i] == '\r') {
+                if (copy == null) copy = rawPayload.clone();
+                copy[i] = ' ';
+            }
+        }
+        return copy != null ? copy : rawPayload;
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        String time = SEGMENT_TIME.format(Instant.now());
+        Path segment = dir.resolve(SEGMENT_PREFIX + time + SEGMENT_SUFFIX);
+        for (int n = 1; Files.exists(segment); n++) {
+            segment = dir.resolve(SEGMENT_PREFIX + time + "-" + n + SEGMENT_SUFFIX);
+        }
+        out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(segment), 64 * 1024),
+                64 * 1024, true);
+        segmentBytes = 0;
+        segmentOpenedAtMillis = System.currentTimeMillis();
+        log.info("Opened webhook archive segment {}", segment.getFileName());
+        pruneOldSegments();
+    }
+
+    private void closeSegment() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Failed to close webhook archive segment: {}", e.getMessage());
+        }
+        out = null;
+    }
+
+    private void pruneOldSegments() throws IOException {
+        List<Path> segments = listSegments(dir);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    /** Archive segments in {@code dir}, oldest first. */
+    static List<Path> listSegments(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(SEGMENT_ORDER)
+                    .toList();
+        }
+    }
+
+    private static String segmentTime(Path segment) {
+        String stem = stem(segment);
+        return stem.substring(0, Math.min(SEGMENT_TIME_LENGTH, stem.length()));
+    }
+
+    /** 0 for the unsuffixed segment of a second, else its {@code -<n>} suffix. */
+    private static long segmentSequence(Path segment) {
+        String stem = stem(segment);
+        if (stem.length() <= SEGMENT_TIME_LENGTH + 1) return 0;
+        try {
+            // Older archives used -<System.nanoTime()>, which may be negative; any suffix comes after none
+            return Math.max(1, Long.parseLong(stem.substring(SEGMENT_TIME_LENGTH + 1)));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static String stem(Path segment) {
+        String name = segment.getFileName().toString();
+        return name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+    }
+}
@@ -0,0 +1,249 @@
+package com.infraflow.normalizer.coalesce;
+
+import com.infraflow.common.enums.PipelineStatus;
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.normalizer.service.PipelineEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Collapses the QUEUED → RUNNING → terminal chatter of a workflow run into as
+ * few Kafka messages as possible.
+ *
+ * <p>Intermediate states (QUEUED, RUNNING) are held per {@code workflowRunId}
+ * for up to {@code window}; a newer state for the same run replaces the held
+ * one. A terminal state is published immediately and discards whatever was
+ * held for its run, so a run that finishes within the window costs a single
+ * message. Intermediate states that arrive after their run's terminal state
+ * (GitHub does not guarantee delivery order) are dropped.</p>
+ *
+ * <p>Everything that decides what to publish for a run — holding, replacing,
+ * flushing and the terminal hand-off — runs under that run's lock (one of
+ * {@value #LOCK_STRIPES} stripes), and a flush therefore cannot publish a
+ * stale RUNNING after the run's terminal state. The decided event is put in
+ * the stripe's outbox under the same lock, and sent after it is released:
+ * one thread at a time drains a stripe's outbox in order, so the two still
+ * reach Kafka in order, while a send blocked on broker metadata holds up
+ * only the thread draining it rather than every caller of the stripe.</p>
+ *
+ * <p>Events without a run id bypass the coalescer. A {@code window} of zero
+ * disables it. Held events are flushed on shutdown.</p>
+ *
+ * <p>The claim-checked logs of an event that is superseded, dropped or fails
+ * to publish are left in the blob store. Blobs are content-addressed and
+ * shared by every event with the same logs, and a failed publish may still
+ * have reached one of its topics, so nothing here can tell that a blob is
+ * unreferenced; {@code BlobRetentionSweeper} ages them out.</p>
+ *
+ * <p>Metrics: {@code infraflow.webhook.coalesced} (events superseded) and
+ * {@code infraflow.webhook.coalesce.pending}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WorkflowRunCoalescer {
+
+    /** How long a terminated run id is remembered, in windows. */
+    private static final int TERMINATED_MEMORY_WINDOWS = 30;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final PipelineEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.coalesce.window:2s}")
+    private Duration window;
+
+    private final Map<Long, Held> held = new ConcurrentHashMap<>();
+    private final Map<Long, Terminated> terminated = new ConcurrentHashMap<>();
+    private final Stripe[] stripes = Stream.generate(Stripe::new).limit(LOCK_STRIPES).toArray(Stripe[]::new);
+    private Thread flusher;
+    private volatile boolean running;
+    private Counter coalesced;
+
+    private record Held(PipelineEventMessage event, long firstSeenNanos) {}
+
+    private record Terminated(long atNanos) {}
+
+    private record Outgoing(PipelineEventMessage event, CompletableFuture<Void> sent) {}
+
+    /** A run lock, and the events decided under it that are still to be sent, in order. */
+    private static final class Stripe {
+        final Deque<Outgoing> outbox = new ArrayDeque<>();
+        boolean sending;
+    }
+
+    @PostConstruct
+    void start() {
+        coalesced = Counter.builder("infraflow.webhook.coalesced")
+                .description("Intermediate workflow_run states superseded before being published")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.webhook.coalesce.pending", held, Map::size)
+                .register(meterRegistry);
+        if (window.isZero()) {
+            log.info("workflow_run coalescing disabled");
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "run-coalescer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("workflow_run coalescing enabled: window={}", window);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) return;
+        running = false;
+        flusher.interrupt();
+        flusher.join(window.toMillis() * 2);
+        held.keySet().forEach(runId -> flush(runId, Long.MAX_VALUE));
+    }
+
+    /**
+     * Publishes the event now or holds it for coalescing. The returned future
+     * completes immediately for held or dropped events.
+     */
+    public CompletableFuture<Void> submit(PipelineEventMessage event) {
+        long runId = event.workflowRunId();
+        if (runId == 0) {
+            return publish(event);
+        }
+        Stripe stripe = stripeFor(runId);
+        CompletableFuture<Void> sent;
+        synchronized (stripe) {
+            if (!running) {
+                sent = enqueue(stripe, event);
+            } else if (isTerminal(event.status())) {
+                terminated.put(runId, new Terminated(System.nanoTime()));
+                if (held.remove(runId) != null) {
+                    coalesced.increment();
+                }
+                sent = enqueue(stripe, event);
+            } else {
+                return hold(runId, event);
+            }
+        }
+        sendQueued(stripe);
+        return sent;
+    }
+
+    /** Holds an intermediate state, or drops it after its run's terminal state. Called under the run's lock. */
+    private CompletableFuture<Void> hold(long runId, PipelineEventMessage event) {
+        if (terminated.containsKey(runId)) {
+            log.debug("Dropping late {} for finished run {}", event.status(), runId);
+            coalesced.increment();
+            return CompletableFuture.completedFuture(null);
+        }
+        Held previous = held.get(runId);
+        held.put(runId, new Held(event, previous != null ? previous.firstSeenNanos() : System.nanoTime()));
+        if (previous != null) {
+            coalesced.increment();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void flushLoop() {
+        long tickMillis = Math.max(10, window.toMillis() / 2);
+        long windowNanos = window.toNanos();
+        while (running) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long now = System.nanoTime();
+            for (Long runId : held.keySet()) {
+                flush(runId, now - windowNanos);
+            }
+            long forgetBefore = now - windowNanos * TERMINATED_MEMORY_WINDOWS;
+            terminated.values().removeIf(finished -> finished.atNanos() - forgetBefore < 0);
+        }
+    }
+
+    /** Publishes the run's held state if it was first seen before {@code seenBeforeNanos}. */
+    private void flush(Long runId, long seenBeforeNanos) {
+        Stripe stripe = stripeFor(runId);
+        synchronized (stripe) {
+            Held due = held.get(runId);
+            if (due == null
+                    || (seenBeforeNanos != Long.MAX_VALUE && due.firstSeenNanos() - seenBeforeNanos > 0)) {
+                return;
+            }
+            held.remove(runId);
+            if (terminated.containsKey(runId)) {
+                // The terminal hand-off clears held under this lock; re-checked all the same
+                coalesced.increment();
+                return;
+            }
+            enqueue(stripe, due.event()).whenComplete((result, ex) -> {
+                if (ex != null) log.error("Failed to publish coalesced event for run {}", runId, ex);
+            });
+        }
+        sendQueued(stripe);
+    }
+
+    private Stripe stripeFor(long runId) {
+        return stripes[(int) ((runId ^ (runId >>> 32)) & (LOCK_STRIPES - 1))];
+    }
+
+    /** Queues the event for sending in decision order. Called under the stripe's lock. */
+    private static CompletableFuture<Void> enqueue(Stripe stripe, PipelineEventMessage event) {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        stripe.outbox.addLast(new Outgoing(event, sent));
+        return sent;
+    }
+
+    /**
+     * Sends the stripe's queued events in order, unless another thread is
+     * already doing so and will send them too. Called without the lock held.
+     */
+    private void sendQueued(Stripe stripe) {
+        synchronized (stripe) {
+            if (stripe.sending || stripe.outbox.isEmpty()) return;
+            stripe.sending = true;
+        }
+        while (true) {
+            Outgoing next;
+            synchronized (stripe) {
+                next = stripe.outbox.pollFirst();
+                if (next == null) {
+                    stripe.sending = false;
+                    return;
+                }
+            }
+            publish(next.event()).whenComplete((result, ex) -> {
+                if (ex != null) next.sent().completeExceptionally(ex);
+                else next.sent().complete(null);
+            });
+        }
+    }
+
+    private CompletableFuture<Void> publish(PipelineEventMessage event) {
+        try {
+            return eventPublisher.publish(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static boolean isTerminal(PipelineStatus status) {
+        return status != PipelineStatus.QUEUED && status != PipelineStatus.RUNNING;
+    }
+}
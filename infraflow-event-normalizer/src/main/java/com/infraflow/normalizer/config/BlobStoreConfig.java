@@ -0,0 +1,23 @@
+package com.infraflow.normalizer.config;
+
+import com.infraflow.common.blob.FileSystemBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Claim-check store for raw CI logs. Must point at the same directory as the
+ * healing-engine, which reads the blobs back by digest. The normalizer, as
+ * the writer, also owns retention (see {@code BlobRetentionSweeper}).
+ */
+@Configuration
+public class BlobStoreConfig {
+
+    @Bean
+    public FileSystemBlobStore blobStore(@Value("${infraflow.blob-store.root}") String root) throws IOException {
+        return new FileSystemBlobStore(Path.of(root));
+    }
+}
@@ -0,0 +1,22 @@
+package com.infraflow.normalizer.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value("${infraflow.kafka.topic.pipeline-view-events}")
+    private String pipelineViewTopic;
+
+    @Bean
+    public NewTopic pipelineViewTopic() {
+        return TopicBuilder.name(pipelineViewTopic)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+}
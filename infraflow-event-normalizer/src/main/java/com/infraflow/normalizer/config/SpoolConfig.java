@@ -0,0 +1,27 @@
+package com.infraflow.normalizer.config;
+
+import com.infraflow.normalizer.spool.DiskSpool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Local journal for events that could not be produced while Kafka was down.
+ * Each normalizer instance needs its own directory.
+ */
+@Configuration
+@ConditionalOnProperty(name = "infraflow.spool.enabled", havingValue = "true", matchIfMissing = true)
+public class SpoolConfig {
+
+    @Bean(destroyMethod = "close")
+    public DiskSpool diskSpool(@Value("${infraflow.spool.dir}") String dir,
+                               @Value("${infraflow.spool.segment-size:16MB}") DataSize segmentSize,
+                               @Value("${infraflow.spool.max-size:1GB}") DataSize maxSize) throws IOException {
+        return new DiskSpool(Path.of(dir), (int) segmentSize.toBytes(), maxSize.toBytes());
+    }
+}
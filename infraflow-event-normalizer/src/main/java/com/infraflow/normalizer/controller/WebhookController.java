@@ -1,8 +1,11 @@
 package com.infraflow.normalizer.controller;
 
+import com.infraflow.normalizer.ingest.WebhookIngestionBuffer;
 import com.infraflow.normalizer.service.GitHubNormalizerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,21 +18,35 @@ import java.util.Map;
 public class WebhookController {
 
     private final GitHubNormalizerService gitHubNormalizerService;
+    private final WebhookIngestionBuffer ingestionBuffer;
 
     @PostMapping("/github")
     public ResponseEntity<Map<String, String>> handleGitHubWebhook(
             @RequestHeader(value = "X-GitHub-Event", required = false) String eventType,
             @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
-            @RequestBody String rawPayload) {
+            @RequestHeader(value = "X-GitHub-Delivery", required = false) String deliveryId,
+            @RequestBody byte[] rawPayload) {
 
-        log.info("Received GitHub webhook: event={}", eventType);
+        log.info("Received GitHub webhook: event={}, delivery={}", eventType, deliveryId);
 
         if (!"workflow_run".equals(eventType) && !"check_run".equals(eventType)) {
             return ResponseEntity.ok(Map.of("status", "ignored", "reason", "event type not tracked"));
         }
 
-        gitHubNormalizerService.normalizeAndPublish(rawPayload, signature);
+        if (!ingestionBuffer.isEnabled()) {
+            gitHubNormalizerService.normalizeAndPublish(rawPayload, signature, deliveryId);
+            return ResponseEntity.ok(Map.of("status", "accepted"));
+        }
+
+        // Async path: verify on the request thread, publish from the drainer
+        gitHubNormalizerService.verify(rawPayload, signature);
+        if (!ingestionBuffer.offer(rawPayload, deliveryId)) {
+            log.warn("Ingestion buffer full — rejecting webhook with 429");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("status", "rejected", "reason", "ingestion buffer full"));
+        }
 
-        return ResponseEntity.ok(Map.of("status", "accepted"));
+        return ResponseEntity.accepted().body(Map.of("status", "accepted"));
     }
 }
@@ -0,0 +1,207 @@
+package com.infraflow.normalizer.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops GitHub webhook redeliveries before they cost any Kafka, Postgres or
+ * LLM work.
+ *
+ * <p>GitHub retries (and manual "Redeliver" clicks) arrive with the same
+ * {@code X-GitHub-Delivery} GUID. Deliveries are keyed on that GUID plus
+ * {@code workflow_run.id} and reduced to a 64-bit fingerprint, which is then
+ * checked in two tiers:</p>
+ * <ol>
+ *   <li>a {@link RotatingBloomFilter} — a negative answer means "definitely
+ *       new" and costs a few bit probes;</li>
+ *   <li>a bounded, access-ordered LRU of fingerprint → first-seen time that
+ *       confirms Bloom positives exactly and enforces the TTL.</li>
+ * </ol>
+ *
+ * <p>A delivery is {@link #tryReserve reserved} while its event is being
+ * normalized and published, and {@link #recordDelivered recorded} once the
+ * event has been published or spooled. A second copy arriving meanwhile
+ * finds the reservation and is dropped. A delivery that is not published —
+ * shed, or its publish failed — is {@link #release released} instead, so
+ * GitHub's redelivery of it goes through.</p>
+ *
+ * <p>Beyond the reservation, a Bloom miss — the common case — is answered
+ * without taking a lock; only Bloom positives and records touch the LRU
+ * under its monitor. The
+ * Bloom filter rotates every TTL, so entries age out without deletions. A
+ * Bloom false positive or an LRU eviction can only make a duplicate look
+ * new, never the reverse, so genuine deliveries are never dropped (barring
+ * a 64-bit fingerprint collision).</p>
+ *
+ * <p>Metrics: {@code infraflow.webhook.dedup{result=duplicate|unique}},
+ * {@code infraflow.webhook.dedup.hit.ratio} and
+ * {@code infraflow.webhook.dedup.entries}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryDeduplicator {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${infraflow.dedup.ttl:6h}")
+    private Duration ttl;
+
+    @Value("${infraflow.dedup.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${infraflow.dedup.bloom.expected-insertions:1000000}")
+    private int expectedInsertions;
+
+    @Value("${infraflow.dedup.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private RotatingBloomFilter bloom;
+    private LinkedHashMap<Long, Long> recent;
+    private final Set<Long> reserved = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastRotationMillis = new AtomicLong();
+
+    private Counter duplicates;
+    private Counter uniques;
+
+    @PostConstruct
+    void init() {
+        bloom = new RotatingBloomFilter(expectedInsertions, falsePositiveRate);
+        recent = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        lastRotationMillis.set(System.currentTimeMillis());
+
+        duplicates = Counter.builder("infraflow.webhook.dedup")
+                .tag("result", "duplicate")
+                .description("Webhook deliveries dropped as redeliveries")
+                .register(meterRegistry);
+        uniques = Counter.builder("infraflow.webhook.dedup")
+                .tag("result", "unique")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.webhook.dedup.hit.ratio", this, DeliveryDeduplicator::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("infraflow.webhook.dedup.entries", this, d -> d.size())
+                .register(meterRegistry);
+
+        log.info("Delivery dedup {}: ttl={}, maxEntries={}, bloom={} KiB",
+                enabled ? "enabled" : "disabled", ttl, maxEntries, bloom.sizeInBytes() / 1024);
+    }
+
+    /**
+     * Claims the delivery for publishing. Returns {@code false} for a
+     * duplicate: one recorded within the TTL, or another copy of it that
+     * holds the reservation. On {@code true} the caller must end with
+     * {@link #recordDelivered} or {@link #release}. Deliveries without a
+     * GUID are never treated as duplicates.
+     */
+    public boolean tryReserve(String deliveryId, long workflowRunId) {
+        if (!tracked(deliveryId)) {
+            return true;
+        }
+        long fingerprint = fingerprint(deliveryId + ":" + workflowRunId);
+        long now = System.currentTimeMillis();
+        rotateIfDue(now);
+
+        if (!reserved.add(fingerprint)) {
+            duplicates.increment();
+            return false;
+        }
+        if (bloom.mightContain(fingerprint)) {
+            Long firstSeen;
+            synchronized (recent) {
+                firstSeen = recent.get(fingerprint);
+            }
+            if (firstSeen != null && now - firstSeen < ttl.toMillis()) {
+                reserved.remove(fingerprint);
+                duplicates.increment();
+                return false;
+            }
+        }
+        uniques.increment();
+        return true;
+    }
+
+    /** Remembers the reserved delivery once its event has been published, so redeliveries of it are dropped. */
+    public void recordDelivered(String deliveryId, long workflowRunId) {
+        if (!tracked(deliveryId)) {
+            return;
+        }
+        long fingerprint = fingerprint(deliveryId + ":" + workflowRunId);
+        long now = System.currentTimeMillis();
+        rotateIfDue(now);
+
+        bloom.put(fingerprint);
+        synchronized (recent) {
+            recent.put(fingerprint, now);
+        }
+        // Only now, so a copy arriving in between finds either the reservation or the record
+        reserved.remove(fingerprint);
+    }
+
+    /** Drops the reservation of a delivery that was not published, so a redelivery of it goes through. */
+    public void release(String deliveryId, long workflowRunId) {
+        if (tracked(deliveryId)) {
+            reserved.remove(fingerprint(deliveryId + ":" + workflowRunId));
+        }
+    }
+
+    private boolean tracked(String deliveryId) {
+        return enabled && deliveryId != null && !deliveryId.isBlank();
+    }
+
+    /** Exactly one caller wins the CAS and rotates; the rest carry on with the current generation. */
+    private void rotateIfDue(long now) {
+        long last = lastRotationMillis.get();
+        if (now - last >= ttl.toMillis() && lastRotationMillis.compareAndSet(last, now)) {
+            bloom.rotate();
+        }
+    }
+
+    private int size() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+
+    private double hitRatio() {
+        double hits = duplicates.count();
+        double total = hits + uniques.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    /** 64-bit FNV-1a over UTF-8 bytes, finished with a murmur3 fmix64 avalanche. */
+    static long fingerprint(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
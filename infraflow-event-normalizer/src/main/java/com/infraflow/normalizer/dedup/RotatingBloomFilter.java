@@ -0,0 +1,82 @@
+package com.infraflow.normalizer.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Two-generation Bloom filter over 64-bit fingerprints.
+ *
+ * <p>Inserts go to the current generation; lookups consult both. Calling
+ * {@link #rotate()} discards the older generation and starts a fresh one, so a
+ * fingerprint is remembered for between one and two rotation periods without
+ * ever having to delete bits. Probe positions use Kirsch–Mitzenmacher double
+ * hashing derived from the single fingerprint.</p>
+ *
+ * <p>Bit updates are lock-free; {@link #rotate()} swaps references and may race
+ * benignly with concurrent inserts (a lost insert only costs a later miss).</p>
+ */
+final class RotatingBloomFilter {
+
+    private final int numBits;
+    private final int numHashes;
+
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+
+    RotatingBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.numBits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, Math.ceil(bits)));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        this.current = newBits();
+        this.previous = newBits();
+    }
+
+    boolean mightContain(long fingerprint) {
+        return contains(current, fingerprint) || contains(previous, fingerprint);
+    }
+
+    void put(long fingerprint) {
+        AtomicLongArray bits = current;
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int index = position(h1 + i * h2);
+            long mask = 1L << index;
+            int word = index >>> 6;
+            long old;
+            do {
+                old = bits.get(word);
+                if ((old & mask) != 0) break;
+            } while (!bits.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    void rotate() {
+        previous = current;
+        current = newBits();
+    }
+
+    /** Approximate heap footprint of both generations, in bytes. */
+    long sizeInBytes() {
+        return 2L * (numBits / 64 + 1) * Long.BYTES;
+    }
+
+    private boolean contains(AtomicLongArray bits, long fingerprint) {
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int index = position(h1 + i * h2);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int position(int combined) {
+        return (combined & Integer.MAX_VALUE) % numBits;
+    }
+
+    private AtomicLongArray newBits() {
+        return new AtomicLongArray(numBits / 64 + 1);
+    }
+}
@@ -0,0 +1,11 @@
+package com.infraflow.normalizer.ingest;
+
+/**
+ * A signature-verified webhook body waiting in the {@link WebhookIngestionBuffer}.
+ *
+ * @param rawPayload       the request body bytes exactly as received
+ * @param deliveryId       the {@code X-GitHub-Delivery} GUID, used for redelivery dedup
+ * @param receivedAtNanos  {@link System#nanoTime()} at enqueue, for drain latency
+ * @param receivedAtMillis wall-clock receive time, recorded in the archive
+ */
+public record IngestedWebhook(byte[] rawPayload, String deliveryId, long receivedAtNanos, long receivedAtMillis) {}
@@ -0,0 +1,183 @@
+package com.infraflow.normalizer.ingest;
+
+import com.infraflow.normalizer.archive.WebhookArchive;
+import com.infraflow.normalizer.service.GitHubNormalizerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounded hand-off between the webhook request thread and Kafka.
+ *
+ * <p>The controller verifies the signature and {@link #offer offers} the raw
+ * payload here, then acknowledges GitHub with 202 straight away. A single
+ * drainer thread pulls payloads in micro-batches, normalizes them and
+ * publishes to {@code pipeline.events.raw}, waiting for the whole batch to be
+ * acknowledged before taking the next one. When the buffer is full,
+ * {@link #offer} returns {@code false} and the caller answers 429 — an explicit
+ * backpressure signal instead of an unbounded queue or a stalled request
+ * thread.</p>
+ *
+ * <p>Exposed on {@code /actuator/metrics}:</p>
+ * <ul>
+ *   <li>{@code infraflow.ingest.queue.depth} — payloads waiting to be drained</li>
+ *   <li>{@code infraflow.ingest.drain.latency} — enqueue → broker ack per event</li>
+ *   <li>{@code infraflow.ingest.batch.size} — events per drained batch</li>
+ *   <li>{@code infraflow.ingest.rejected} — offers refused because the buffer was full</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookIngestionBuffer {
+
+    private final GitHubNormalizerService normalizerService;
+    private final WebhookArchive archive;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.ingest.async:true}")
+    private boolean enabled;
+
+    @Value("${infraflow.ingest.buffer-capacity:10000}")
+    private int capacity;
+
+    @Value("${infraflow.ingest.batch-size:100}")
+    private int batchSize;
+
+    @Value("${infraflow.ingest.linger-ms:50}")
+    private long lingerMs;
+
+    @Value("${infraflow.ingest.publish-timeout-ms:30000}")
+    private long publishTimeoutMs;
+
+    private BlockingQueue<IngestedWebhook> queue;
+    private Thread drainer;
+    private volatile boolean running;
+
+    private Timer drainLatency;
+    private DistributionSummary batchSizes;
+    private Counter rejected;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Async webhook ingestion disabled — publishing on the request thread");
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("infraflow.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Webhook payloads waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.ingest.queue.capacity", queue, q -> capacity)
+                .register(meterRegistry);
+        drainLatency = Timer.builder("infraflow.ingest.drain.latency")
+                .description("Time from webhook enqueue to Kafka acknowledgement")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("infraflow.ingest.batch.size")
+                .register(meterRegistry);
+        rejected = Counter.builder("infraflow.ingest.rejected")
+                .description("Webhooks rejected with 429 because the ingestion buffer was full")
+                .register(meterRegistry);
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "webhook-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+        log.info("Async webhook ingestion started: capacity={}, batchSize={}, lingerMs={}",
+                capacity, batchSize, lingerMs);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (drainer == null) return;
+        running = false;
+        drainer.join(publishTimeoutMs);
+        if (!queue.isEmpty()) {
+            log.warn("Shutting down with {} webhook(s) still buffered", queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enqueues a verified payload. Never blocks; returns {@code false} when the
+     * buffer is at capacity.
+     */
+    public boolean offer(byte[] rawPayload, String deliveryId) {
+        if (queue.offer(new IngestedWebhook(rawPayload, deliveryId, System.nanoTime(),
+                System.currentTimeMillis()))) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private void drainLoop() {
+        List<IngestedWebhook> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                IngestedWebhook first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                publishBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Webhook drainer failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publishBatch(List<IngestedWebhook> batch) throws InterruptedException {
+        batchSizes.record(batch.size());
+        List<CompletableFuture<?>> inFlight = new ArrayList<>(batch.size());
+
+        for (IngestedWebhook webhook : batch) {
+            archive.append(webhook.rawPayload(), webhook.deliveryId(), webhook.receivedAtMillis());
+            try {
+                normalizerService.submit(webhook.rawPayload(), webhook.deliveryId()).ifPresent(published ->
+                        inFlight.add(published.whenComplete((result, ex) ->
+                                drainLatency.record(System.nanoTime() - webhook.receivedAtNanos(),
+                                        TimeUnit.NANOSECONDS))));
+            } catch (Exception e) {
+                // One malformed payload must not take the rest of the batch down with it
+                log.error("Dropping webhook that failed normalization", e);
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                    .get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Timed out after {}ms waiting for {} publish acknowledgement(s)",
+                    publishTimeoutMs, inFlight.size());
+        } catch (ExecutionException e) {
+            log.warn("Batch publish completed with failures: {}", e.getCause().getMessage());
+        }
+    }
+}
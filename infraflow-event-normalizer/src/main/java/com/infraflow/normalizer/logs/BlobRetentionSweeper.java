@@ -0,0 +1,85 @@
+package com.infraflow.normalizer.logs;
+
+import com.infraflow.common.blob.FileSystemBlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Ages raw-log blobs out of the claim-check store. Every {@code interval} a
+ * single thread deletes blobs not written for {@code max-age}, then the
+ * oldest ones while the store is larger than {@code max-size}.
+ *
+ * <p>{@code max-age} should outlast the retention of
+ * {@code pipeline.events.raw}: an event consumed after its blob is gone is
+ * analysed without logs.</p>
+ *
+ * <p>Metric: {@code infraflow.blob.purged}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BlobRetentionSweeper {
+
+    private final FileSystemBlobStore blobStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.blob-store.retention.max-age:7d}")
+    private Duration maxAge;
+
+    @Value("${infraflow.blob-store.retention.max-size:10GB}")
+    private DataSize maxSize;
+
+    @Value("${infraflow.blob-store.retention.interval:10m}")
+    private Duration interval;
+
+    private Thread sweeper;
+    private volatile boolean running;
+    private Counter purged;
+
+    @PostConstruct
+    void start() {
+        purged = Counter.builder("infraflow.blob.purged")
+                .description("Raw-log blobs deleted by retention")
+                .register(meterRegistry);
+        running = true;
+        sweeper = new Thread(this::sweepLoop, "blob-retention");
+        sweeper.setDaemon(true);
+        sweeper.start();
+        log.info("Blob retention: maxAge={}, maxSize={}, interval={}", maxAge, maxSize, interval);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        sweeper.interrupt();
+    }
+
+    private void sweepLoop() {
+        while (running) {
+            try {
+                int deleted = blobStore.purge(maxAge, maxSize.toBytes());
+                if (deleted > 0) {
+                    purged.increment(deleted);
+                    log.info("Blob retention deleted {} raw-log blob(s)", deleted);
+                }
+            } catch (Exception e) {
+                log.warn("Blob retention sweep failed: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
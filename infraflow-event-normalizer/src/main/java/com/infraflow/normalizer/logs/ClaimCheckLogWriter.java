@@ -0,0 +1,74 @@
+package com.infraflow.normalizer.logs;
+
+import com.infraflow.common.blob.BlobRef;
+import com.infraflow.common.blob.BlobStore;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Receives raw log text and decides where it lives: small logs stay inline in
+ * the Kafka event, anything past the threshold is spilled to the
+ * {@link BlobStore} and travels as a claim-check reference instead.
+ *
+ * <p>Text is buffered in memory only up to the threshold; once exceeded, the
+ * buffer is flushed into a blob writer and the rest streams straight through,
+ * so a multi-MB log is never held twice.</p>
+ */
+public class ClaimCheckLogWriter extends Writer {
+
+    /**
+     * Outcome of {@link #finish()}: exactly one of {@code inline} / {@code ref}
+     * is non-null when {@code length > 0}.
+     */
+    public record Result(String inline, BlobRef ref, long length) {}
+
+    private final BlobStore blobStore;
+    private final int inlineThreshold;
+
+    private StringBuilder buffer = new StringBuilder();
+    private BlobStore.BlobWriter spill;
+    private long length;
+    private boolean finished;
+
+    public ClaimCheckLogWriter(BlobStore blobStore, int inlineThreshold) {
+        this.blobStore = blobStore;
+        this.inlineThreshold = inlineThreshold;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        length += len;
+        if (spill != null) {
+            spill.write(cbuf, off, len);
+            return;
+        }
+        buffer.append(cbuf, off, len);
+        if (buffer.length() > inlineThreshold) {
+            spill = blobStore.openWriter();
+            spill.append(buffer);
+            buffer = null;
+        }
+    }
+
+    /** Commits the blob if the log spilled; otherwise returns the inline text. */
+    public Result finish() throws IOException {
+        finished = true;
+        if (spill != null) {
+            return new Result(null, spill.commit(), length);
+        }
+        return new Result(buffer.toString(), null, length);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (spill != null) spill.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spill != null && !finished) {
+            spill.close();  // abandons the uncommitted blob
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.infraflow.normalizer.logs;
+
+import com.infraflow.common.logs.StepExcerptFormat;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cuts a GitHub Actions log down to the step(s) that failed, as it streams in.
+ *
+ * <p>Each line is cleaned of ANSI escapes and the per-line timestamp prefix.
+ * A {@code ##[group]<name>} line opens a new step. A step counts as failed
+ * when it contains a {@code ##[error]} line or reports a non-zero
+ * {@code Process completed with exit code}. Failed steps are written to the
+ * {@code excerpt} sink, preceded by the last few lines of the step before
+ * them for context, in the {@link StepExcerptFormat} layout.
+ * {@link #finish()} names the first failed step; when it returns
+ * {@code null} nothing was written and the caller keeps the whole log
+ * instead.</p>
+ *
+ * <p>Only the step in progress is buffered, up to {@code maxStepChars}. An
+ * oversized step keeps its first quarter and its most recent lines, with the
+ * middle elided. The full log is never copied here, so a recognised failure
+ * costs one pass over the log and the size of the excerpt.</p>
+ */
+public class StepSegmentingLogWriter extends Writer {
+
+    private static final Pattern ANSI_ESCAPE = Pattern.compile("\u001B\\[[0-?]*[ -/]*[@-~]");
+    private static final Pattern TIMESTAMP_PREFIX =
+            Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?Z ?");
+    private static final Pattern EXIT_CODE = Pattern.compile("Process completed with exit code (\\d+)");
+
+    private static final String GROUP = "##[group]";
+    private static final String END_GROUP = "##[endgroup]";
+    private static final String ERROR = "##[error]";
+    private static final int MAX_LINE_CHARS = 8192;
+
+    private final Writer excerpt;
+    private final int contextLines;
+    private final int maxStepChars;
+
+    private final StringBuilder line = new StringBuilder();
+    private Step current = new Step(null);
+    private Deque<String> previousTail = new ArrayDeque<>();
+    private String previousName;
+    private String firstFailedStep;
+
+    public StepSegmentingLogWriter(Writer excerpt, int contextLines, int maxStepChars) {
+        this.excerpt = excerpt;
+        this.contextLines = contextLines;
+        this.maxStepChars = maxStepChars;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            char c = cbuf[i];
+            if (c == '\n') {
+                endLine();
+            } else if (c != '\r') {
+                line.append(c);
+                if (line.length() >= MAX_LINE_CHARS) endLine();
+            }
+        }
+    }
+
+    /**
+     * Flushes the last step. Returns the name of the first failed step, or
+     * {@code null} when no step was recognised as failed and the excerpt sink
+     * was left empty.
+     */
+    public String finish() throws IOException {
+        if (!line.isEmpty()) endLine();
+        endStep();
+        return firstFailedStep;
+    }
+
+    @Override
+    public void flush() {
+        // Nothing to flush: output is only decided at step boundaries
+    }
+
+    @Override
+    public void close() {
+        // The sink is owned by the caller
+    }
+
+    private void endLine() throws IOException {
+        String text = TIMESTAMP_PREFIX.matcher(ANSI_ESCAPE.matcher(line).replaceAll("")).replaceFirst("");
+        line.setLength(0);
+
+        if (text.startsWith(GROUP)) {
+            endStep();
+            current = new Step(text.substring(GROUP.length()).trim());
+            return;
+        }
+        if (text.startsWith(END_GROUP)) return;
+
+        if (text.startsWith(ERROR)) {
+            current.failed = true;
+        } else {
+            Matcher exit = EXIT_CODE.matcher(text);
+            if (exit.find() && !"0".equals(exit.group(1))) current.failed = true;
+        }
+        current.add(text);
+    }
+
+    private void endStep() throws IOException {
+        if (current.isEmpty()) return;
+        if (current.failed) {
+            if (firstFailedStep == null) firstFailedStep = current.displayName();
+            if (!previousTail.isEmpty()) {
+                excerpt.write(StepExcerptFormat.contextHeader(previousName, previousTail.size()));
+                excerpt.write('\n');
+                for (String context : previousTail) {
+                    excerpt.write(context);
+                    excerpt.write('\n');
+                }
+            }
+            excerpt.write(StepExcerptFormat.stepHeader(current.displayName()));
+            excerpt.write('\n');
+            current.writeTo(excerpt);
+            previousTail = new ArrayDeque<>();
+        } else {
+            previousTail = current.lastLines(contextLines);
+        }
+        previousName = current.displayName();
+    }
+
+    /** The step in progress: its head verbatim, then a rolling window of recent lines. */
+    private final class Step {
+        final String name;
+        final StringBuilder head = new StringBuilder();
+        final Deque<String> tail = new ArrayDeque<>();
+        int tailChars;
+        long omittedLines;
+        boolean headFull;
+        boolean failed;
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        String displayName() {
+            return name != null && !name.isEmpty() ? name : "(setup)";
+        }
+
+        boolean isEmpty() {
+            return head.isEmpty() && tail.isEmpty();
+        }
+
+        void add(String text) {
+            if (!headFull && head.length() + text.length() < maxStepChars / 4) {
+                head.append(text).append('\n');
+                return;
+            }
+            headFull = true;
+            tail.addLast(text);
+            tailChars += text.length() + 1;
+            while (tailChars > maxStepChars - maxStepChars / 4 && tail.size() > 1) {
+                tailChars -= tail.removeFirst().length() + 1;
+                omittedLines++;
+            }
+        }
+
+        /** Up to {@code n} trailing lines, oldest first. */
+        Deque<String> lastLines(int n) {
+            Deque<String> last = new ArrayDeque<>(n);
+            Iterator<String> recent = tail.descendingIterator();
+            while (recent.hasNext() && last.size() < n) last.addFirst(recent.next());
+            if (last.size() < n && omittedLines == 0) {
+                List<String> headLines = head.toString().lines().toList();
+                for (int i = headLines.size() - 1; i >= 0 && last.size() < n; i--) {
+                    last.addFirst(headLines.get(i));
+                }
+            }
+            return last;
+        }
+
+        void writeTo(Writer out) throws IOException {
+            out.append(head);
+            if (omittedLines > 0) {
+                out.write("... [" + omittedLines + " lines omitted] ...\n");
+            }
+            for (String text : tail) {
+                out.write(text);
+                out.write('\n');
+            }
+        }
+    }
+}
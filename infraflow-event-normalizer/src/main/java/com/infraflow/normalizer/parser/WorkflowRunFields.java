@@ -0,0 +1,26 @@
+package com.infraflow.normalizer.parser;
+
+/**
+ * The handful of {@code workflow_run} fields the normalizer actually publishes,
+ * as pulled out of a webhook body by {@link WorkflowRunPayloadParser}.
+ *
+ * <p>String fields are never {@code null}: missing or JSON-null values are
+ * reported as empty strings, mirroring {@code JsonNode.asText("")}.</p>
+ *
+ * @param present        whether the payload contained a {@code workflow_run} object at all
+ * @param rawLogsLength  number of characters streamed to the raw-log sink (0 if absent or skipped)
+ */
+public record WorkflowRunFields(
+        boolean present,
+        long id,
+        String name,
+        String status,
+        String conclusion,
+        String headBranch,
+        String headSha,
+        String createdAt,
+        String updatedAt,
+        String repoUrl,
+        String repoName,
+        int rawLogsLength
+) {}
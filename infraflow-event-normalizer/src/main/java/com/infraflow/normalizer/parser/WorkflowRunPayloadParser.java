@@ -0,0 +1,188 @@
+package com.infraflow.normalizer.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Single-pass, streaming extractor for GitHub {@code workflow_run} webhooks.
+ *
+ * <p>A webhook body carries the full {@code repository}, {@code head_commit},
+ * {@code pull_requests} and (for InfraFlow senders) {@code rawLogs} subtrees,
+ * but the normalizer only needs about ten scalar fields. Building a
+ * {@code JsonNode} tree for the whole document made tree allocation the top
+ * allocation source on multi-MB payloads. This parser walks the token stream
+ * once, reads only the wanted paths and calls {@link JsonParser#skipChildren()}
+ * on everything else, so unneeded subtrees are never materialized.</p>
+ *
+ * <p>{@code rawLogs} is copied straight from the parser's buffer into the
+ * caller-supplied {@link Writer} via {@link JsonParser#getText(Writer)} rather
+ * than returned as a {@code String}, letting the caller decide whether to
+ * keep, transform or spill it. Callers that filter events first read the
+ * fields with {@link #parse(byte[])} and stream the logs in a second,
+ * skip-only pass with {@link #writeRawLogs(byte[], Writer)}.</p>
+ *
+ * <p>The parser reads the request bytes directly — the same array the HMAC
+ * was computed over — so the body is never decoded to a {@code String}.</p>
+ *
+ * <p>Fields are matched wherever they appear, so the order of
+ * {@code workflow_run} and {@code rawLogs} in the document does not matter.</p>
+ */
+@Component
+public class WorkflowRunPayloadParser {
+
+    private final JsonFactory jsonFactory;
+
+    public WorkflowRunPayloadParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Reads the {@code workflow_run} fields only. {@code rawLogs} is stepped
+     * over without being decoded, so deciding whether to keep an event costs
+     * no log copy; see {@link #writeRawLogs(byte[], Writer)}.
+     */
+    public WorkflowRunFields parse(byte[] rawPayload) throws IOException {
+        return parse(rawPayload, null);
+    }
+
+    /**
+     * @param rawPayload  the webhook body, as the UTF-8 bytes received on the wire
+     * @param rawLogsSink receives the decoded {@code rawLogs} text, if present;
+     *                    {@code null} skips it
+     */
+    public WorkflowRunFields parse(byte[] rawPayload, Writer rawLogsSink) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(rawPayload)) {
+            return parse(parser, rawLogsSink);
+        }
+    }
+
+    /**
+     * Streams only the top-level {@code rawLogs} text into {@code rawLogsSink},
+     * skipping everything else; the second pass after {@link #parse(byte[])}
+     * has decided the event is wanted.
+     *
+     * @return the number of characters written (0 if absent)
+     */
+    public int writeRawLogs(byte[] rawPayload, Writer rawLogsSink) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(rawPayload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Webhook payload is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("rawLogs".equals(name) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText(rawLogsSink);
+                }
+                parser.skipChildren();
+            }
+            return 0;
+        }
+    }
+
+    private WorkflowRunFields parse(JsonParser parser, Writer rawLogsSink) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Webhook payload is not a JSON object");
+        }
+
+        Fields fields = new Fields();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "workflow_run" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        fields.present = true;
+                        readWorkflowRun(parser, fields);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "rawLogs" -> {
+                    if (value == JsonToken.VALUE_STRING && rawLogsSink != null) {
+                        fields.rawLogsLength = parser.getText(rawLogsSink);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return fields.toRecord();
+    }
+
+    private void readWorkflowRun(JsonParser parser, Fields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "id" -> fields.id = value.isNumeric() ? parser.getValueAsLong() : 0L;
+                case "name" -> fields.name = text(parser);
+                case "status" -> fields.status = text(parser);
+                case "conclusion" -> fields.conclusion = text(parser);
+                case "head_branch" -> fields.headBranch = text(parser);
+                case "head_sha" -> fields.headSha = text(parser);
+                case "created_at" -> fields.createdAt = text(parser);
+                case "updated_at" -> fields.updatedAt = text(parser);
+                case "repository" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        readRepository(parser, fields);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readRepository(JsonParser parser, Fields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            switch (name) {
+                case "html_url" -> fields.repoUrl = text(parser);
+                case "full_name" -> fields.repoName = text(parser);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /** Scalar value as text; objects/arrays are skipped and JSON null maps to "". */
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return "";
+    }
+
+    /** Mutable accumulator; fields may arrive in any order. */
+    private static final class Fields {
+        boolean present;
+        long id;
+        String name = "";
+        String status = "";
+        String conclusion = "";
+        String headBranch = "";
+        String headSha = "";
+        String createdAt = "";
+        String updatedAt = "";
+        String repoUrl = "";
+        String repoName = "";
+        int rawLogsLength;
+
+        WorkflowRunFields toRecord() {
+            return new WorkflowRunFields(present, id, name, status, conclusion, headBranch, headSha,
+                    createdAt, updatedAt, repoUrl, repoName, rawLogsLength);
+        }
+    }
+}
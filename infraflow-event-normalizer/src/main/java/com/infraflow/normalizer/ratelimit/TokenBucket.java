@@ -0,0 +1,61 @@
+package com.infraflow.normalizer.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its "virtual scheduling" form (GCRA): the whole
+ * state is one {@code AtomicLong} holding the theoretical arrival time of the
+ * next token, so acquiring is a single CAS and there is no refill task.
+ *
+ * <p>A bucket refilling at {@code ratePerSecond} and holding up to
+ * {@code burst} tokens admits a request at time {@code now} iff
+ * {@code max(tat, now) + interval - now <= burst * interval}.</p>
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(double ratePerSecond, double burst) {
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = (long) (Math.max(1.0, burst) * intervalNanos);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - toleranceNanos);
+    }
+
+    /** Takes a token if one is available. */
+    boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + intervalNanos;
+            if (next - nowNanos > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes a token even when the bucket is empty. Used for traffic that must
+     * never be shed but should still count against the budget of the traffic
+     * that may. The bucket is drained to empty but never into debt, so a burst
+     * of forced tokens holds the other traffic back for at most one
+     * {@code burst} worth of refill.
+     */
+    void acquireForced(long nowNanos) {
+        theoreticalArrival.accumulateAndGet(nowNanos,
+                (tat, now) -> Math.min(Math.max(tat, now) + intervalNanos, now + toleranceNanos));
+    }
+
+    /** Gives back a token taken by {@link #tryAcquire} for a request that was not admitted after all. */
+    void release() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+
+    /** {@code true} when the bucket is full again, i.e. indistinguishable from a new one. */
+    boolean isIdle(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,156 @@
+package com.infraflow.normalizer.ratelimit;
+
+import com.infraflow.common.enums.PipelineStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one noisy repository — e.g. a monorepo whose matrix build fires
+ * hundreds of {@code workflow_run} events in seconds — from starving every
+ * other tenant of the normalizer and everything downstream of it.
+ *
+ * <p>Each event must take a token from its repository's bucket and from the
+ * global bucket. Both are single-CAS {@link TokenBucket}s, so one shared
+ * global bucket enforces the configured rate exactly without a lock. A repo
+ * bucket that has refilled carries no state; buckets idle for
+ * {@code idle-eviction} are dropped and recreated on the repo's next event.</p>
+ *
+ * <p>{@code FAILED} events are never shed — they are the ones the healing
+ * engine exists for — but still draw tokens, so under pressure the
+ * QUEUED/RUNNING/SUCCESS chatter around them is shed first. A forced token
+ * can empty a bucket but not drive it into debt, so a FAILED burst from one
+ * repo cannot hold every other tenant's events back for longer than the
+ * global burst takes to refill. A repo token is given back when the global
+ * bucket then refuses the event.</p>
+ *
+ * <p>Metric: {@code infraflow.webhook.shed{scope=repo|global,repo}}. The
+ * first {@code metrics.max-repo-tags} repositories to be shed get their own
+ * {@code repo} tag; later ones are counted under {@code repo=other}, which
+ * bounds the number of time series.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WebhookLoadShedder {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${infraflow.ratelimit.per-repo.rate:5}")
+    private double repoRate;
+
+    @Value("${infraflow.ratelimit.per-repo.burst:50}")
+    private double repoBurst;
+
+    @Value("${infraflow.ratelimit.per-repo.idle-eviction:5m}")
+    private Duration idleEviction;
+
+    @Value("${infraflow.ratelimit.global.rate:200}")
+    private double globalRate;
+
+    @Value("${infraflow.ratelimit.global.burst:1000}")
+    private double globalBurst;
+
+    @Value("${infraflow.ratelimit.metrics.max-repo-tags:50}")
+    private int maxRepoTags;
+
+    private final ConcurrentMap<String, TokenBucket> repoBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastEvictionNanos = new AtomicLong(System.nanoTime());
+    private TokenBucket globalBucket;
+
+    private static final String OTHER_REPOS = "other";
+
+    private final Map<String, Counter> shedCounters = new ConcurrentHashMap<>();
+    private final Set<String> taggedRepos = new HashSet<>();
+
+    @PostConstruct
+    void init() {
+        globalBucket = new TokenBucket(globalRate, globalBurst);
+        Gauge.builder("infraflow.webhook.ratelimit.repos", repoBuckets, Map::size)
+                .description("Repositories with a rate-limit bucket in memory")
+                .register(meterRegistry);
+        log.info("Webhook load shedding {}: perRepo={}/s (burst {}), global={}/s (burst {})",
+                enabled ? "enabled" : "disabled", repoRate, repoBurst, globalRate, globalBurst);
+    }
+
+    /**
+     * Returns {@code false} when the event should be dropped. Always
+     * {@code true} for {@link PipelineStatus#FAILED}.
+     */
+    public boolean admit(String repoName, PipelineStatus status) {
+        if (!enabled) return true;
+        long now = System.nanoTime();
+        evictIdleIfDue(now);
+        String repo = repoName != null ? repoName : "unknown";
+        TokenBucket repoBucket = repoBuckets.computeIfAbsent(repo, r -> new TokenBucket(repoRate, repoBurst));
+
+        if (status == PipelineStatus.FAILED) {
+            repoBucket.acquireForced(now);
+            globalBucket.acquireForced(now);
+            return true;
+        }
+
+        if (!repoBucket.tryAcquire(now)) {
+            shed("repo", repo);
+            return false;
+        }
+        if (!globalBucket.tryAcquire(now)) {
+            // Not published, so not charged to the repo either
+            repoBucket.release();
+            shed("global", repo);
+            return false;
+        }
+        return true;
+    }
+
+    /** Drops buckets that have been full for a while; one caller per interval does the sweep. */
+    private void evictIdleIfDue(long now) {
+        long last = lastEvictionNanos.get();
+        if (now - last < idleEviction.toNanos() || !lastEvictionNanos.compareAndSet(last, now)) {
+            return;
+        }
+        long idleSince = now - idleEviction.toNanos();
+        int before = repoBuckets.size();
+        repoBuckets.values().removeIf(bucket -> bucket.isIdle(idleSince));
+        log.debug("Evicted {} idle repo rate-limit buckets", before - repoBuckets.size());
+    }
+
+    private void shed(String scope, String repo) {
+        log.debug("Shed webhook event for {} ({} limit)", repo, scope);
+        String repoTag = repoTag(repo);
+        shedCounters.computeIfAbsent(scope + "|" + repoTag, key -> Counter.builder("infraflow.webhook.shed")
+                        .tag("scope", scope)
+                        .tag("repo", repoTag)
+                        .description("Non-failure webhook events dropped by rate limiting")
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /** The repo itself for the first {@code max-repo-tags} shed repos, {@code other} after that. */
+    private String repoTag(String repo) {
+        synchronized (taggedRepos) {
+            if (taggedRepos.contains(repo)) return repo;
+            if (taggedRepos.size() < maxRepoTags) {
+                taggedRepos.add(repo);
+                return repo;
+            }
+        }
+        return OTHER_REPOS;
+    }
+}
@@ -1,86 +1,222 @@
 package com.infraflow.normalizer.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.common.blob.BlobStore;
 import com.infraflow.common.enums.PipelineStatus;
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.normalizer.archive.WebhookArchive;
+import com.infraflow.normalizer.coalesce.WorkflowRunCoalescer;
+import com.infraflow.normalizer.dedup.DeliveryDeduplicator;
+import com.infraflow.normalizer.logs.ClaimCheckLogWriter;
+import com.infraflow.normalizer.logs.StepSegmentingLogWriter;
+import com.infraflow.normalizer.parser.WorkflowRunFields;
+import com.infraflow.normalizer.parser.WorkflowRunPayloadParser;
+import com.infraflow.normalizer.ratelimit.WebhookLoadShedder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
 import java.util.HexFormat;
-import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class GitHubNormalizerService {
 
-    private final KafkaTemplate<String, Map<String, Object>> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final WorkflowRunCoalescer coalescer;
+    private final WorkflowRunPayloadParser payloadParser;
+    private final DeliveryDeduplicator deduplicator;
+    private final WebhookLoadShedder loadShedder;
+    private final WebhookArchive archive;
+    private final BlobStore blobStore;
 
-    @Value("${infraflow.kafka.topic.pipeline-events}")
-    private String pipelineEventsTopic;
+    private static final String SIGNATURE_PREFIX = "sha256=";
 
     @Value("${infraflow.github.webhook-secret:}")
     private String webhookSecret;
 
-    public void normalizeAndPublish(String rawPayload, String signature) {
+    @Value("${infraflow.blob-store.inline-threshold:8192}")
+    private int inlineLogThreshold;
+
+    @Value("${infraflow.logs.segmentation.enabled:true}")
+    private boolean segmentLogs;
+
+    @Value("${infraflow.logs.segmentation.context-lines:20}")
+    private int segmentContextLines;
+
+    @Value("${infraflow.logs.segmentation.max-step-chars:65536}")
+    private int segmentMaxStepChars;
+
+    private final ThreadLocal<Mac> hmac = ThreadLocal.withInitial(this::newMac);
+
+    public void normalizeAndPublish(byte[] rawPayload, String signature, String deliveryId) {
+        verify(rawPayload, signature);
+        archive.append(rawPayload, deliveryId, System.currentTimeMillis());
+        submit(rawPayload, deliveryId);
+    }
+
+    /**
+     * Normalizes and publishes a payload that was verified when it was first
+     * received, e.g. one replayed from the {@link WebhookArchive}. Not archived
+     * again, and shed by the rate limits only when {@code rateLimited}. The
+     * future is as for {@link #submit(byte[], String)}.
+     */
+    public Optional<CompletableFuture<Void>> republish(byte[] rawPayload, String deliveryId, boolean rateLimited) {
+        return submit(rawPayload, deliveryId, rateLimited);
+    }
+
+    /**
+     * Normalizes the payload and hands the event to the coalescer. The
+     * delivery stays reserved for redelivery dedup until the returned future
+     * completes; it is recorded if that succeeds and released otherwise, so a
+     * delivery whose publish failed can be redelivered. Empty when there is
+     * nothing to publish.
+     */
+    public Optional<CompletableFuture<Void>> submit(byte[] rawPayload, String deliveryId) {
+        return submit(rawPayload, deliveryId, true);
+    }
+
+    private Optional<CompletableFuture<Void>> submit(byte[] rawPayload, String deliveryId, boolean rateLimited) {
+        return normalize(rawPayload, deliveryId, rateLimited).map(event -> coalescer.submit(event)
+                .whenComplete((result, ex) -> {
+                    if (ex == null) deduplicator.recordDelivered(deliveryId, event.workflowRunId());
+                    else deduplicator.release(deliveryId, event.workflowRunId());
+                }));
+    }
+
+    /**
+     * Verifies the webhook signature when a secret is configured. The HMAC runs
+     * over the exact bytes received, so no charset round-trip can change what
+     * is signed. Throws {@link SecurityException} on mismatch so callers can
+     * reject the request before any further work is done.
+     */
+    public void verify(byte[] rawPayload, String signature) {
         if (!webhookSecret.isBlank()) {
             verifySignature(rawPayload, signature);
         }
+    }
 
+    /**
+     * Maps a raw GitHub webhook body to the pipeline event published on
+     * Kafka. Returns empty when the payload carries no {@code workflow_run},
+     * for a redelivery of one already published or in flight (same
+     * {@code X-GitHub-Delivery}), and for non-failure events shed by the
+     * per-repo/global rate limits. The dedup check comes first, so a
+     * redelivery does not use up rate-limit tokens.
+     *
+     * <p>Those checks run on the workflow_run fields alone; the raw logs are
+     * streamed and spilled only for an event that will be published. A
+     * returned event holds the delivery's dedup reservation; it is released
+     * here on every other outcome.</p>
+     */
+    private Optional<PipelineEventMessage> normalize(byte[] rawPayload, String deliveryId, boolean rateLimited) {
+        WorkflowRunFields workflowRun = null;
+        boolean reserved = false;
         try {
-            JsonNode root = objectMapper.readTree(rawPayload);
-            JsonNode workflowRun = root.path("workflow_run");
+            workflowRun = payloadParser.parse(rawPayload);
 
-            if (workflowRun.isMissingNode()) {
+            if (!workflowRun.present()) {
                 log.warn("No workflow_run in payload, skipping");
-                return;
+                return Optional.empty();
+            }
+
+            if (!deduplicator.tryReserve(deliveryId, workflowRun.id())) {
+                log.info("Dropping redelivered webhook: delivery={}, workflowRunId={}",
+                        deliveryId, workflowRun.id());
+                return Optional.empty();
+            }
+            reserved = true;
+
+            PipelineStatus pipelineStatus = mapStatus(workflowRun.status(), workflowRun.conclusion());
+
+            if (rateLimited && !loadShedder.admit(workflowRun.repoName(), pipelineStatus)) {
+                log.debug("Rate limit shed {} event for {}", pipelineStatus, workflowRun.repoName());
+                deduplicator.release(deliveryId, workflowRun.id());
+                return Optional.empty();
             }
 
-            String conclusion = workflowRun.path("conclusion").asText("");
-            String status = workflowRun.path("status").asText("");
-
-            PipelineStatus pipelineStatus = mapStatus(status, conclusion);
-
-            Map<String, Object> event = new HashMap<>();
-            event.put("repoUrl", workflowRun.path("repository").path("html_url").asText(""));
-            event.put("repoName", workflowRun.path("repository").path("full_name").asText(""));
-            event.put("branch", workflowRun.path("head_branch").asText(""));
-            event.put("commitSha", workflowRun.path("head_sha").asText(""));
-            event.put("provider", "GITHUB");
-            event.put("status", pipelineStatus.name());
-            event.put("workflowRunId", workflowRun.path("id").asLong());
-            event.put("workflowName", workflowRun.path("name").asText(""));
-            event.put("triggeredAt", workflowRun.path("created_at").asText(Instant.now().toString()));
-            event.put("completedAt", workflowRun.path("updated_at").asText(Instant.now().toString()));
-
-            // Pass raw logs from webhook payload for AI analysis
-            String rawLogs = root.path("rawLogs").asText("");
-            if (!rawLogs.isBlank()) {
-                event.put("rawLogs", rawLogs);
+            ClaimCheckLogWriter.Result rawLogs;
+            String failedStep = null;
+            try (ClaimCheckLogWriter logWriter = new ClaimCheckLogWriter(blobStore, inlineLogThreshold);
+                 ClaimCheckLogWriter excerptWriter = new ClaimCheckLogWriter(blobStore, inlineLogThreshold)) {
+                if (segmentLogs) {
+                    // Keep only the failed step(s). When none is recognised, stream the
+                    // whole log again from the payload rather than copying it on every pass
+                    StepSegmentingLogWriter segmenter = new StepSegmentingLogWriter(
+                            excerptWriter, segmentContextLines, segmentMaxStepChars);
+                    int logLength = payloadParser.writeRawLogs(rawPayload, segmenter);
+                    failedStep = segmenter.finish();
+                    if (failedStep != null) {
+                        rawLogs = excerptWriter.finish();
+                    } else {
+                        if (logLength > 0) payloadParser.writeRawLogs(rawPayload, logWriter);
+                        rawLogs = logWriter.finish();
+                    }
+                } else {
+                    payloadParser.writeRawLogs(rawPayload, logWriter);
+                    rawLogs = logWriter.finish();
+                }
+            }
+
+            // Pass raw logs from webhook payload for AI analysis: small logs inline,
+            // large ones by claim-check reference so they never ride through Kafka
+            String inlineLogs = null;
+            String logsRef = null;
+            if (rawLogs.ref() != null) {
+                logsRef = rawLogs.ref().digest();
+                log.info("Stored {} chars of raw logs as blob {}", rawLogs.length(), logsRef);
+            } else if (rawLogs.inline() != null && !rawLogs.inline().isBlank()) {
+                inlineLogs = rawLogs.inline();
                 log.info("Included {} chars of raw logs for AI analysis", rawLogs.length());
             }
+            if (failedStep != null) {
+                log.info("Logs cut down to failed step '{}' ({} chars)", failedStep, rawLogs.length());
+            }
 
-            String key = event.get("repoName") + ":" + event.get("commitSha");
-            kafkaTemplate.send(pipelineEventsTopic, key, event);
+            PipelineEventMessage event = new PipelineEventMessage(
+                    workflowRun.repoUrl(),
+                    workflowRun.repoName(),
+                    workflowRun.headBranch(),
+                    workflowRun.headSha(),
+                    "GITHUB",
+                    pipelineStatus,
+                    workflowRun.id(),
+                    workflowRun.name(),
+                    timestampOrNow(workflowRun.createdAt()),
+                    timestampOrNow(workflowRun.updatedAt()),
+                    inlineLogs,
+                    logsRef,
+                    logsRef != null ? rawLogs.length() : 0L,
+                    failedStep
+            );
 
-            log.info("Published pipeline event: repo={}, status={}, commit={}",
-                    event.get("repoName"), pipelineStatus, event.get("commitSha"));
+            return Optional.of(event);
 
         } catch (Exception e) {
+            if (reserved) deduplicator.release(deliveryId, workflowRun.id());
             log.error("Failed to normalize GitHub webhook payload", e);
             throw new RuntimeException("Normalization failed", e);
         }
     }
 
+    private static Instant timestampOrNow(String timestamp) {
+        if (timestamp.isEmpty()) return Instant.now();
+        try {
+            return Instant.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            log.warn("Unparseable workflow_run timestamp '{}', using now", timestamp);
+            return Instant.now();
+        }
+    }
+
     private PipelineStatus mapStatus(String status, String conclusion) {
         if ("completed".equals(status)) {
             return switch (conclusion) {
@@ -95,16 +231,23 @@ public class GitHubNormalizerService {
         return PipelineStatus.QUEUED;
     }
 
-    private void verifySignature(String payload, String signature) {
+    private void verifySignature(byte[] payload, String signature) {
         if (signature == null || signature.isBlank()) {
             throw new SecurityException("Missing webhook signature");
         }
+        if (!signature.startsWith(SIGNATURE_PREFIX)) {
+            throw new SecurityException("Invalid webhook signature");
+        }
+        byte[] received;
         try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            String expected = "sha256=" + HexFormat.of().formatHex(hash);
-            if (!expected.equals(signature)) {
+            received = HexFormat.of().parseHex(signature, SIGNATURE_PREFIX.length(), signature.length());
+        } catch (IllegalArgumentException e) {
+            throw new SecurityException("Invalid webhook signature", e);
+        }
+        try {
+            byte[] expected = hmac.get().doFinal(payload);
+            // Constant-time comparison: do not leak how many leading bytes matched
+            if (!MessageDigest.isEqual(expected, received)) {
                 throw new SecurityException("Invalid webhook signature");
             }
         } catch (SecurityException e) {
@@ -113,4 +256,15 @@ public class GitHubNormalizerService {
             throw new SecurityException("Signature verification failed", e);
         }
     }
+
+    /** {@code Mac} is not thread-safe and costly to init, so each request thread keeps its own. */
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac;
+        } catch (Exception e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package com.infraflow.normalizer.service;
+
+import com.infraflow.common.event.EventHeaders;
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.common.event.PipelineViewMessage;
+import com.infraflow.normalizer.spool.DiskSpool;
+import com.infraflow.normalizer.spool.SpoolRecord;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single point through which normalized pipeline events leave the normalizer.
+ * Keeps the topic/key conventions in one place so that both the synchronous
+ * webhook path and the async ingestion drainer publish identically.
+ *
+ * <p>Every event goes out twice: in full on {@code pipeline.events.raw} for the
+ * healing engine, and as a log-free {@link PipelineViewMessage} on
+ * {@code pipeline.events.view} for the dashboard. Both share the same key, so
+ * per-repo ordering holds on either topic.</p>
+ *
+ * <p>A record the broker does not accept is journaled to the {@link DiskSpool}
+ * and replayed later by {@code SpoolReplayer}. While anything is spooled, new
+ * events are journaled too rather than sent, so they are not overtaken by
+ * older ones. Spooling after a failed send is a disk write, so it runs on
+ * the publisher's own {@code event-spooler} thread rather than the Kafka
+ * producer's I/O thread that completes the send.</p>
+ */
+@Service
+@Slf4j
+public class PipelineEventPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final DiskSpool spool;
+    private final ExecutorService spoolExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-spooler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${infraflow.kafka.topic.pipeline-events}")
+    private String pipelineEventsTopic;
+
+    @Value("${infraflow.kafka.topic.pipeline-view-events}")
+    private String pipelineViewTopic;
+
+    public PipelineEventPublisher(KafkaTemplate<String, Object> kafkaTemplate, ObjectProvider<DiskSpool> spool) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.spool = spool.getIfAvailable();
+    }
+
+    /**
+     * Publishes the event and its dashboard view. The returned future
+     * completes once both records are acknowledged by Kafka or safely
+     * spooled, and fails only if a record could be neither.
+     */
+    public CompletableFuture<Void> publish(PipelineEventMessage event) {
+        String key = event.repoName() + ":" + event.commitSha();
+        ProducerRecord<String, Object> raw = record(pipelineEventsTopic, key, event, "pipeline", event);
+        ProducerRecord<String, Object> view =
+                record(pipelineViewTopic, key, PipelineViewMessage.of(event), "pipeline-view", event);
+
+        if (spool != null && !spool.isEmpty()) {
+            // Broker recovery still in progress — queue up behind the backlog
+            try {
+                spool(raw, null);
+                spool(view, null);
+                return CompletableFuture.completedFuture(null);
+            } catch (RuntimeException e) {
+                log.error("Failed to publish pipeline event: repo={}, commit={}",
+                        event.repoName(), event.commitSha(), e);
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        return CompletableFuture.allOf(sendOrSpool(raw), sendOrSpool(view))
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish pipeline event: repo={}, commit={}",
+                                event.repoName(), event.commitSha(), ex);
+                    } else {
+                        log.info("Published pipeline event: repo={}, status={}, commit={}",
+                                event.repoName(), event.status(), event.commitSha());
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> sendOrSpool(ProducerRecord<String, Object> record) {
+        CompletableFuture<SendResult<String, Object>> sent;
+        try {
+            sent = kafkaTemplate.send(record);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        if (spool == null) {
+            return sent.thenApply(result -> null);
+        }
+        return sent.<Void>thenApply(result -> null)
+                .exceptionallyAsync(ex -> {
+                    spool(record, ex);
+                    return null;
+                }, spoolExecutor);
+    }
+
+    /** Lets failed sends still in flight reach the spool before the context closes. */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        spoolExecutor.shutdown();
+        if (!spoolExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Event spooler did not finish within 10s; unspooled records are lost");
+            spoolExecutor.shutdownNow();
+        }
+    }
+
+    private void spool(ProducerRecord<String, Object> record, Throwable cause) {
+        if (!spool.append(SpoolRecord.of(record))) {
+            throw new CompletionException(new IllegalStateException(
+                    "Kafka unavailable and spool full; dropping record for " + record.topic(), cause));
+        }
+        if (cause != null) {
+            log.warn("Kafka send to {} failed, event spooled for replay: {}", record.topic(), cause.getMessage());
+        }
+    }
+
+    private ProducerRecord<String, Object> record(String topic, String key, Object value,
+                                                  String eventType, PipelineEventMessage event) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, value);
+        // Let consumers filter on status/repo without decoding the value
+        EventHeaders.put(record.headers(), EventHeaders.EVENT_TYPE, eventType);
+        EventHeaders.put(record.headers(), EventHeaders.PIPELINE_STATUS,
+                event.status() != null ? event.status().name() : null);
+        EventHeaders.put(record.headers(), EventHeaders.REPO, event.repoName());
+        return record;
+    }
+}
@@ -0,0 +1,315 @@
+package com.infraflow.normalizer.spool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented, memory-mapped journal of Kafka records that could
+ * not be produced.
+ *
+ * <p>Layout: {@code <dir>/spool-<seq>.seg} files of {@code segmentBytes}
+ * each, mapped read-write and filled with {@code [int length][int crc32][payload]}
+ * entries; a zero length marks the end of the written data. The read cursor
+ * (segment, offset) lives in a 16-byte mapped {@code cursor} file.
+ * Segments behind the cursor are deleted as soon as it moves past them. On
+ * startup every segment is rescanned and the first entry whose CRC does not
+ * match truncates it, so a torn write loses at most that entry.</p>
+ *
+ * <p>Writes go to the page cache, so spooled records survive a process crash
+ * but not necessarily a host crash. Once the total size would pass
+ * {@code maxBytes}, {@link #append} refuses new records.</p>
+ */
+@Slf4j
+public class DiskSpool implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int ENTRY_HEADER_BYTES = 8;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long maxBytes;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final FileChannel cursorChannel;
+    private final MappedByteBuffer cursor;
+    private long readSeq;
+    private int readPos;
+
+    private volatile long pending;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public DiskSpool(Path dir, int segmentBytes, long maxBytes) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+
+        cursorChannel = FileChannel.open(dir.resolve("cursor"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        cursor = cursorChannel.map(FileChannel.MapMode.READ_WRITE, 0, 16);
+        readSeq = cursor.getLong(0);
+        readPos = (int) cursor.getLong(8);
+
+        recover();
+    }
+
+    /** {@code true} when nothing is waiting to be replayed. Lock-free. */
+    public boolean isEmpty() {
+        return pending == 0;
+    }
+
+    public long pendingRecords() {
+        return pending;
+    }
+
+    public synchronized long sizeBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    public long appendedTotal() {
+        return appended.get();
+    }
+
+    public long rejectedTotal() {
+        return rejected.get();
+    }
+
+    /**
+     * Journals a record behind everything already spooled. Returns
+     * {@code false} when the spool is at its size cap or the record cannot fit
+     * in a segment.
+     */
+    public synchronized boolean append(SpoolRecord record) {
+        byte[] payload = record.encode();
+        int needed = ENTRY_HEADER_BYTES + payload.length;
+        if (needed > segmentBytes) {
+            log.error("Record of {} bytes for {} exceeds spool segment size {}",
+                    payload.length, record.topic(), segmentBytes);
+            rejected.incrementAndGet();
+            return false;
+        }
+        try {
+            Segment tail = segments.isEmpty() ? null : segments.lastEntry().getValue();
+            if (tail == null || tail.limit + needed > segmentBytes) {
+                if ((long) (segments.size() + 1) * segmentBytes > maxBytes) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                boolean first = tail == null;
+                tail = openSegment(first ? readSeq : tail.seq + 1, true);
+                if (first) {
+                    moveCursor(tail.seq, 0);
+                }
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            MappedByteBuffer buf = tail.buf;
+            // Length goes in last so a half-written entry still reads as end-of-data
+            buf.put(tail.limit + ENTRY_HEADER_BYTES, payload);
+            buf.putInt(tail.limit + 4, (int) crc.getValue());
+            buf.putInt(tail.limit, payload.length);
+            tail.limit += needed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pending++;
+        appended.incrementAndGet();
+        return true;
+    }
+
+    /** Up to {@code max} records from the head of the spool, oldest first, without consuming them. */
+    public synchronized List<SpoolRecord> peek(int max) {
+        List<SpoolRecord> records = new ArrayList<>(Math.min(max, (int) Math.min(pending, 1024)));
+        long seq = readSeq;
+        int pos = readPos;
+        while (records.size() < max) {
+            Segment segment = segments.get(seq);
+            if (segment == null) break;
+            if (pos >= segment.limit) {
+                Long next = segments.higherKey(seq);
+                if (next == null) break;
+                seq = next;
+                pos = 0;
+                continue;
+            }
+            int length = segment.buf.getInt(pos);
+            records.add(readEntry(segment, pos, length));
+            pos += ENTRY_HEADER_BYTES + length;
+        }
+        return records;
+    }
+
+    /** Consumes {@code count} records from the head, deleting segments left behind. */
+    public synchronized void advance(int count) {
+        long seq = readSeq;
+        int pos = readPos;
+        int consumed = 0;
+        try {
+            while (consumed < count) {
+                Segment segment = segments.get(seq);
+                if (segment == null) break;
+                if (pos >= segment.limit) {
+                    Long next = segments.higherKey(seq);
+                    if (next == null) break;
+                    deleteSegment(segment);
+                    seq = next;
+                    pos = 0;
+                    continue;
+                }
+                pos += ENTRY_HEADER_BYTES + segment.buf.getInt(pos);
+                consumed++;
+            }
+            // Drop a fully-read head segment now rather than on the next append
+            Segment head = segments.get(seq);
+            Long next = segments.higherKey(seq);
+            if (head != null && pos >= head.limit && next != null) {
+                deleteSegment(head);
+                seq = next;
+                pos = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        moveCursor(seq, pos);
+        pending -= consumed;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        cursor.force();
+        cursorChannel.close();
+        for (Segment segment : segments.values()) {
+            segment.buf.force();
+            segment.channel.close();
+        }
+    }
+
+    // ── Internals ───────────────────────────────────────
+
+    private void recover() throws IOException {
+        List<Long> found;
+        try (Stream<Path> files = Files.list(dir)) {
+            found = files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (long seq : found) {
+            if (seq < readSeq) {
+                Files.deleteIfExists(segmentPath(seq));
+                continue;
+            }
+            Segment segment = openSegment(seq, false);
+            segment.limit = scanLimit(segment);
+        }
+        if (segments.isEmpty()) {
+            moveCursor(readSeq, 0);
+            return;
+        }
+        if (!segments.containsKey(readSeq)) {
+            moveCursor(segments.firstKey(), 0);
+        }
+
+        long count = 0;
+        for (Segment segment : segments.values()) {
+            int pos = segment.seq == readSeq ? readPos : 0;
+            while (pos < segment.limit) {
+                pos += ENTRY_HEADER_BYTES + segment.buf.getInt(pos);
+                count++;
+            }
+        }
+        pending = count;
+        if (count > 0) {
+            log.info("Recovered spool with {} pending record(s) in {} segment(s)", count, segments.size());
+        }
+    }
+
+    /** End of the valid entries in a segment: stops at a zero length or the first CRC mismatch. */
+    private int scanLimit(Segment segment) {
+        int pos = 0;
+        CRC32 crc = new CRC32();
+        while (pos + ENTRY_HEADER_BYTES <= segmentBytes) {
+            int length = segment.buf.getInt(pos);
+            if (length <= 0 || pos + ENTRY_HEADER_BYTES + length > segmentBytes) break;
+            byte[] payload = new byte[length];
+            segment.buf.get(pos + ENTRY_HEADER_BYTES, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buf.getInt(pos + 4)) {
+                log.warn("Spool segment {} truncated at offset {}: checksum mismatch", segment.seq, pos);
+                break;
+            }
+            pos += ENTRY_HEADER_BYTES + length;
+        }
+        return pos;
+    }
+
+    private SpoolRecord readEntry(Segment segment, int pos, int length) {
+        byte[] payload = new byte[length];
+        segment.buf.get(pos + ENTRY_HEADER_BYTES, payload);
+        try {
+            return SpoolRecord.decode(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment openSegment(long seq, boolean create) throws IOException {
+        FileChannel channel = create
+                ? FileChannel.open(segmentPath(seq), StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(segmentPath(seq), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(seq, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes));
+        segments.put(seq, segment);
+        return segment;
+    }
+
+    private void deleteSegment(Segment segment) throws IOException {
+        segments.remove(segment.seq);
+        segment.channel.close();
+        Files.deleteIfExists(segmentPath(segment.seq));
+    }
+
+    private void moveCursor(long seq, int pos) {
+        readSeq = seq;
+        readPos = pos;
+        cursor.putLong(0, seq);
+        cursor.putLong(8, pos);
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(SEGMENT_PREFIX + String.format("%020d", seq) + SEGMENT_SUFFIX);
+    }
+
+    private static final class Segment {
+        final long seq;
+        final FileChannel channel;
+        final MappedByteBuffer buf;
+        int limit;
+
+        Segment(long seq, FileChannel channel, MappedByteBuffer buf) {
+            this.seq = seq;
+            this.channel = channel;
+            this.buf = buf;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.infraflow.normalizer.spool;
+
+import com.infraflow.common.event.EventCodec;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A Kafka record parked in the {@link DiskSpool}: destination, key, headers
+ * and the {@link EventCodec}-encoded value.
+ */
+public record SpoolRecord(String topic, String key, Map<String, byte[]> headers, byte[] value) {
+
+    public static SpoolRecord of(ProducerRecord<String, Object> record) {
+        Map<String, byte[]> headers = new LinkedHashMap<>();
+        for (Header header : record.headers()) {
+            headers.put(header.key(), header.value());
+        }
+        return new SpoolRecord(record.topic(), record.key(), headers, EventCodec.encode(record.value()));
+    }
+
+    public ProducerRecord<String, Object> toProducerRecord() {
+        ProducerRecord<String, Object> record =
+                new ProducerRecord<>(topic, key, EventCodec.decode(value));
+        headers.forEach((name, bytes) -> record.headers().add(name, bytes));
+        return record;
+    }
+
+    byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + value.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(topic);
+            out.writeBoolean(key != null);
+            if (key != null) out.writeUTF(key);
+            out.writeShort(headers.size());
+            for (Map.Entry<String, byte[]> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeInt(header.getValue().length);
+                out.write(header.getValue());
+            }
+            out.writeInt(value.length);
+            out.write(value);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static SpoolRecord decode(DataInputStream in) throws IOException {
+        String topic = in.readUTF();
+        String key = in.readBoolean() ? in.readUTF() : null;
+        int headerCount = in.readUnsignedShort();
+        Map<String, byte[]> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            String name = in.readUTF();
+            headers.put(name, in.readNBytes(in.readInt()));
+        }
+        byte[] value = in.readNBytes(in.readInt());
+        return new SpoolRecord(topic, key, headers, value);
+    }
+}
@@ -0,0 +1,132 @@
+package com.infraflow.normalizer.spool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the {@link DiskSpool} back into Kafka, oldest record first.
+ *
+ * <p>A single thread peeks a batch, sends it and waits for every
+ * acknowledgement before advancing the spool cursor, so replay is in order
+ * and nothing is dropped. A failed batch is retried whole after an
+ * exponential backoff (at-least-once: part of it may be delivered twice).
+ * While the spool is non-empty, {@code PipelineEventPublisher} journals new
+ * events behind it instead of sending them directly.</p>
+ *
+ * <p>Exposed on {@code /actuator/metrics}:</p>
+ * <ul>
+ *   <li>{@code infraflow.spool.depth} — records waiting to be replayed</li>
+ *   <li>{@code infraflow.spool.size} — bytes of segment files on disk</li>
+ *   <li>{@code infraflow.spool.appended} / {@code infraflow.spool.replayed} — records in / out</li>
+ *   <li>{@code infraflow.spool.rejected} — records refused because the spool was full</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "infraflow.spool.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SpoolReplayer {
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final DiskSpool spool;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.spool.replay-batch-size:100}")
+    private int batchSize;
+
+    @Value("${infraflow.spool.replay-interval-ms:1000}")
+    private long intervalMs;
+
+    @Value("${infraflow.ingest.publish-timeout-ms:30000}")
+    private long publishTimeoutMs;
+
+    private Thread replayer;
+    private volatile boolean running;
+    private Counter replayed;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("infraflow.spool.depth", spool, DiskSpool::pendingRecords)
+                .description("Events journaled while Kafka was unavailable, waiting for replay")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.spool.size", spool, DiskSpool::sizeBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("infraflow.spool.appended", spool, DiskSpool::appendedTotal)
+                .register(meterRegistry);
+        FunctionCounter.builder("infraflow.spool.rejected", spool, DiskSpool::rejectedTotal)
+                .description("Events lost because the spool reached its size cap")
+                .register(meterRegistry);
+        replayed = Counter.builder("infraflow.spool.replayed").register(meterRegistry);
+
+        running = true;
+        replayer = new Thread(this::replayLoop, "spool-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        replayer.interrupt();
+        replayer.join(publishTimeoutMs);
+        if (!spool.isEmpty()) {
+            log.warn("Shutting down with {} event(s) still spooled; they will replay on next start",
+                    spool.pendingRecords());
+        }
+    }
+
+    private void replayLoop() {
+        long backoffMs = intervalMs;
+        try {
+            while (running) {
+                List<SpoolRecord> batch = spool.peek(batchSize);
+                if (batch.isEmpty()) {
+                    Thread.sleep(intervalMs);
+                } else if (replay(batch)) {
+                    spool.advance(batch.size());
+                    replayed.increment(batch.size());
+                    backoffMs = intervalMs;
+                    if (spool.isEmpty()) log.info("Spool drained — publishing directly again");
+                } else {
+                    Thread.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean replay(List<SpoolRecord> batch) throws InterruptedException {
+        try {
+            CompletableFuture<?>[] sends = batch.stream()
+                    .map(record -> kafkaTemplate.send(record.toProducerRecord()))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(sends).get(publishTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            log.warn("Spool replay of {} event(s) failed, {} still spooled: {}",
+                    batch.size(), spool.pendingRecords(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.infraflow.normalizer.archive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void segmentsOpenedWithinOneSecondAreListedInOpeningOrder() throws IOException {
+        for (String name : List.of("webhooks-20240501-100000-10.ndjson.gz", "webhooks-20240501-100000-2.ndjson.gz",
+                "webhooks-20240501-095959.ndjson.gz", "webhooks-20240501-100000.ndjson.gz",
+                "webhooks-20240501-100000-1.ndjson.gz", "webhooks-20240501-100001.ndjson.gz",
+                "unrelated.txt")) {
+            Files.createFile(dir.resolve(name));
+        }
+
+        assertThat(WebhookArchive.listSegments(dir)).extracting(p -> p.getFileName().toString()).containsExactly(
+                "webhooks-20240501-095959.ndjson.gz",
+                "webhooks-20240501-100000.ndjson.gz",
+                "webhooks-20240501-100000-1.ndjson.gz",
+                "webhooks-20240501-100000-2.ndjson.gz",
+                "webhooks-20240501-100000-10.ndjson.gz",
+                "webhooks-20240501-100001.ndjson.gz");
+    }
+
+    @Test
+    void rotatedSegmentsReplayInAppendOrder() throws IOException {
+        WebhookArchive archive = new WebhookArchive(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(archive, "enabled", true);
+        ReflectionTestUtils.setField(archive, "dir", dir);
+        // Every append fills its segment, so each lands in a new one within the same second
+        ReflectionTestUtils.setField(archive, "segmentSize", DataSize.ofBytes(1));
+        ReflectionTestUtils.setField(archive, "rotateInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(archive, "maxSegments", 100);
+        archive.init();
+        for (int i = 0; i < 12; i++) {
+            archive.append(("{\"n\":" + i + "}").getBytes(StandardCharsets.UTF_8), "delivery-" + i, 1000L + i);
+        }
+        archive.close();
+
+        List<String> lines = new ArrayList<>();
+        for (Path segment : WebhookArchive.listSegments(dir)) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(segment))) {
+                new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().forEach(lines::add);
+            }
+        }
+
+        assertThat(lines).hasSize(12);
+        for (int i = 0; i < 12; i++) {
+            assertThat(lines.get(i)).contains("\"deliveryId\":\"delivery-" + i + "\"");
+        }
+    }
+}
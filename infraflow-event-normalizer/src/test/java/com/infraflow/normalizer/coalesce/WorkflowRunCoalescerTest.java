@@ -0,0 +1,148 @@
+package com.infraflow.normalizer.coalesce;
+
+import com.infraflow.common.enums.PipelineStatus;
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.normalizer.service.PipelineEventPublisher;
+import com.infraflow.normalizer.spool.DiskSpool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowRunCoalescerTest {
+
+    private static final Executor NEW_THREAD = task -> new Thread(task).start();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingPublisher publisher = new RecordingPublisher();
+    private WorkflowRunCoalescer coalescer;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        publisher.unblock.countDown();
+        coalescer.stop();
+    }
+
+    @Test
+    void runThatFinishesWithinTheWindowCostsOneMessage() {
+        start(Duration.ofMinutes(1));
+
+        coalescer.submit(event(1, PipelineStatus.QUEUED));
+        coalescer.submit(event(1, PipelineStatus.RUNNING));
+        coalescer.submit(event(1, PipelineStatus.FAILED));
+
+        assertThat(publisher.published).containsExactly("1:FAILED");
+        assertThat(meterRegistry.counter("infraflow.webhook.coalesced").count()).isEqualTo(2);
+    }
+
+    @Test
+    void heldStateIsPublishedAfterTheWindow() throws InterruptedException {
+        start(Duration.ofMillis(50));
+
+        coalescer.submit(event(1, PipelineStatus.QUEUED));
+        coalescer.submit(event(1, PipelineStatus.RUNNING));
+        assertThat(publisher.published).isEmpty();
+
+        awaitPublished(1);
+        assertThat(publisher.published).containsExactly("1:RUNNING");
+    }
+
+    @Test
+    void intermediateStateArrivingAfterTheTerminalOneIsDropped() throws InterruptedException {
+        start(Duration.ofMillis(50));
+
+        coalescer.submit(event(1, PipelineStatus.SUCCESS));
+        coalescer.submit(event(1, PipelineStatus.RUNNING));
+        Thread.sleep(200);
+
+        assertThat(publisher.published).containsExactly("1:SUCCESS");
+    }
+
+    @Test
+    void heldStatesAreFlushedOnShutdown() throws InterruptedException {
+        start(Duration.ofMinutes(1));
+
+        coalescer.submit(event(1, PipelineStatus.RUNNING));
+        coalescer.submit(event(2, PipelineStatus.QUEUED));
+        coalescer.stop();
+
+        assertThat(publisher.published).containsExactlyInAnyOrder("1:RUNNING", "2:QUEUED");
+    }
+
+    @Test
+    void blockedSendDoesNotHoldUpOtherRunsOfTheStripeAndOrderIsKept() throws Exception {
+        start(Duration.ofMinutes(1));
+        publisher.blockOn = "1:FAILED";
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> coalescer.submit(event(1, PipelineStatus.FAILED)), NEW_THREAD);
+        assertThat(publisher.blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Run 65 shares run 1's lock stripe
+        CompletableFuture<CompletableFuture<Void>> second =
+                CompletableFuture.supplyAsync(() -> coalescer.submit(event(65, PipelineStatus.FAILED)), NEW_THREAD);
+        CompletableFuture<Void> secondSent = second.get(5, TimeUnit.SECONDS);
+        assertThat(secondSent).isNotDone();
+        assertThat(publisher.published).isEmpty();
+
+        publisher.unblock.countDown();
+        assertThat(first).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(secondSent).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(publisher.published).containsExactly("1:FAILED", "65:FAILED");
+    }
+
+    private void start(Duration window) {
+        coalescer = new WorkflowRunCoalescer(publisher, meterRegistry);
+        ReflectionTestUtils.setField(coalescer, "window", window);
+        coalescer.start();
+    }
+
+    private void awaitPublished(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.published.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static PipelineEventMessage event(long runId, PipelineStatus status) {
+        return new PipelineEventMessage("https://github.com/acme/shop", "acme/shop", "main", "abc123", "github",
+                status, runId, "CI", null, null, null, null, 0, null);
+    }
+
+    /** Records what was sent; can block one send to stand in for a stalled broker. */
+    private static final class RecordingPublisher extends PipelineEventPublisher {
+        final List<String> published = new CopyOnWriteArrayList<>();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        volatile String blockOn;
+
+        RecordingPublisher() {
+            super(null, new StaticListableBeanFactory().getBeanProvider(DiskSpool.class));
+        }
+
+        @Override
+        public CompletableFuture<Void> publish(PipelineEventMessage event) {
+            String sent = event.workflowRunId() + ":" + event.status();
+            if (sent.equals(blockOn)) {
+                blocked.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            published.add(sent);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
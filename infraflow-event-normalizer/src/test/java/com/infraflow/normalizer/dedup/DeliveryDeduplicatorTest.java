@@ -0,0 +1,85 @@
+package com.infraflow.normalizer.dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeliveryDeduplicatorTest {
+
+    private static final String DELIVERY = "72d3162e-cc78-11e3-81ab-4c9367dc0958";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DeliveryDeduplicator deduplicator = new DeliveryDeduplicator(meterRegistry);
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(deduplicator, "enabled", true);
+        ReflectionTestUtils.setField(deduplicator, "ttl", Duration.ofHours(6));
+        ReflectionTestUtils.setField(deduplicator, "maxEntries", 100);
+        ReflectionTestUtils.setField(deduplicator, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(deduplicator, "falsePositiveRate", 0.01);
+        deduplicator.init();
+    }
+
+    @Test
+    void dropsARedeliveryOfAPublishedDelivery() {
+        assertThat(deduplicator.tryReserve(DELIVERY, 7)).isTrue();
+        deduplicator.recordDelivered(DELIVERY, 7);
+
+        assertThat(deduplicator.tryReserve(DELIVERY, 7)).isFalse();
+        assertThat(meterRegistry.counter("infraflow.webhook.dedup", "result", "duplicate").count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsASecondCopyWhileTheFirstIsInFlight() {
+        assertThat(deduplicator.tryReserve(DELIVERY, 7)).isTrue();
+
+        assertThat(deduplicator.tryReserve(DELIVERY, 7)).isFalse();
+    }
+
+    @Test
+    void releasedDeliveryCanBeRedelivered() {
+        assertThat(deduplicator.tryReserve(DELIVERY, 7)).isTrue();
+        deduplicator.release(DELIVERY, 7);
+
+        assertThat(deduplicator.tryReserve(DELIVERY, 7)).isTrue();
+    }
+
+    @Test
+    void sameDeliveryForAnotherRunIsNotADuplicate() {
+        deduplicator.tryReserve(DELIVERY, 7);
+        deduplicator.recordDelivered(DELIVERY, 7);
+
+        assertThat(deduplicator.tryReserve(DELIVERY, 8)).isTrue();
+    }
+
+    @Test
+    void deliveriesWithoutAGuidAreNeverDuplicates() {
+        assertThat(deduplicator.tryReserve(null, 7)).isTrue();
+        assertThat(deduplicator.tryReserve(" ", 7)).isTrue();
+        assertThat(deduplicator.tryReserve(null, 7)).isTrue();
+    }
+
+    @Test
+    void evictedDeliveryLooksNew() {
+        deduplicator.tryReserve(DELIVERY, 0);
+        deduplicator.recordDelivered(DELIVERY, 0);
+        for (int run = 1; run <= 100; run++) {
+            deduplicator.tryReserve(DELIVERY, run);
+            deduplicator.recordDelivered(DELIVERY, run);
+        }
+
+        assertThat(deduplicator.tryReserve(DELIVERY, 0)).isTrue();
+        assertThat(deduplicator.tryReserve(DELIVERY, 100)).isFalse();
+    }
+
+    /** Fingerprint of the n-th test delivery, as the deduplicator would compute it. */
+    static long key(long n) {
+        return DeliveryDeduplicator.fingerprint("delivery-" + n + ":" + n);
+    }
+}
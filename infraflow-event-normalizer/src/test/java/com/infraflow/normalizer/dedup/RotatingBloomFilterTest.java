@@ -0,0 +1,43 @@
+package com.infraflow.normalizer.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotatingBloomFilterTest {
+
+    private final RotatingBloomFilter bloom = new RotatingBloomFilter(10_000, 0.01);
+
+    @Test
+    void remembersWhatWasPut() {
+        LongStream.range(0, 10_000).map(DeliveryDeduplicatorTest::key).forEach(bloom::put);
+
+        assertThat(LongStream.range(0, 10_000).map(DeliveryDeduplicatorTest::key))
+                .allMatch(bloom::mightContain);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        LongStream.range(0, 10_000).map(DeliveryDeduplicatorTest::key).forEach(bloom::put);
+
+        long falsePositives = LongStream.range(10_000, 110_000).map(DeliveryDeduplicatorTest::key)
+                .filter(bloom::mightContain)
+                .count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void forgetsAfterTwoRotations() {
+        long fingerprint = DeliveryDeduplicatorTest.key(42);
+        bloom.put(fingerprint);
+
+        bloom.rotate();
+        assertThat(bloom.mightContain(fingerprint)).isTrue();
+
+        bloom.rotate();
+        assertThat(bloom.mightContain(fingerprint)).isFalse();
+    }
+}
@@ -0,0 +1,105 @@
+package com.infraflow.normalizer.logs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StepSegmentingLogWriterTest {
+
+    private final StringWriter excerpt = new StringWriter();
+
+    @Test
+    void keepsOnlyTheFailedStepWithContextFromTheStepBefore() throws IOException {
+        String failed = segment(2, 10_000, """
+                2024-05-01T10:00:00.0000000Z ##[group]Checkout
+                2024-05-01T10:00:01.0000000Z Fetching the repository
+                2024-05-01T10:00:02.0000000Z ##[endgroup]
+                2024-05-01T10:00:03.0000000Z ##[group]Set up JDK
+                2024-05-01T10:00:04.0000000Z Downloading JDK 17
+                2024-05-01T10:00:05.0000000Z Java 17 installed
+                2024-05-01T10:00:06.0000000Z Cache restored
+                2024-05-01T10:00:07.0000000Z ##[group]Build
+                2024-05-01T10:00:08.0000000Z [ERROR] cannot find symbol
+                2024-05-01T10:00:09.0000000Z ##[error]Process completed with exit code 1.
+                """);
+
+        assertThat(failed).isEqualTo("Build");
+        assertThat(excerpt.toString()).isEqualTo("""
+                --- context: Set up JDK (last 2 lines) ---
+                Java 17 installed
+                Cache restored
+                === step: Build ===
+                [ERROR] cannot find symbol
+                ##[error]Process completed with exit code 1.
+                """);
+    }
+
+    @Test
+    void nonZeroExitCodeMarksTheStepFailed() throws IOException {
+        String failed = segment(0, 10_000, """
+                ##[group]Test
+                Tests run: 3, Failures: 1
+                Process completed with exit code 2.
+                ##[group]Upload
+                done
+                """);
+
+        assertThat(failed).isEqualTo("Test");
+        assertThat(excerpt.toString()).doesNotContain("Upload", "done");
+    }
+
+    @Test
+    void writesNothingWhenNoStepFailed() throws IOException {
+        String failed = segment(2, 10_000, """
+                ##[group]Build
+                BUILD SUCCESS
+                Process completed with exit code 0.
+                """);
+
+        assertThat(failed).isNull();
+        assertThat(excerpt.toString()).isEmpty();
+    }
+
+    @Test
+    void stripsAnsiEscapes() throws IOException {
+        segment(0, 10_000, "##[group]Build\n\u001B[31m##[error]boom\u001B[0m\n");
+
+        assertThat(excerpt.toString()).contains("##[error]boom").doesNotContain("\u001B");
+    }
+
+    @Test
+    void oversizedStepKeepsItsHeadAndMostRecentLines() throws IOException {
+        StringBuilder logs = new StringBuilder("##[group]Build\n");
+        for (int i = 0; i < 1000; i++) {
+            logs.append("line ").append(i).append('\n');
+        }
+        logs.append("##[error]Process completed with exit code 1.\n");
+
+        segment(0, 400, logs.toString());
+
+        assertThat(excerpt.toString())
+                .contains("line 0\n", "lines omitted", "line 999\n", "##[error]Process completed with exit code 1.")
+                .doesNotContain("line 500\n");
+        assertThat(excerpt.toString().length()).isLessThan(600);
+    }
+
+    @Test
+    void handlesLinesSplitAcrossWrites() throws IOException {
+        StepSegmentingLogWriter writer = new StepSegmentingLogWriter(excerpt, 0, 10_000);
+        writer.write("##[gro");
+        writer.write("up]Build\n##[err");
+        writer.write("or]boom");
+
+        assertThat(writer.finish()).isEqualTo("Build");
+        assertThat(excerpt.toString()).isEqualTo("=== step: Build ===\n##[error]boom\n");
+    }
+
+    private String segment(int contextLines, int maxStepChars, String logs) throws IOException {
+        StepSegmentingLogWriter writer = new StepSegmentingLogWriter(excerpt, contextLines, maxStepChars);
+        writer.write(logs);
+        return writer.finish();
+    }
+}
@@ -0,0 +1,132 @@
+package com.infraflow.normalizer.parser;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkflowRunPayloadParserTest {
+
+    private static final String PAYLOAD = """
+            {"action":"completed",
+             "rawLogs":"line 1\\nnpm ERR! \\u00e9chec\\n",
+             "workflow_run":{"id":9876543210,"name":"CI","status":"completed","conclusion":"failure",
+               "head_branch":"main","head_sha":"9fceb02","created_at":"2024-06-01T10:15:30Z",
+               "updated_at":"2024-06-01T10:20:00Z","pull_requests":[{"id":1,"head":{"ref":"x"}}],
+               "head_commit":{"message":"fix","author":{"name":"dev"}},
+               "repository":{"id":1,"full_name":"acme/shop","html_url":"https://github.com/acme/shop",
+                 "owner":{"login":"acme","html_url":"https://github.com/acme"}}},
+             "repository":{"full_name":"ignored/top-level"}}""";
+
+    private static final String LOGS = "line 1\nnpm ERR! échec\n";
+
+    private final WorkflowRunPayloadParser parser = new WorkflowRunPayloadParser(new ObjectMapper());
+
+    @Test
+    void readsWorkflowRunFieldsAndStreamsLogs() throws Exception {
+        StringWriter logs = new StringWriter();
+
+        WorkflowRunFields fields = parser.parse(bytes(PAYLOAD), logs);
+
+        assertThat(fields).isEqualTo(new WorkflowRunFields(true, 9_876_543_210L, "CI", "completed", "failure",
+                "main", "9fceb02", "2024-06-01T10:15:30Z", "2024-06-01T10:20:00Z",
+                "https://github.com/acme/shop", "acme/shop", LOGS.length()));
+        assertThat(logs).hasToString(LOGS);
+    }
+
+    @Test
+    void fieldsOnlyParseSkipsLogs() throws Exception {
+        WorkflowRunFields fields = parser.parse(bytes(PAYLOAD));
+
+        assertThat(fields.repoName()).isEqualTo("acme/shop");
+        assertThat(fields.rawLogsLength()).isZero();
+    }
+
+    @Test
+    void writeRawLogsStreamsOnlyTheLogs() throws Exception {
+        StringWriter logs = new StringWriter();
+
+        int length = parser.writeRawLogs(bytes(PAYLOAD), logs);
+
+        assertThat(length).isEqualTo(LOGS.length());
+        assertThat(logs).hasToString(LOGS);
+    }
+
+    @Test
+    void logsMayFollowTheWorkflowRun() throws Exception {
+        StringWriter logs = new StringWriter();
+
+        WorkflowRunFields fields = parser.parse(bytes("""
+                {"workflow_run":{"id":1,"status":"in_progress"},"rawLogs":"tail"}"""), logs);
+
+        assertThat(fields.status()).isEqualTo("in_progress");
+        assertThat(logs).hasToString("tail");
+    }
+
+    @Test
+    void missingAndNullFieldsBecomeEmptyStrings() throws Exception {
+        WorkflowRunFields fields = parser.parse(bytes("""
+                {"workflow_run":{"id":"not-a-number","conclusion":null,"name":{"nested":true}}}"""));
+
+        assertThat(fields.present()).isTrue();
+        assertThat(fields.id()).isZero();
+        assertThat(fields.conclusion()).isEmpty();
+        assertThat(fields.name()).isEmpty();
+        assertThat(fields.repoName()).isEmpty();
+    }
+
+    @Test
+    void reportsPayloadsWithoutWorkflowRun() throws Exception {
+        StringWriter logs = new StringWriter();
+
+        WorkflowRunFields fields = parser.parse(bytes("""
+                {"action":"requested","rawLogs":null,"workflow_run":null}"""), logs);
+
+        assertThat(fields.present()).isFalse();
+        assertThat(logs.toString()).isEmpty();
+        assertThat(parser.writeRawLogs(bytes("{\"action\":\"requested\"}"), logs)).isZero();
+    }
+
+    @Test
+    void streamsMultiMegabyteLogsIntact() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        StringBuilder escaped = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            expected.append("step ").append(i).append(" \"quoted\"\ttab ✓ 🚀\n");
+            escaped.append("step ").append(i).append(" \\\"quoted\\\"\\ttab \\u2713 \\uD83D\\uDE80\\n");
+        }
+        StringWriter logs = new StringWriter();
+
+        WorkflowRunFields fields = parser.parse(bytes(
+                "{\"workflow_run\":{\"id\":7},\"rawLogs\":\"" + escaped + "\"}"), logs);
+
+        assertThat(fields.rawLogsLength()).isEqualTo(expected.length());
+        assertThat(logs.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    void nestedFieldsWithWantedNamesAreIgnored() throws Exception {
+        WorkflowRunFields fields = parser.parse(bytes("""
+                {"workflow_run":{"id":5,"head_commit":{"id":"deadbeef","name":"not the run"},
+                  "repository":{"full_name":"acme/shop","owner":{"full_name":"not/this"}}}}"""));
+
+        assertThat(fields.id()).isEqualTo(5);
+        assertThat(fields.name()).isEmpty();
+        assertThat(fields.repoName()).isEqualTo("acme/shop");
+    }
+
+    @Test
+    void rejectsNonObjectPayloads() {
+        assertThatThrownBy(() -> parser.parse(bytes("[1,2,3]")))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,69 @@
+package com.infraflow.normalizer.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // 10 tokens/s, burst 5: one token per 100ms
+    private final TokenBucket bucket = new TokenBucket(10, 5);
+    private final long start = System.nanoTime();
+
+    @Test
+    void admitsTheBurstThenRefillsAtTheRate() {
+        assertThat(acquired(start, 10)).isEqualTo(5);
+
+        assertThat(bucket.tryAcquire(start + SECOND / 10)).isTrue();
+        assertThat(bucket.tryAcquire(start + SECOND / 10)).isFalse();
+    }
+
+    @Test
+    void refillsToBurstButNoFurther() {
+        acquired(start, 5);
+
+        assertThat(acquired(start + 60 * SECOND, 20)).isEqualTo(5);
+    }
+
+    @Test
+    void forcedTokensEmptyTheBucketWithoutRunningIntoDebt() {
+        for (int i = 0; i < 1000; i++) {
+            bucket.acquireForced(start);
+        }
+        assertThat(bucket.tryAcquire(start)).isFalse();
+
+        // 1000 forced tokens at 10/s would be 100s of debt; it is capped at one burst
+        assertThat(bucket.tryAcquire(start + SECOND / 10)).isTrue();
+    }
+
+    @Test
+    void releaseGivesATokenBack() {
+        acquired(start, 5);
+        assertThat(bucket.tryAcquire(start)).isFalse();
+
+        bucket.release();
+
+        assertThat(bucket.tryAcquire(start)).isTrue();
+        assertThat(bucket.tryAcquire(start)).isFalse();
+    }
+
+    @Test
+    void isIdleOnceFullAgain() {
+        acquired(start, 5);
+        assertThat(bucket.isIdle(start)).isFalse();
+
+        assertThat(bucket.isIdle(start + SECOND)).isTrue();
+    }
+
+    private int acquired(long now, int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (bucket.tryAcquire(now)) acquired++;
+        }
+        return acquired;
+    }
+}
@@ -0,0 +1,157 @@
+package com.infraflow.normalizer.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskSpoolTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void returnsRecordsInAppendOrderUntilAdvanced() throws IOException {
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            SpoolRecord withHeaders = new SpoolRecord("pipeline.events.raw", null,
+                    Map.of("infraflow-pipeline-status", "FAILED".getBytes(StandardCharsets.UTF_8)),
+                    "value".getBytes(StandardCharsets.UTF_8));
+            assertThat(spool.append(withHeaders)).isTrue();
+            assertThat(spool.append(record(1))).isTrue();
+            assertThat(spool.append(record(2))).isTrue();
+
+            List<SpoolRecord> head = spool.peek(2);
+            assertThat(head.get(0).key()).isNull();
+            assertThat(head.get(0).headers().get("infraflow-pipeline-status")).asString().isEqualTo("FAILED");
+            assertThat(head.get(0).value()).asString().isEqualTo("value");
+            assertThat(keys(head)).containsExactly(null, "k1");
+            assertThat(spool.pendingRecords()).isEqualTo(3);
+
+            spool.advance(2);
+
+            assertThat(keys(spool.peek(10))).containsExactly("k2");
+            spool.advance(1);
+            assertThat(spool.isEmpty()).isTrue();
+            assertThat(spool.peek(10)).isEmpty();
+        }
+    }
+
+    @Test
+    void reopeningRecoversPendingRecordsFromTheCursor() throws IOException {
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            for (int i = 0; i < 20; i++) spool.append(record(i));
+            spool.advance(5);
+        }
+
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            assertThat(spool.pendingRecords()).isEqualTo(15);
+            assertThat(keys(spool.peek(2))).containsExactly("k5", "k6");
+
+            spool.append(record(20));
+            spool.advance(15);
+            assertThat(keys(spool.peek(10))).containsExactly("k20");
+        }
+    }
+
+    @Test
+    void tornWriteLosesOnlyTheDamagedEntry() throws IOException {
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            for (int i = 0; i < 3; i++) spool.append(record(i));
+        }
+        int thirdEntry = entryBytes(record(0)) + entryBytes(record(1));
+        try (FileChannel segment = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.wrap(new byte[] {0x5a, 0x5a, 0x5a, 0x5a}), thirdEntry + 12);
+        }
+
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            assertThat(spool.pendingRecords()).isEqualTo(2);
+            assertThat(keys(spool.peek(10))).containsExactly("k0", "k1");
+            spool.append(record(3));
+        }
+
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            assertThat(keys(spool.peek(10))).containsExactly("k0", "k1", "k3");
+        }
+    }
+
+    @Test
+    void rollsOverToNewSegmentsAndDeletesConsumedOnes() throws IOException {
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            for (int i = 0; i < 30; i++) assertThat(spool.append(record(i))).isTrue();
+            int perSegment = SEGMENT_BYTES / entryBytes(record(10));
+
+            assertThat(segmentFiles()).hasSizeGreaterThan(2);
+            assertThat(spool.sizeBytes()).isEqualTo((long) segmentFiles().size() * SEGMENT_BYTES);
+
+            spool.advance(perSegment + 1);
+            assertThat(keys(spool.peek(1))).containsExactly("k" + (perSegment + 1));
+            assertThat(segmentFiles()).hasSize((int) Math.ceil(30.0 / perSegment) - 1);
+
+            spool.advance(30);
+            assertThat(spool.isEmpty()).isTrue();
+            assertThat(segmentFiles()).hasSize(1);
+        }
+
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            assertThat(spool.isEmpty()).isTrue();
+            spool.append(record(30));
+            assertThat(keys(spool.peek(10))).containsExactly("k30");
+        }
+    }
+
+    @Test
+    void refusesRecordsPastTheSizeCapUntilDrained() throws IOException {
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 2 * SEGMENT_BYTES)) {
+            int accepted = 0;
+            while (spool.append(record(accepted))) accepted++;
+
+            assertThat(accepted).isEqualTo(2 * (SEGMENT_BYTES / entryBytes(record(10))));
+            assertThat(spool.rejectedTotal()).isEqualTo(1);
+
+            spool.advance(accepted);
+            assertThat(spool.append(record(accepted))).isTrue();
+        }
+    }
+
+    @Test
+    void refusesRecordsLargerThanASegment() throws IOException {
+        try (DiskSpool spool = new DiskSpool(dir, SEGMENT_BYTES, 1 << 20)) {
+            SpoolRecord huge = new SpoolRecord("pipeline.events.raw", "k", Map.of(), new byte[SEGMENT_BYTES]);
+
+            assertThat(spool.append(huge)).isFalse();
+            assertThat(spool.rejectedTotal()).isEqualTo(1);
+            assertThat(spool.isEmpty()).isTrue();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    private static SpoolRecord record(int n) {
+        return new SpoolRecord("pipeline.events.raw", "k" + n, Map.of(), new byte[100]);
+    }
+
+    private static int entryBytes(SpoolRecord record) {
+        return 8 + record.encode().length;
+    }
+
+    private static List<String> keys(List<SpoolRecord> records) {
+        return records.stream().map(SpoolRecord::key).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.infraflow.healing.config;
+
+import com.infraflow.healing.llm.LlmAdmissionController;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * HTTP client for the Anthropic Messages API: a dedicated Reactor Netty
+ * connection pool (pool gauges under {@code reactor.netty.connection.provider.*}
+ * with {@code name=anthropic}), connect and response timeouts, and the
+ * {@link LlmAdmissionController} that every response's rate-limit headers
+ * are reported to.
+ */
+@Configuration
+public class AnthropicClientConfig {
+
+    @Value("${infraflow.anthropic.base-url:https://api.anthropic.com}")
+    private String baseUrl;
+
+    @Value("${infraflow.anthropic.client.max-connections:32}")
+    private int maxConnections;
+
+    @Value("${infraflow.anthropic.client.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${infraflow.anthropic.client.response-timeout-ms:120000}")
+    private long responseTimeoutMs;
+
+    @Value("${infraflow.anthropic.client.pending-acquire-timeout-ms:10000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${infraflow.anthropic.client.max-in-flight:32}")
+    private int maxInFlight;
+
+    @Value("${infraflow.anthropic.client.max-queued:256}")
+    private int maxQueued;
+
+    @Value("${infraflow.anthropic.client.min-in-flight:2}")
+    private int minInFlight;
+
+    @Value("${infraflow.anthropic.client.latency-target-ms:45000}")
+    private long latencyTargetMs;
+
+    @Value("${infraflow.anthropic.client.default-retry-after-ms:5000}")
+    private long defaultRetryAfterMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider anthropicConnectionProvider() {
+        return ConnectionProvider.builder("anthropic")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .evictInBackground(Duration.ofSeconds(60))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient anthropicWebClient(ConnectionProvider anthropicConnectionProvider,
+                                        LlmAdmissionController llmAdmissionController) {
+        HttpClient httpClient = HttpClient.create(anthropicConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(ExchangeFilterFunction.ofResponseProcessor(response -> {
+                    llmAdmissionController.onResponse(response.statusCode(), response.headers().asHttpHeaders());
+                    return Mono.just(response);
+                }))
+                .build();
+    }
+
+    @Bean
+    public LlmAdmissionController llmAdmissionController(MeterRegistry meterRegistry) {
+        LlmAdmissionController admission = new LlmAdmissionController(minInFlight, maxInFlight, maxQueued,
+                Duration.ofMillis(latencyTargetMs), Duration.ofMillis(defaultRetryAfterMs),
+                Clock.systemUTC(), Schedulers.parallel());
+        Gauge.builder("infraflow.llm.inflight", admission, LlmAdmissionController::inFlight)
+                .description("LLM requests currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.llm.queued", admission, LlmAdmissionController::queued)
+                .description("LLM requests waiting for admission")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.llm.admission.limit", admission, LlmAdmissionController::limit)
+                .description("Current adaptive concurrency limit for LLM requests")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.llm.admission.requests.remaining", admission,
+                        LlmAdmissionController::requestsRemaining)
+                .description("Requests left in the current rate-limit window (-1 when unknown)")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.llm.admission.tokens.remaining", admission,
+                        LlmAdmissionController::tokensRemaining)
+                .description("Tokens left in the current rate-limit window (-1 when unknown)")
+                .register(meterRegistry);
+        FunctionCounter.builder("infraflow.llm.admission.throttled", admission,
+                        LlmAdmissionController::throttledResponses)
+                .description("429 / 529 responses from the Anthropic API")
+                .register(meterRegistry);
+        return admission;
+    }
+}
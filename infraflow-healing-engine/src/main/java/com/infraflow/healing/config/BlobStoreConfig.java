@@ -0,0 +1,24 @@
+package com.infraflow.healing.config;
+
+import com.infraflow.common.blob.BlobStore;
+import com.infraflow.common.blob.FileSystemBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Claim-check store the event-normalizer writes large raw CI logs to.
+ * Must point at the same directory as the normalizer's
+ * {@code infraflow.blob-store.root}.
+ */
+@Configuration
+public class BlobStoreConfig {
+
+    @Bean
+    public BlobStore blobStore(@Value("${infraflow.blob-store.root}") String root) throws IOException {
+        return new FileSystemBlobStore(Path.of(root));
+    }
+}
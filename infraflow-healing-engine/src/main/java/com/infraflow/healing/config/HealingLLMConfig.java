@@ -0,0 +1,123 @@
+package com.infraflow.healing.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.healing.llm.CachingHealingLLM;
+import com.infraflow.healing.llm.FallbackHealingLLM;
+import com.infraflow.healing.llm.LlmCircuitBreaker;
+import com.infraflow.healing.llm.PromptCacheStore;
+import com.infraflow.healing.llm.ResilientHealingLLM;
+import com.infraflow.healing.llm.SingleFlightHealingLLM;
+import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.prompt.HealingPromptRouter;
+import com.infraflow.healing.service.ClaudeHealingAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assembles the {@link HealingLLMPort} that {@code HealingService} uses,
+ * outermost first: fallback → single-flight → prompt cache → resilience
+ * (circuit breaker, deadline, hedging) → Claude.
+ */
+@Configuration
+public class HealingLLMConfig {
+
+    @Value("${infraflow.llm.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${infraflow.llm.cache.dir:${user.home}/.infraflow/llm-cache}")
+    private String cacheDir;
+
+    @Value("${infraflow.llm.cache.memory-entries:1000}")
+    private int cacheMemoryEntries;
+
+    @Value("${infraflow.llm.cache.max-disk-bytes:268435456}")
+    private long cacheMaxDiskBytes;
+
+    @Value("${infraflow.llm.cache.ttl:7d}")
+    private Duration cacheTtl;
+
+    @Value("${infraflow.llm.resilience.deadline:150s}")
+    private Duration deadline;
+
+    @Value("${infraflow.llm.resilience.breaker.window:20}")
+    private int breakerWindow;
+
+    @Value("${infraflow.llm.resilience.breaker.min-calls:10}")
+    private int breakerMinCalls;
+
+    @Value("${infraflow.llm.resilience.breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${infraflow.llm.resilience.breaker.open-duration:30s}")
+    private Duration breakerOpenDuration;
+
+    @Value("${infraflow.llm.resilience.breaker.half-open-calls:3}")
+    private int breakerHalfOpenCalls;
+
+    @Value("${infraflow.llm.resilience.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${infraflow.llm.resilience.hedge.window:200}")
+    private int hedgeWindow;
+
+    @Value("${infraflow.llm.resilience.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    @Value("${infraflow.llm.resilience.hedge.min-delay:2s}")
+    private Duration hedgeMinDelay;
+
+    @Value("${infraflow.anthropic.model:claude-3-5-sonnet-20241022}")
+    private String model;
+
+    @Value("${infraflow.healing.demo-mode:false}")
+    private boolean demoMode;
+
+    private final ExecutorService cacheIoExecutor = Executors.newFixedThreadPool(2, daemonThreads("llm-cache-io-"));
+    private final ExecutorService hedgeExecutor = Executors.newFixedThreadPool(2, daemonThreads("llm-hedge-"));
+
+    @PreDestroy
+    void shutdownExecutors() {
+        cacheIoExecutor.shutdown();
+        hedgeExecutor.shutdown();
+    }
+
+    @Bean
+    @Primary
+    public HealingLLMPort healingLLMPort(ClaudeHealingAdapter claude, HealingPromptRouter promptRouter,
+                                         ObjectMapper objectMapper, MeterRegistry meterRegistry) throws IOException {
+        LlmCircuitBreaker breaker = new LlmCircuitBreaker(breakerWindow, breakerMinCalls, breakerFailureRate,
+                breakerOpenDuration, breakerHalfOpenCalls, Clock.systemUTC());
+        HealingLLMPort chain = new ResilientHealingLLM(claude, breaker, deadline,
+                hedgeEnabled, hedgeWindow, hedgeMinSamples, hedgeMinDelay, hedgeExecutor, meterRegistry);
+        // Demo-mode answers must not outlive demo mode
+        if (cacheEnabled && !demoMode) {
+            PromptCacheStore store = new PromptCacheStore(Path.of(cacheDir), cacheMemoryEntries,
+                    cacheMaxDiskBytes, cacheTtl, objectMapper, Clock.systemUTC());
+            chain = new CachingHealingLLM(chain, promptRouter, model, store, cacheIoExecutor, meterRegistry);
+        }
+        chain = new SingleFlightHealingLLM(chain, meterRegistry);
+        return new FallbackHealingLLM(chain, claude::fallbackPlan);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger ids = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
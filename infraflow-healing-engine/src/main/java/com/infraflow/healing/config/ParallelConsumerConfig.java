@@ -0,0 +1,43 @@
+package com.infraflow.healing.config;
+
+import com.infraflow.healing.consumer.PartitionOffsetTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+/**
+ * Batch listener container for {@code ParallelPipelineEventConsumer}. Offsets
+ * are committed by the {@link PartitionOffsetTracker}, never by the container.
+ */
+@Configuration
+@ConditionalOnExpression("'${infraflow.consumer.mode:sequential}' matches 'parallel|staged'")
+public class ParallelConsumerConfig {
+
+    @Value("${infraflow.consumer.parallel.idle-commit-interval-ms:1000}")
+    private long idleCommitIntervalMs;
+
+    @Bean
+    public PartitionOffsetTracker partitionOffsetTracker() {
+        return new PartitionOffsetTracker();
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> pipelineBatchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            PartitionOffsetTracker offsetTracker) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        ContainerProperties properties = factory.getContainerProperties();
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setIdleEventInterval(idleCommitIntervalMs);
+        properties.setConsumerRebalanceListener(offsetTracker);
+        return factory;
+    }
+}
@@ -0,0 +1,27 @@
+package com.infraflow.healing.consumer;
+
+import com.infraflow.common.enums.PipelineStatus;
+import com.infraflow.common.event.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops pipeline events the healing engine has no use for before they reach
+ * {@link PipelineEventConsumer}. Decides on the {@code infraflow-pipeline-status}
+ * header stamped by the normalizer; records the {@code EventDeserializer}
+ * already skipped arrive with a {@code null} value and are dropped too.
+ */
+@Component("failedPipelineEventFilter")
+public class FailedPipelineEventFilter implements RecordFilterStrategy<String, Object> {
+
+    private static final String FAILED = PipelineStatus.FAILED.name();
+
+    @Override
+    public boolean filter(ConsumerRecord<String, Object> record) {
+        if (record.value() == null) return true;
+        String status = EventHeaders.get(record.headers(), EventHeaders.PIPELINE_STATUS);
+        // No header means an older producer — let the listener decide on the decoded status
+        return status != null && !FAILED.equals(status);
+    }
+}
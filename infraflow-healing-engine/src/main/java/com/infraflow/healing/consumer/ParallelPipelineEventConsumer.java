@@ -0,0 +1,349 @@
+package com.infraflow.healing.consumer;
+
+import com.infraflow.common.enums.PipelineStatus;
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.healing.pipeline.StagedHealingPipeline;
+import com.infraflow.healing.scheduling.FairQueue;
+import com.infraflow.healing.scheduling.HealingScheduler;
+import com.infraflow.healing.scheduling.HealingTenant;
+import com.infraflow.healing.scheduling.TenantResolver;
+import com.infraflow.healing.service.HealingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel alternative to {@link PipelineEventConsumer}, enabled with
+ * {@code infraflow.consumer.mode=parallel} (worker pool) or {@code staged}
+ * ({@link StagedHealingPipeline}).
+ *
+ * <p>Polls in batches and hands each FAILED event to a worker pool. Events
+ * are started in tenant-fair order: at most {@code max-running} run at once
+ * and the rest wait in a {@link FairQueue} keyed by {@link HealingTenant} and
+ * weighted like the {@link HealingScheduler}, so a PRO tenant's failure
+ * overtakes another tenant's burst that was polled before it. Events of the
+ * same repository (and so the same tenant) start in order and are then
+ * chained one after another, so they are healed in order; different
+ * repositories run side by side. Offsets are committed by
+ * the {@link PartitionOffsetTracker} only up to the first record still in
+ * flight, on the consumer thread after each poll and on idle events.</p>
+ *
+ * <p>When {@code max-in-flight} events are queued or running — or, in staged
+ * mode, when any stage queue is more than {@code pause-occupancy} full — the
+ * container is paused, which keeps it polling (and heartbeating) without
+ * fetching. It resumes once in-flight events are down to half and stage
+ * queues below {@code resume-occupancy}.</p>
+ *
+ * <p>An event whose healing fails is logged and its offset committed, as in
+ * sequential mode. One that was never run — rejected by a worker pool or
+ * stage that is shutting down — is left uncommitted so it is redelivered.
+ * On shutdown this bean stops first: it pauses the container, waits up to
+ * {@code shutdown-timeout} for in-flight events, and only then lets the
+ * container stop (committing the completed prefix on revocation) and the
+ * worker pool and stage executors shut down.</p>
+ *
+ * <p>{@code max-running} defaults to {@code workers}, or to half of
+ * {@code max-in-flight} in staged mode, where the stage queues and the
+ * scheduler do the pacing. Metrics: {@code infraflow.consumer.dispatch.wait{plan=pro|free}},
+ * {@code infraflow.consumer.dispatch.queued} and {@code .aged}.</p>
+ */
+@Component
+@ConditionalOnExpression("'${infraflow.consumer.mode:sequential}' matches 'parallel|staged'")
+@RequiredArgsConstructor
+@Slf4j
+public class ParallelPipelineEventConsumer implements SmartLifecycle {
+
+    static final String LISTENER_ID = "pipeline-events-parallel";
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final HealingService healingService;
+    private final PartitionOffsetTracker offsetTracker;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<StagedHealingPipeline> stagedPipelineProvider;
+    private final TenantResolver tenantResolver;
+    private final HealingScheduler healingScheduler;
+
+    @Value("${infraflow.consumer.parallel.workers:8}")
+    private int workers;
+
+    @Value("${infraflow.consumer.parallel.max-in-flight:64}")
+    private int maxInFlight;
+
+    /** 0: {@code workers}, or half of {@code max-in-flight} in staged mode. */
+    @Value("${infraflow.consumer.parallel.max-running:0}")
+    private int maxRunning;
+
+    @Value("${infraflow.consumer.parallel.max-wait:2m}")
+    private Duration maxWait;
+
+    @Value("${infraflow.healing.pipeline.pause-occupancy:0.8}")
+    private double pauseOccupancy;
+
+    @Value("${infraflow.healing.pipeline.resume-occupancy:0.5}")
+    private double resumeOccupancy;
+
+    @Value("${infraflow.consumer.parallel.shutdown-timeout:60s}")
+    private Duration shutdownTimeout;
+
+    private StagedHealingPipeline stagedPipeline;
+    private ExecutorService workerPool;
+    private FairQueue dispatchQueue;
+    private Timer proWait;
+    private Timer freeWait;
+    private final Map<String, CompletableFuture<Void>> repoTails = new ConcurrentHashMap<>();
+    /** Per repo, the last event still waiting for its tenant lookup before entering the fair queue. */
+    private final Map<String, CompletableFuture<Void>> repoQueued = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private volatile boolean running;
+    private volatile boolean draining;
+    private volatile boolean stopping;
+
+    @PostConstruct
+    void init() {
+        stagedPipeline = stagedPipelineProvider.getIfAvailable();
+        AtomicInteger threadIds = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "healing-worker-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        if (maxRunning <= 0) {
+            maxRunning = stagedPipeline != null ? Math.max(1, maxInFlight / 2) : workers;
+        }
+        Counter aged = Counter.builder("infraflow.consumer.dispatch.aged")
+                .description("Pipeline events started out of tenant-fair order after waiting max-wait")
+                .register(meterRegistry);
+        // Never rejects: a poll may overshoot max-in-flight before the container pauses
+        dispatchQueue = new FairQueue(maxRunning, Integer.MAX_VALUE, maxWait, aged);
+        proWait = dispatchWaitTimer("pro");
+        freeWait = dispatchWaitTimer("free");
+        Gauge.builder("infraflow.consumer.inflight", inFlight, AtomicInteger::get)
+                .description("Pipeline events dispatched to healing workers and not yet finished")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.consumer.dispatch.queued", dispatchQueue, FairQueue::queued)
+                .description("Pipeline events waiting for their tenant's turn to start")
+                .register(meterRegistry);
+        log.info("Parallel pipeline consumer: {}, maxInFlight={}, maxRunning={}",
+                stagedPipeline != null ? "staged pipeline" : "workers=" + workers, maxInFlight, maxRunning);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /** Drains in-flight events while the container, worker pool and stage executors are still up. */
+    @Override
+    public void stop() {
+        running = false;
+        draining = true;
+        MessageListenerContainer container = container();
+        if (container != null) container.pause();
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        stopping = true;
+        if (inFlight.get() > 0) {
+            log.warn("{} healing events still in flight after {}; they will be redelivered",
+                    inFlight.get(), shutdownTimeout);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Stops before the listener containers, which stop at {@code Integer.MAX_VALUE - 100}. */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(60, TimeUnit.SECONDS)) {
+            log.warn("Healing workers still busy at shutdown; uncommitted events will be redelivered");
+        }
+    }
+
+    @KafkaListener(id = LISTENER_ID, topics = "${infraflow.kafka.topic.pipeline-events}",
+            groupId = "healing-engine", containerFactory = "pipelineBatchListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, Object>> records, Consumer<?, ?> consumer) {
+        for (ConsumerRecord<String, Object> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            long offset = record.offset();
+            PartitionOffsetTracker.Dispatch dispatched = offsetTracker.dispatched(partition, offset);
+
+            if (record.value() == null
+                    && record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                log.warn("Skipping undecodable pipeline event at {}@{}", partition, offset);
+            }
+            // Non-failure events arrive undecoded (null) thanks to the header filter in EventDeserializer
+            if (!(record.value() instanceof PipelineEventMessage event) || event.status() != PipelineStatus.FAILED) {
+                offsetTracker.completed(dispatched);
+                continue;
+            }
+            dispatch(event, dispatched);
+        }
+        offsetTracker.commit(consumer);
+
+        if (saturated() && paused.compareAndSet(false, true)) {
+            log.info("{} healing events in flight — pausing pipeline event consumption", inFlight.get());
+            container().pause();
+        }
+    }
+
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        // Published on the consumer thread, so committing here is safe
+        if (event.getListenerId().startsWith(LISTENER_ID) && event.getConsumer() != null) {
+            offsetTracker.commit(event.getConsumer());
+            maybeResume();
+        }
+    }
+
+    /**
+     * Queues the event once its tenant is known. The lookup runs off the poll
+     * thread on a cache miss; a repo's events still enter the fair queue in
+     * poll order, each after the one before.
+     */
+    private void dispatch(PipelineEventMessage event, PartitionOffsetTracker.Dispatch dispatched) {
+        String repo = event.repoName() != null ? event.repoName() : "";
+        inFlight.incrementAndGet();
+        CompletableFuture<HealingTenant> tenant = tenantResolver.resolveAsync(repo);
+        CompletableFuture<Void> queued = new CompletableFuture<>();
+        CompletableFuture<Void> previous = repoQueued.put(repo, queued);
+        (previous != null ? previous : DONE).thenCombine(tenant, (v, resolved) -> resolved)
+                .thenAccept(resolved -> enqueue(resolved, repo, event, dispatched))
+                .whenComplete((result, ex) -> {
+                    if (ex != null) finished(event, dispatched, ex);
+                    repoQueued.remove(repo, queued);
+                    queued.complete(null);
+                });
+    }
+
+    private void enqueue(HealingTenant tenant, String repo, PipelineEventMessage event,
+                         PartitionOffsetTracker.Dispatch dispatched) {
+        double weight = healingScheduler.weight(tenant, tenant.isDefaultBranch(event.branch()));
+        dispatchQueue.submit(tenant.key(), weight, tenant.pro() ? proWait : freeWait,
+                        () -> startInRepoOrder(repo, event))
+                .handle((v, ex) -> {
+                    finished(event, dispatched, ex);
+                    return null;
+                });
+    }
+
+    /** Heals the event after the repo's earlier events; the returned future completes when it is healed. */
+    private CompletableFuture<Void> startInRepoOrder(String repo, PipelineEventMessage event) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> tail = repoTails.compute(repo, (key, previous) -> {
+            CompletableFuture<Void> before = previous != null ? previous : DONE;
+            CompletableFuture<Void> healed = stagedPipeline != null
+                    ? before.thenCompose(v -> stagedPipeline.submit(event))
+                    : before.thenRunAsync(() -> heal(event), workerPool);
+            // Whatever happened to this event, the repo chain goes on to the next one
+            return healed.handle((v, ex) -> {
+                if (ex != null) done.completeExceptionally(ex);
+                else done.complete(null);
+                return null;
+            });
+        });
+        tail.whenComplete((result, ex) -> repoTails.remove(repo, tail));
+        return done;
+    }
+
+    private void finished(PipelineEventMessage event, PartitionOffsetTracker.Dispatch dispatched, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        // Rejected by our own executors going down, as opposed to e.g. an open LLM circuit breaker
+        boolean notRun = cause instanceof RejectedExecutionException
+                && (workerPool.isShutdown() || (stagedPipeline != null && stagedPipeline.isShuttingDown()));
+        if (cause != null && (stopping || notRun)) {
+            log.warn("Healing of {} run {} was not run ({}); leaving {}@{} uncommitted for redelivery",
+                    event.repoName(), event.workflowRunId(), cause.getMessage(), dispatched.partition(), dispatched.offset());
+        } else {
+            // Stage failures are logged by the pipeline; like sequential mode, a failed heal is not retried
+            offsetTracker.completed(dispatched);
+        }
+        inFlight.decrementAndGet();
+        maybeResume();
+    }
+
+    private boolean saturated() {
+        return inFlight.get() >= maxInFlight
+                || (stagedPipeline != null && stagedPipeline.occupancy() >= pauseOccupancy);
+    }
+
+    private void maybeResume() {
+        boolean drained = inFlight.get() <= maxInFlight / 2
+                && (stagedPipeline == null || stagedPipeline.occupancy() <= resumeOccupancy);
+        if (drained && !draining && paused.compareAndSet(true, false)) {
+            log.info("Healing backlog drained — resuming pipeline event consumption");
+            container().resume();
+        }
+    }
+
+    /** Never throws: a failed event must not break the chain for later events of the same repo. */
+    private void heal(PipelineEventMessage event) {
+        try {
+            log.info("FAILED pipeline detected — initiating healing for {}", event.repoName());
+            healingService.initiateHealing(event);
+        } catch (Exception e) {
+            log.error("Healing failed for {} run {}", event.repoName(), event.workflowRunId(), e);
+        }
+    }
+
+    private Timer dispatchWaitTimer(String plan) {
+        return Timer.builder("infraflow.consumer.dispatch.wait")
+                .tag("plan", plan)
+                .description("Time a pipeline event waited for its tenant's turn to start")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private MessageListenerContainer container() {
+        return listenerRegistry.getListenerContainer(LISTENER_ID);
+    }
+}
@@ -0,0 +1,132 @@
+package com.infraflow.healing.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks out-of-order completion of records handed to worker threads and
+ * works out, per partition, the highest offset that is safe to commit: the
+ * lowest offset still in flight, or one past the last dispatched offset when
+ * nothing is. A slow record therefore holds back the commit of everything
+ * after it on its partition, but never lets it be skipped.
+ *
+ * <p>{@link #commit} must be called on the consumer thread. Completion is
+ * reported from any thread. On revocation the completed prefix is committed
+ * synchronously and the partition forgotten; work still running for it is
+ * redelivered to the new owner (at-least-once).</p>
+ *
+ * <p>Every assignment of a partition gets a new generation, carried by the
+ * {@link Dispatch} handed out for each record. A completion from an earlier
+ * assignment is ignored, so a worker finishing late cannot clear the
+ * redelivered copy of its record from the current assignment.</p>
+ *
+ * <p>An offset counts as committed only once the broker has acknowledged it;
+ * a failed asynchronous commit is retried on the next {@link #commit}.</p>
+ */
+@Slf4j
+public class PartitionOffsetTracker implements ConsumerAwareRebalanceListener {
+
+    /** A record handed to a worker, tied to the partition assignment it was polled under. */
+    public record Dispatch(TopicPartition partition, long offset, long generation) {
+    }
+
+    private static final class PartitionState {
+        final long generation;
+        final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+        volatile long highestDispatched = -1;
+        long lastCommitted = -1;
+        long pendingCommit = -1;
+
+        PartitionState(long generation) {
+            this.generation = generation;
+        }
+
+        long committable() {
+            // Workers remove entries concurrently; ceiling() is null rather than throwing once empty
+            Long lowest = inFlight.ceiling(Long.MIN_VALUE);
+            return lowest != null ? lowest : highestDispatched + 1;
+        }
+    }
+
+    private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+
+    /** Registers a record before it is handed to a worker. Consumer thread only. */
+    public Dispatch dispatched(TopicPartition partition, long offset) {
+        PartitionState state = partitions.computeIfAbsent(partition,
+                p -> new PartitionState(generations.incrementAndGet()));
+        state.inFlight.add(offset);
+        state.highestDispatched = Math.max(state.highestDispatched, offset);
+        return new Dispatch(partition, offset, state.generation);
+    }
+
+    /** Marks the record done. Ignored if its partition has been revoked since it was dispatched. */
+    public void completed(Dispatch dispatch) {
+        PartitionState state = partitions.get(dispatch.partition());
+        if (state != null && state.generation == dispatch.generation()) {
+            state.inFlight.remove(dispatch.offset());
+        }
+    }
+
+    /** Commits every assigned partition whose contiguous completed range has grown. */
+    public void commit(Consumer<?, ?> consumer) {
+        Map<TopicPartition, PartitionState> states = new HashMap<>();
+        Map<TopicPartition, OffsetAndMetadata> offsets = advanced(consumer.assignment(), states);
+        if (offsets.isEmpty()) return;
+        offsets.forEach((partition, offset) -> states.get(partition).pendingCommit = offset.offset());
+        // Callbacks run on the consumer thread, during a later poll or commit
+        consumer.commitAsync(offsets, (committed, ex) -> offsets.forEach((partition, offset) -> {
+            PartitionState state = states.get(partition);
+            if (state.pendingCommit == offset.offset()) state.pendingCommit = -1;
+            if (ex == null) {
+                state.lastCommitted = Math.max(state.lastCommitted, offset.offset());
+            } else {
+                log.warn("Offset commit failed for {}, will retry: {}", partition, ex.getMessage());
+            }
+        }));
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = advanced(revoked, new HashMap<>());
+        if (!offsets.isEmpty()) {
+            try {
+                consumer.commitSync(offsets);
+            } catch (RuntimeException e) {
+                log.warn("Offset commit on revocation failed for {}: {}", offsets.keySet(), e.getMessage());
+            }
+        }
+        revoked.forEach(partitions::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        lost.forEach(partitions::remove);
+    }
+
+    /** Offsets past the last acknowledged commit and not already being committed. */
+    private Map<TopicPartition, OffsetAndMetadata> advanced(Collection<TopicPartition> candidates,
+                                                            Map<TopicPartition, PartitionState> states) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : candidates) {
+            PartitionState state = partitions.get(partition);
+            if (state == null) continue;
+            long offset = state.committable();
+            if (offset > state.lastCommitted && offset != state.pendingCommit) {
+                offsets.put(partition, new OffsetAndMetadata(offset));
+                states.put(partition, state);
+            }
+        }
+        return offsets;
+    }
+}
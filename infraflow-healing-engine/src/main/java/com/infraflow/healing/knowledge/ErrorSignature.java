@@ -0,0 +1,124 @@
+package com.infraflow.healing.knowledge;
+
+import com.infraflow.common.logs.StepExcerptFormat;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * The failure-type–independent half of a Knowledge Base error signature:
+ * the first 500 characters of the log, normalized. The signature itself is
+ * {@code md5(failureType + ":" + normalized)}, so it can be computed for
+ * every failure type before the classifier has decided which one applies.
+ *
+ * <p>For a failed-step excerpt ({@link StepExcerptFormat}) the sample starts
+ * at the failed step's own output, skipping the preceding step's context and
+ * the step header, so it hashes the error rather than whatever ran before
+ * it. Patterns stored from full logs, before the normalizer cut logs to the
+ * failed step, hashed the head of the whole log and do not match excerpts;
+ * they are re-learned as those failures are healed again.</p>
+ */
+public final class ErrorSignature {
+
+    private static final int SAMPLE_CHARS = 500;
+
+    private static final Pattern ISO_TIMESTAMP =
+            Pattern.compile("\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?(Z|[+-]\\d{2}:\\d{2})?");
+    private static final Pattern LOG_TIMESTAMP =
+            Pattern.compile("\\[?\\d{2,4}[/-]\\d{2}[/-]\\d{2,4}[T ]\\d{2}:\\d{2}:\\d{2}]?");
+    private static final Pattern UNIX_PATH = Pattern.compile("/[\\w./\\-]+\\.\\w+");
+    private static final Pattern WINDOWS_PATH = Pattern.compile("[A-Za-z]:[\\\\\\w./\\-]+\\.\\w+");
+    private static final Pattern STACK_FRAME_LINE = Pattern.compile("\\(([A-Za-z]+\\.java):\\d+\\)");
+    private static final Pattern LINE_NUMBER = Pattern.compile(":\\d{1,6}\\b");
+    private static final Pattern HEX_ADDRESS = Pattern.compile("0x[0-9a-fA-F]+");
+    private static final Pattern WHITESPACE_RUN = Pattern.compile("\\s{2,}");
+
+    private final String sample;
+    private final String normalized;
+
+    private ErrorSignature(String sample) {
+        this.sample = sample;
+        this.normalized = normalize(sample);
+    }
+
+    public static ErrorSignature of(String rawLogs) {
+        String logs = rawLogs != null ? StepExcerptFormat.failedStepBody(rawLogs) : "";
+        return new ErrorSignature(logs.substring(0, Math.min(SAMPLE_CHARS, logs.length())));
+    }
+
+    /** The raw (un-normalized) sample the signature is built from. */
+    public String sample() {
+        return sample;
+    }
+
+    public String normalized() {
+        return normalized;
+    }
+
+    /** Signature stored on {@code FailurePattern.errorSignature} for this failure type. */
+    public String forType(String failureType) {
+        return md5(failureType + ":" + normalized);
+    }
+
+    /**
+     * Normalizes a raw error string to produce a stable signature input.
+     *
+     * Removes:
+     * - ISO-8601 / common log timestamps
+     * - Absolute file paths
+     * - Line/column number references (e.g. "at line 42", ":42:", "(File.java:42)")
+     * - Hex memory addresses
+     *
+     * Retains error class names and core message text so that the same logical
+     * error produces the same signature even when line numbers shift.
+     */
+    static String normalize(String raw) {
+        if (raw == null || raw.isEmpty()) return "";
+
+        String normalized = raw;
+
+        // Remove ISO-8601 timestamps (e.g. 2024-01-15T10:30:00.000Z)
+        normalized = ISO_TIMESTAMP.matcher(normalized).replaceAll("");
+
+        // Remove common log-line timestamps (e.g. [2024-01-15 10:30:00])
+        normalized = LOG_TIMESTAMP.matcher(normalized).replaceAll("");
+
+        // Remove absolute file paths (Unix and Windows style)
+        normalized = UNIX_PATH.matcher(normalized).replaceAll("<file>");
+        normalized = WINDOWS_PATH.matcher(normalized).replaceAll("<file>");
+
+        // Remove Java stack frame line numbers: (SomeClass.java:123)
+        normalized = STACK_FRAME_LINE.matcher(normalized).replaceAll("($1)");
+
+        // Remove standalone ":lineNumber" references
+        normalized = LINE_NUMBER.matcher(normalized).replaceAll("");
+
+        // Remove hex memory addresses (e.g. 0x7f3b4c5d)
+        normalized = HEX_ADDRESS.matcher(normalized).replaceAll("<addr>");
+
+        // Collapse multiple whitespace
+        normalized = WHITESPACE_RUN.matcher(normalized).replaceAll(" ").trim();
+
+        return normalized;
+    }
+
+    /**
+     * Computes the MD5 hex digest of the given input string (UTF-8).
+     */
+    static String md5(String input) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] digest = md.digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(32);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // MD5 is guaranteed to be available on all JVM implementations per the spec
+            throw new IllegalStateException("MD5 algorithm not available", e);
+        }
+    }
+}
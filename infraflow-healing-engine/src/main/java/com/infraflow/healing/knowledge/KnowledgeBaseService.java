@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infraflow.common.dto.FileChange;
 import com.infraflow.common.dto.HealingPlanResponse;
+import com.infraflow.common.enums.FailureType;
 import com.infraflow.common.model.HealingSession;
 import com.infraflow.healing.knowledge.node.FailurePatternNode;
 import com.infraflow.healing.knowledge.node.FixNode;
@@ -16,11 +17,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,11 +50,39 @@ public class KnowledgeBaseService {
      * 3. Return empty if no suitable cached fix exists.
      */
     public Optional<HealingPlanResponse> findCachedFix(String failureType, String repoName, String rawLogs) {
-        String truncated = rawLogs.substring(0, Math.min(500, rawLogs.length()));
-        String signature = md5(failureType + ":" + normalizeError(truncated));
+        return findCachedFix(failureType, repoName, ErrorSignature.of(rawLogs), null);
+    }
+
+    /**
+     * Loads the patterns matching {@code signature} under every failure type in
+     * one query, keyed by signature. Lets the exact-signature lookup start
+     * before the failure has been classified; pass the result to
+     * {@link #findCachedFix(String, String, ErrorSignature, Map)}.
+     */
+    public Map<String, FailurePatternNode> prefetchPatterns(ErrorSignature signature) {
+        List<String> signatures = Arrays.stream(FailureType.values())
+                .map(type -> signature.forType(type.name()))
+                .toList();
+        Map<String, FailurePatternNode> patterns = new HashMap<>();
+        for (FailurePatternNode pattern : patternRepository.findByErrorSignatureIn(signatures)) {
+            patterns.put(pattern.getErrorSignature(), pattern);
+        }
+        return patterns;
+    }
+
+    /**
+     * As {@link #findCachedFix(String, String, String)}, with the exact-signature
+     * match taken from {@code prefetched} when it is not {@code null}.
+     */
+    public Optional<HealingPlanResponse> findCachedFix(String failureType, String repoName,
+                                                       ErrorSignature errorSignature,
+                                                       Map<String, FailurePatternNode> prefetched) {
+        String signature = errorSignature.forType(failureType);
 
         // --- Exact-signature lookup ---
-        Optional<FailurePatternNode> exactMatch = patternRepository.findByErrorSignature(signature);
+        Optional<FailurePatternNode> exactMatch = prefetched != null
+                ? Optional.ofNullable(prefetched.get(signature))
+                : patternRepository.findByErrorSignature(signature);
         if (exactMatch.isPresent()) {
             FailurePatternNode pattern = exactMatch.get();
             Optional<FixRelationship> bestRel = pattern.getFixes().stream()
@@ -107,9 +134,8 @@ public class KnowledgeBaseService {
     @Transactional("neo4jTransactionManager")
     public void storeFix(HealingSession session, HealingPlanResponse plan, String rawLogs) {
         String failureType = session.getFailureType().name();
-        String truncated = rawLogs.substring(0, Math.min(500, rawLogs.length()));
-        String normalized = normalizeError(truncated);
-        String signature = md5(failureType + ":" + normalized);
+        ErrorSignature errorSignature = ErrorSignature.of(rawLogs);
+        String signature = errorSignature.forType(failureType);
         String now = Instant.now().toString();
 
         // Create or update the FailurePatternNode
@@ -119,7 +145,7 @@ public class KnowledgeBaseService {
                         .language("Java")
                         .buildTool("Maven")
                         .errorSignature(signature)
-                        .sampleError(truncated)
+                        .sampleError(errorSignature.sample())
                         .hitCount(0L)
                         .createdAt(now)
                         .fixes(new ArrayList<>())
@@ -298,68 +324,6 @@ public class KnowledgeBaseService {
 
     // ── Private helpers ──────────────────────────────────────────────────────
 
-    /**
-     * Normalizes a raw error string to produce a stable signature input.
-     *
-     * Removes:
-     * - ISO-8601 / common log timestamps
-     * - Absolute file paths
-     * - Line/column number references (e.g. "at line 42", ":42:", "(File.java:42)")
-     * - Hex memory addresses
-     *
-     * Retains error class names and core message text so that the same logical
-     * error produces the same signature even when line numbers shift.
-     */
-    String normalizeError(String raw) {
-        if (raw == null || raw.isEmpty()) return "";
-
-        String normalized = raw;
-
-        // Remove ISO-8601 timestamps (e.g. 2024-01-15T10:30:00.000Z)
-        normalized = normalized.replaceAll(
-                "\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?(Z|[+-]\\d{2}:\\d{2})?", "");
-
-        // Remove common log-line timestamps (e.g. [2024-01-15 10:30:00])
-        normalized = normalized.replaceAll(
-                "\\[?\\d{2,4}[/-]\\d{2}[/-]\\d{2,4}[T ]\\d{2}:\\d{2}:\\d{2}]?", "");
-
-        // Remove absolute file paths (Unix and Windows style)
-        normalized = normalized.replaceAll("/[\\w./\\-]+\\.\\w+", "<file>");
-        normalized = normalized.replaceAll("[A-Za-z]:[\\\\\\w./\\-]+\\.\\w+", "<file>");
-
-        // Remove Java stack frame line numbers: (SomeClass.java:123)
-        normalized = normalized.replaceAll("\\(([A-Za-z]+\\.java):\\d+\\)", "($1)");
-
-        // Remove standalone ":lineNumber" references
-        normalized = normalized.replaceAll(":\\d{1,6}\\b", "");
-
-        // Remove hex memory addresses (e.g. 0x7f3b4c5d)
-        normalized = normalized.replaceAll("0x[0-9a-fA-F]+", "<addr>");
-
-        // Collapse multiple whitespace
-        normalized = normalized.replaceAll("\\s{2,}", " ").trim();
-
-        return normalized;
-    }
-
-    /**
-     * Computes the MD5 hex digest of the given input string (UTF-8).
-     */
-    String md5(String input) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(32);
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            // MD5 is guaranteed to be available on all JVM implementations per the spec
-            throw new IllegalStateException("MD5 algorithm not available", e);
-        }
-    }
-
     /**
      * Deserializes the fileChangesJson on a FixNode back into a HealingPlanResponse.
      * Returns empty if the JSON is missing or malformed.
@@ -5,6 +5,7 @@ import org.springframework.data.neo4j.repository.Neo4jRepository;
 import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +13,8 @@ public interface FailurePatternRepository extends Neo4jRepository<FailurePattern
 
     Optional<FailurePatternNode> findByErrorSignature(String errorSignature);
 
+    List<FailurePatternNode> findByErrorSignatureIn(Collection<String> errorSignatures);
+
     List<FailurePatternNode> findByFailureTypeOrderByHitCountDesc(String failureType);
 
     @Query("MATCH (p:FailurePattern {failureType: $type})-[r:HAS_FIX]->(f:Fix) " +
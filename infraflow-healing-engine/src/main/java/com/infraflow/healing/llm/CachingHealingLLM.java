@@ -0,0 +1,135 @@
+package com.infraflow.healing.llm;
+
+import com.infraflow.common.dto.HealingPlanResponse;
+import com.infraflow.common.dto.HealingRequest;
+import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.port.PlanProgressListener;
+import com.infraflow.healing.prompt.HealingPromptRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Caches fix plans by SHA-256 of model, system prompt and user prompt, so an
+ * exact re-prompt (webhook re-delivery, archive replay, identical logs in a
+ * fork) is answered from the {@link PromptCacheStore} instead of Claude.
+ *
+ * <p>The memory tier is checked on the caller's thread. Disk reads and all
+ * writes run on {@code ioExecutor}, never on the HTTP client's event loop
+ * that completes the delegate's future; a plan is returned without waiting
+ * for it to be stored.</p>
+ *
+ * <p>Only plans the delegate actually returned are stored: failures propagate
+ * uncached, which is why this layer sits inside {@link FallbackHealingLLM}.
+ * Re-code requests ask for a different answer and bypass the cache.</p>
+ *
+ * <p>Metrics: {@code infraflow.llm.cache{result=memory|disk|miss}},
+ * {@code infraflow.llm.cache.entries} and {@code infraflow.llm.cache.size}.</p>
+ */
+@Slf4j
+public class CachingHealingLLM implements HealingLLMPort {
+
+    private final HealingLLMPort delegate;
+    private final HealingPromptRouter promptRouter;
+    private final String model;
+    private final PromptCacheStore store;
+    private final Executor ioExecutor;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    public CachingHealingLLM(HealingLLMPort delegate, HealingPromptRouter promptRouter, String model,
+                             PromptCacheStore store, Executor ioExecutor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.promptRouter = promptRouter;
+        this.model = model;
+        this.store = store;
+        this.ioExecutor = ioExecutor;
+        this.memoryHits = counter(meterRegistry, "memory");
+        this.diskHits = counter(meterRegistry, "disk");
+        this.misses = counter(meterRegistry, "miss");
+        Gauge.builder("infraflow.llm.cache.entries", store, PromptCacheStore::memoryEntries)
+                .description("Fix plans held in the in-memory cache tier")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.llm.cache.size", store, PromptCacheStore::diskBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public HealingPlanResponse generateFix(HealingRequest request) {
+        return generateFixAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request,
+                                                                   PlanProgressListener listener) {
+        String key = key(request);
+        Optional<PromptCacheStore.Hit> hit = store.getFromMemory(key);
+        if (hit.isPresent()) return cached(request, hit.get());
+
+        return CompletableFuture.supplyAsync(() -> store.getFromDisk(key), ioExecutor).thenCompose(disk -> {
+            if (disk.isPresent()) return cached(request, disk.get());
+            misses.increment();
+            return delegate.generateFixAsync(request, listener).thenApply(plan -> {
+                store(key, plan);
+                return plan;
+            });
+        });
+    }
+
+    private CompletableFuture<HealingPlanResponse> cached(HealingRequest request, PromptCacheStore.Hit hit) {
+        (hit.tier() == PromptCacheStore.Tier.MEMORY ? memoryHits : diskHits).increment();
+        log.info("LLM cache hit ({}) for {} failure", hit.tier(), request.failureType());
+        return CompletableFuture.completedFuture(hit.plan());
+    }
+
+    private void store(String key, HealingPlanResponse plan) {
+        try {
+            ioExecutor.execute(() -> store.put(key, plan));
+        } catch (RejectedExecutionException e) {
+            log.debug("LLM cache shutting down; plan not stored");
+        }
+    }
+
+    @Override
+    public HealingPlanResponse regenerateFix(HealingRequest request, String previousFixJson, String feedback) {
+        return delegate.regenerateFix(request, previousFixJson, feedback);
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> regenerateFixAsync(HealingRequest request,
+                                                                     String previousFixJson, String feedback) {
+        return delegate.regenerateFixAsync(request, previousFixJson, feedback);
+    }
+
+    private String key(HealingRequest request) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{model, promptRouter.getSystemPrompt(), promptRouter.route(request)}) {
+                sha256.update(part.getBytes(StandardCharsets.UTF_8));
+                sha256.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("infraflow.llm.cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,67 @@
+package com.infraflow.healing.llm;
+
+import com.infraflow.common.dto.HealingPlanResponse;
+import com.infraflow.common.dto.HealingRequest;
+import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.port.PlanProgressListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Outermost layer of the LLM chain: when the call fails, answers with the
+ * local log analysis instead of giving up. Kept outside the cache and
+ * single-flight layers so a fallback plan is never cached or shared.
+ */
+@Slf4j
+public class FallbackHealingLLM implements HealingLLMPort {
+
+    private final HealingLLMPort delegate;
+    private final Function<HealingRequest, HealingPlanResponse> fallback;
+
+    public FallbackHealingLLM(HealingLLMPort delegate, Function<HealingRequest, HealingPlanResponse> fallback) {
+        this.delegate = delegate;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public HealingPlanResponse generateFix(HealingRequest request) {
+        return generateFixAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request,
+                                                                   PlanProgressListener listener) {
+        CompletableFuture<HealingPlanResponse> call;
+        try {
+            call = delegate.generateFixAsync(request, listener);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        return call.exceptionally(e -> {
+            log.error("Claude API call failed — falling back to smart analysis", e);
+            return fallback.apply(request);
+        });
+    }
+
+    @Override
+    public HealingPlanResponse regenerateFix(HealingRequest request, String previousFixJson, String feedback) {
+        return regenerateFixAsync(request, previousFixJson, feedback).join();
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> regenerateFixAsync(HealingRequest request,
+                                                                     String previousFixJson, String feedback) {
+        CompletableFuture<HealingPlanResponse> call;
+        try {
+            call = delegate.regenerateFixAsync(request, previousFixJson, feedback);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        return call.exceptionally(e -> {
+            log.error("Claude re-code API call failed — falling back to smart analysis", e);
+            return fallback.apply(request);
+        });
+    }
+}
@@ -0,0 +1,313 @@
+package com.infraflow.healing.llm;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for LLM calls. A call starts only when
+ * <ul>
+ *   <li>fewer than the current concurrency limit are in flight — the limit
+ *       adapts by AIMD: +1 per limit's worth of calls that finish within the
+ *       latency target, x0.7 on a slow call, timeout, 5xx or rate limit;</li>
+ *   <li>the requests-per-minute and tokens-per-minute budgets reported in
+ *       Anthropic's {@code anthropic-ratelimit-*} response headers cover it
+ *       (tokens are reserved from the estimate until the next response);</li>
+ *   <li>no {@code retry-after} pause from a 429/529 is in effect.</li>
+ * </ul>
+ * Everything else waits, without holding a thread, in priority order and
+ * FIFO within a priority; up to {@code maxQueued} calls may wait, beyond that
+ * {@link RejectedExecutionException} is raised. Blocked budgets are re-checked
+ * when their reset time passes.
+ *
+ * <p>Response headers reach {@link #onResponse} through a filter on the
+ * Anthropic {@code WebClient}.</p>
+ */
+public class LlmAdmissionController {
+
+    public enum Priority {
+        /** A developer is waiting on the result, e.g. a re-code request. */
+        INTERACTIVE,
+        /** Fix generation for a newly failed pipeline. */
+        HEALING
+    }
+
+    private static final long UNKNOWN = -1;
+    private static final double BACKOFF_RATIO = 0.7;
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int minInFlight;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final long latencyTargetNanos;
+    private final Duration defaultRetryAfter;
+    private final Clock clock;
+    private final Scheduler scheduler;
+
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.seq));
+    private long nextSeq;
+    private int inFlight;
+    private double limit;
+    private long lastDecreaseNanos;
+
+    private long requestsRemaining = UNKNOWN;
+    private Instant requestsReset;
+    private long tokensRemaining = UNKNOWN;
+    private Instant tokensReset;
+    private Instant pausedUntil = Instant.MIN;
+    private Instant wakeupAt;
+    private long throttledResponses;
+
+    public LlmAdmissionController(int minInFlight, int maxInFlight, int maxQueued, Duration latencyTarget,
+                                  Duration defaultRetryAfter, Clock clock, Scheduler scheduler) {
+        this.minInFlight = Math.max(1, minInFlight);
+        this.maxInFlight = Math.max(this.minInFlight, maxInFlight);
+        this.maxQueued = maxQueued;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.defaultRetryAfter = defaultRetryAfter;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.limit = this.maxInFlight;
+        this.lastDecreaseNanos = System.nanoTime() - DECREASE_COOLDOWN_NANOS;
+    }
+
+    /**
+     * Subscribes to {@code call} once admitted. {@code estimatedTokens} is
+     * checked against, and reserved from, the tokens-per-minute budget.
+     */
+    public <T> Mono<T> run(Priority priority, long estimatedTokens, Supplier<Mono<T>> call) {
+        return Mono.create(sink -> {
+            AtomicReference<Disposable> subscription = new AtomicReference<>();
+            Waiter waiter = new Waiter(priority, estimatedTokens);
+            waiter.start = () -> {
+                long start = System.nanoTime();
+                subscription.set(call.get()
+                        .doOnSuccess(value -> onSuccess(System.nanoTime() - start))
+                        .doOnError(this::onError)
+                        .doFinally(signal -> release())
+                        .subscribe(sink::success, sink::error, sink::success));
+            };
+            sink.onCancel(() -> {
+                if (!removeWaiter(waiter)) {
+                    Disposable running = subscription.get();
+                    if (running != null) running.dispose();
+                }
+            });
+            try {
+                enqueue(waiter);
+            } catch (RejectedExecutionException e) {
+                sink.error(e);
+                return;
+            }
+            drain();
+        });
+    }
+
+    /** Records the rate-limit budgets and any throttling from an Anthropic response. */
+    public void onResponse(HttpStatusCode status, HttpHeaders headers) {
+        synchronized (this) {
+            Instant now = clock.instant();
+            long requests = longHeader(headers, "anthropic-ratelimit-requests-remaining");
+            Instant requestsResetAt = instantHeader(headers, "anthropic-ratelimit-requests-reset");
+            // Without a reset time a budget could block forever, so it is only trusted with one
+            if (requests >= 0 && requestsResetAt != null) {
+                requestsRemaining = requests;
+                requestsReset = requestsResetAt;
+            }
+            long tokens = longHeader(headers, "anthropic-ratelimit-tokens-remaining");
+            Instant tokensResetAt = instantHeader(headers, "anthropic-ratelimit-tokens-reset");
+            if (tokens >= 0 && tokensResetAt != null) {
+                tokensRemaining = tokens;
+                tokensReset = tokensResetAt;
+            }
+            if (isThrottleStatus(status)) {
+                throttledResponses++;
+                long retryAfter = longHeader(headers, HttpHeaders.RETRY_AFTER);
+                Instant until = now.plus(retryAfter >= 0 ? Duration.ofSeconds(retryAfter) : defaultRetryAfter);
+                if (until.isAfter(pausedUntil)) pausedUntil = until;
+                decrease();
+            }
+        }
+        drain();
+    }
+
+    /** Whether {@code error} is a 429 / 529 that is worth queueing again rather than failing over. */
+    public static boolean isThrottled(Throwable error) {
+        return error instanceof WebClientResponseException e && isThrottleStatus(e.getStatusCode());
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return waiters.size();
+    }
+
+    public synchronized double limit() {
+        return limit;
+    }
+
+    public synchronized long requestsRemaining() {
+        return requestsRemaining;
+    }
+
+    public synchronized long tokensRemaining() {
+        return tokensRemaining;
+    }
+
+    public synchronized long throttledResponses() {
+        return throttledResponses;
+    }
+
+    private synchronized void enqueue(Waiter waiter) {
+        if (waiters.size() >= maxQueued) {
+            throw new RejectedExecutionException(
+                    "LLM request queue full (" + inFlight + " in flight, " + maxQueued + " waiting)");
+        }
+        waiter.seq = nextSeq++;
+        waiters.add(waiter);
+    }
+
+    private synchronized boolean removeWaiter(Waiter waiter) {
+        return waiters.remove(waiter);
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    private void drain() {
+        List<Runnable> admitted = new ArrayList<>();
+        synchronized (this) {
+            Instant now = clock.instant();
+            if (requestsReset != null && !now.isBefore(requestsReset)) {
+                requestsRemaining = UNKNOWN;
+                requestsReset = null;
+            }
+            if (tokensReset != null && !now.isBefore(tokensReset)) {
+                tokensRemaining = UNKNOWN;
+                tokensReset = null;
+            }
+
+            Waiter head;
+            while ((head = waiters.peek()) != null && inFlight < (int) limit) {
+                Instant blockedUntil = blockedUntil(head, now);
+                if (blockedUntil != null) {
+                    scheduleWakeup(blockedUntil, now);
+                    break;
+                }
+                waiters.poll();
+                inFlight++;
+                if (requestsRemaining > 0) requestsRemaining--;
+                if (tokensRemaining >= 0) tokensRemaining = Math.max(0, tokensRemaining - head.tokens);
+                admitted.add(head.start);
+            }
+        }
+        admitted.forEach(Runnable::run);
+    }
+
+    private Instant blockedUntil(Waiter head, Instant now) {
+        if (pausedUntil.isAfter(now)) return pausedUntil;
+        if (requestsRemaining == 0) return requestsReset;
+        if (tokensRemaining >= 0 && tokensRemaining < head.tokens) return tokensReset;
+        return null;
+    }
+
+    private void scheduleWakeup(Instant at, Instant now) {
+        if (wakeupAt != null && wakeupAt.isAfter(now) && !wakeupAt.isAfter(at)) return;
+        wakeupAt = at;
+        long delayMs = Duration.between(now, at).toMillis() + 1;
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                // Clear first, so a wakeup that fires early can schedule another
+                if (at.equals(wakeupAt)) wakeupAt = null;
+            }
+            drain();
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void onSuccess(long latencyNanos) {
+        if (latencyNanos > latencyTargetNanos) {
+            decrease();
+        } else {
+            limit = Math.min(maxInFlight, limit + 1 / limit);
+        }
+    }
+
+    private synchronized void onError(Throwable error) {
+        // Rate limits are handled in onResponse; client errors say nothing about capacity
+        boolean overloaded = error instanceof TimeoutException
+                || error instanceof WebClientRequestException
+                || error instanceof WebClientResponseException e
+                        && e.getStatusCode().is5xxServerError() && !isThrottleStatus(e.getStatusCode());
+        if (overloaded) decrease();
+    }
+
+    private void decrease() {
+        long now = System.nanoTime();
+        // One burst of failures should cut the limit once, not once per call
+        if (now - lastDecreaseNanos < DECREASE_COOLDOWN_NANOS) return;
+        lastDecreaseNanos = now;
+        limit = Math.max(minInFlight, limit * BACKOFF_RATIO);
+    }
+
+    private static boolean isThrottleStatus(HttpStatusCode status) {
+        // 529: Anthropic's "overloaded"
+        return status.value() == 429 || status.value() == 529;
+    }
+
+    private static long longHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null) return UNKNOWN;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    private static Instant instantHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null) return null;
+        try {
+            return OffsetDateTime.parse(value.trim()).toInstant();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class Waiter {
+        final Priority priority;
+        final long tokens;
+        long seq;
+        Runnable start;
+
+        Waiter(Priority priority, long tokens) {
+            this.priority = priority;
+            this.tokens = tokens;
+        }
+    }
+}
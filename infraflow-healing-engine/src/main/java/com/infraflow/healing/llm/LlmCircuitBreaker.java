@@ -0,0 +1,118 @@
+package com.infraflow.healing.llm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Count-based circuit breaker for LLM calls. CLOSED while fewer than
+ * {@code failureRateThreshold} of the last {@code windowSize} calls failed
+ * (judged once {@code minCalls} have been seen); then OPEN, refusing calls
+ * for {@code openDuration}; then HALF_OPEN, letting {@code halfOpenCalls}
+ * trial calls through — all must succeed to close again, any failure
+ * re-opens. A call whose outcome says nothing about the LLM's health ends
+ * with {@link #onIgnored} and is not counted either way.
+ */
+@Slf4j
+public class LlmCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final boolean[] window;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private Instant openedAt;
+    private int trialsStarted;
+    private int trialSuccesses;
+
+    public LlmCircuitBreaker(int windowSize, int minCalls, double failureRateThreshold,
+                             Duration openDuration, int halfOpenCalls, Clock clock) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minCalls = Math.max(1, Math.min(minCalls, window.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a call may start now; a {@code true} must be followed by
+     * {@link #onSuccess}, {@link #onFailure} or {@link #onIgnored}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) return false;
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialSuccesses = 0;
+            log.info("LLM circuit breaker half-open — allowing {} trial calls", halfOpenCalls);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) return false;
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialSuccesses >= halfOpenCalls) {
+                state = State.CLOSED;
+                next = calls = failures = 0;
+                log.info("LLM circuit breaker closed");
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= minCalls && (double) failures / calls >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    /** Ends a call without counting it, e.g. one refused as a bad request; a half-open trial slot is freed. */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            if (window[next]) failures--;
+        } else {
+            calls++;
+        }
+        window[next] = failed;
+        if (failed) failures++;
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+        log.warn("LLM circuit breaker open for {} — {} of the last {} calls failed",
+                openDuration, failures, calls);
+    }
+}
@@ -0,0 +1,225 @@
+package com.infraflow.healing.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.common.dto.HealingPlanResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier store for {@link CachingHealingLLM}: an LRU map of up to
+ * {@code memoryEntries} plans in front of JSON files on local disk.
+ *
+ * <p>Layout: {@code <dir>/<first two hex chars>/<key>.json}, each holding
+ * {@code {"storedAt": <epoch ms>, "plan": {...}}}. Writes go to a temp file
+ * that is atomically moved into place. Replacing, deleting and evicting
+ * files is serialized on the store, so the running {@link #diskBytes()}
+ * total measures each file exactly once. Entries older than {@code ttl} are
+ * treated as absent and deleted when read. When the files pass
+ * {@code maxDiskBytes}, the least recently written are deleted until the
+ * store is back under 90% of the cap.</p>
+ */
+@Slf4j
+public class PromptCacheStore {
+
+    /** Where a lookup was served from. */
+    public enum Tier { MEMORY, DISK }
+
+    public record Hit(HealingPlanResponse plan, Tier tier) {}
+
+    private record Entry(HealingPlanResponse plan, long storedAt) {}
+
+    private record DiskEntry(long storedAt, HealingPlanResponse plan) {}
+
+    private final Path dir;
+    private final long maxDiskBytes;
+    private final long ttlMillis;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    private final Map<String, Entry> memory;
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    public PromptCacheStore(Path dir, int memoryEntries, long maxDiskBytes, Duration ttl,
+                            ObjectMapper objectMapper, Clock clock) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.maxDiskBytes = maxDiskBytes;
+        this.ttlMillis = ttl.toMillis();
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.memory = new LinkedHashMap<>(Math.min(memoryEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        try (Stream<Path> files = cacheFiles()) {
+            diskBytes.set(files.mapToLong(PromptCacheStore::sizeOf).sum());
+        }
+    }
+
+    public Optional<Hit> get(String key) {
+        Optional<Hit> hit = getFromMemory(key);
+        return hit.isPresent() ? hit : getFromDisk(key);
+    }
+
+    /** Memory tier only; never touches the disk. */
+    public Optional<Hit> getFromMemory(String key) {
+        long now = clock.millis();
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (now - entry.storedAt() < ttlMillis) return Optional.of(new Hit(entry.plan(), Tier.MEMORY));
+                memory.remove(key);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Disk tier only, promoting a hit to memory. Blocking file I/O. */
+    public Optional<Hit> getFromDisk(String key) {
+        long now = clock.millis();
+        Path path = pathFor(key);
+        try {
+            DiskEntry entry = objectMapper.readValue(path.toFile(), DiskEntry.class);
+            if (now - entry.storedAt() >= ttlMillis) {
+                delete(path);
+                return Optional.empty();
+            }
+            synchronized (memory) {
+                memory.put(key, new Entry(entry.plan(), entry.storedAt()));
+            }
+            return Optional.of(new Hit(entry.plan(), Tier.DISK));
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Dropping unreadable LLM cache entry {}: {}", path.getFileName(), e.getMessage());
+            delete(path);
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, HealingPlanResponse plan) {
+        long now = clock.millis();
+        synchronized (memory) {
+            memory.put(key, new Entry(plan, now));
+        }
+
+        Path target = pathFor(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), "entry-", ".tmp");
+            objectMapper.writeValue(temp.toFile(), new DiskEntry(now, plan));
+            replace(temp, target);
+        } catch (IOException e) {
+            // The memory tier still has it; losing the disk copy only costs a future LLM call
+            log.warn("Failed to persist LLM cache entry: {}", e.getMessage());
+        } finally {
+            if (temp != null) deleteQuietly(temp);
+        }
+    }
+
+    public int memoryEntries() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    public long diskBytes() {
+        return diskBytes.get();
+    }
+
+    // ── Internals ───────────────────────────────────────
+
+    /** Moves the written entry into place and accounts for the size change. */
+    private synchronized void replace(Path temp, Path target) throws IOException {
+        long previous = sizeOf(target);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (diskBytes.addAndGet(sizeOf(target) - previous) > maxDiskBytes) {
+            evict();
+        }
+    }
+
+    private synchronized void evict() {
+        if (diskBytes.get() <= maxDiskBytes) return;
+        List<Path> oldestFirst;
+        try (Stream<Path> files = cacheFiles()) {
+            oldestFirst = files.sorted(Comparator.comparingLong(PromptCacheStore::lastModified)).toList();
+        } catch (IOException e) {
+            log.warn("LLM cache eviction failed: {}", e.getMessage());
+            return;
+        }
+        long target = maxDiskBytes / 10 * 9;
+        int evicted = 0;
+        for (Path path : oldestFirst) {
+            if (diskBytes.get() <= target) break;
+            delete(path);
+            evicted++;
+        }
+        log.info("Evicted {} LLM cache entries; {} bytes on disk", evicted, diskBytes.get());
+    }
+
+    private synchronized void delete(Path path) {
+        long size = sizeOf(path);
+        try {
+            if (Files.deleteIfExists(path)) diskBytes.addAndGet(-size);
+        } catch (IOException e) {
+            log.warn("Failed to delete LLM cache entry {}: {}", path.getFileName(), e.getMessage());
+        }
+    }
+
+    /** Removes a leftover temp file; it was never counted in {@link #diskBytes}. */
+    private static void deleteQuietly(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("Failed to delete LLM cache temp file {}: {}", temp.getFileName(), e.getMessage());
+        }
+    }
+
+    private Stream<Path> cacheFiles() throws IOException {
+        return Files.walk(dir, 2)
+                .filter(p -> p.getFileName().toString().endsWith(".json"))
+                .filter(Files::isRegularFile);
+    }
+
+    private Path pathFor(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
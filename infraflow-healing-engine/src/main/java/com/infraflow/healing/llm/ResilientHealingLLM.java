@@ -0,0 +1,273 @@
+package com.infraflow.healing.llm;
+
+import com.infraflow.common.dto.HealingPlanResponse;
+import com.infraflow.common.dto.HealingRequest;
+import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.port.PlanProgressListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the time a fix generation can take:
+ * <ul>
+ *   <li>an {@link LlmCircuitBreaker} refuses calls with
+ *       {@link RejectedExecutionException} while the LLM keeps failing.
+ *       Only timeouts, connection errors and 5xx responses count as
+ *       failures; a 4xx response or an unparseable plan says nothing about
+ *       the LLM's health and is not counted;</li>
+ *   <li>every call has a deadline, after which it fails with
+ *       {@link TimeoutException} and its requests are cancelled;</li>
+ *   <li>with hedging on, a second identical request is sent if the first has
+ *       not answered within the recent p95 latency; the first plan wins and
+ *       the other request is cancelled. Hedges are sent from
+ *       {@code hedgeExecutor}, not from the JDK's shared delay thread.</li>
+ * </ul>
+ * Sits directly on the Claude adapter, below the cache, so cached plans are
+ * still served while the breaker is open. Re-code requests only pass through
+ * the breaker; their duration is bounded by the HTTP response timeout.
+ *
+ * <p>Metrics: {@code infraflow.llm.breaker.state{state}} (1 for the current
+ * state), {@code infraflow.llm.breaker.rejected}, {@code infraflow.llm.deadline.exceeded},
+ * {@code infraflow.llm.hedge.fired}, {@code infraflow.llm.hedge.wins{attempt=primary|hedge}}
+ * and {@code infraflow.llm.hedge.win.rate}.</p>
+ */
+@Slf4j
+public class ResilientHealingLLM implements HealingLLMPort {
+
+    private final HealingLLMPort delegate;
+    private final LlmCircuitBreaker breaker;
+    private final Duration deadline;
+    private final boolean hedgingEnabled;
+    private final int hedgeMinSamples;
+    private final long hedgeMinDelayMs;
+    private final LatencyWindow latencies;
+    private final Executor hedgeExecutor;
+
+    private final Counter rejected;
+    private final Counter deadlineExceeded;
+    private final Counter hedgesFired;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+
+    public ResilientHealingLLM(HealingLLMPort delegate, LlmCircuitBreaker breaker, Duration deadline,
+                               boolean hedgingEnabled, int hedgeWindow, int hedgeMinSamples,
+                               Duration hedgeMinDelay, Executor hedgeExecutor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.deadline = deadline;
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgeMinSamples = hedgeMinSamples;
+        this.hedgeMinDelayMs = hedgeMinDelay.toMillis();
+        this.latencies = new LatencyWindow(hedgeWindow);
+        this.hedgeExecutor = hedgeExecutor;
+
+        for (LlmCircuitBreaker.State state : LlmCircuitBreaker.State.values()) {
+            Gauge.builder("infraflow.llm.breaker.state", breaker, b -> b.state() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        this.rejected = Counter.builder("infraflow.llm.breaker.rejected")
+                .description("LLM calls refused while the circuit breaker was open")
+                .register(meterRegistry);
+        this.deadlineExceeded = Counter.builder("infraflow.llm.deadline.exceeded")
+                .register(meterRegistry);
+        this.hedgesFired = Counter.builder("infraflow.llm.hedge.fired")
+                .description("Second LLM requests sent after the p95 latency")
+                .register(meterRegistry);
+        this.primaryWins = Counter.builder("infraflow.llm.hedge.wins")
+                .tag("attempt", "primary")
+                .register(meterRegistry);
+        this.hedgeWins = Counter.builder("infraflow.llm.hedge.wins")
+                .tag("attempt", "hedge")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.llm.hedge.win.rate", this,
+                        r -> r.hedgesFired.count() == 0 ? 0 : r.hedgeWins.count() / r.hedgesFired.count())
+                .description("Share of hedged calls answered first by the hedge")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public HealingPlanResponse generateFix(HealingRequest request) {
+        return generateFixAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request,
+                                                                   PlanProgressListener listener) {
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("LLM circuit breaker is open"));
+        }
+
+        long start = System.nanoTime();
+        Call call = new Call(request, once(listener));
+        call.launch(false);
+
+        long hedgeDelayMs = hedgeDelayMs();
+        if (hedgeDelayMs > 0) {
+            CompletableFuture.delayedExecutor(hedgeDelayMs, TimeUnit.MILLISECONDS, hedgeExecutor).execute(() -> {
+                if (call.result.isDone() || breaker.state() != LlmCircuitBreaker.State.CLOSED) return;
+                hedgesFired.increment();
+                log.info("Hedging {} fix generation after {} ms", request.failureType(), hedgeDelayMs);
+                call.launch(true);
+            });
+        }
+
+        // Callers see the outcome only after the breaker has recorded it
+        return call.result.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS).whenComplete((plan, ex) -> {
+            // Losing and timed-out requests give their admission slot back
+            call.attempts.forEach(attempt -> attempt.cancel(true));
+            if (ex == null) {
+                breaker.onSuccess();
+                latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } else {
+                if (ex instanceof TimeoutException) {
+                    deadlineExceeded.increment();
+                    log.warn("{} fix generation exceeded its {} deadline", request.failureType(), deadline);
+                }
+                recordFailure(ex);
+            }
+        });
+    }
+
+    @Override
+    public HealingPlanResponse regenerateFix(HealingRequest request, String previousFixJson, String feedback) {
+        return regenerateFixAsync(request, previousFixJson, feedback).join();
+    }
+
+    /** Guarded by the breaker and the deadline like generation, but never hedged. */
+    @Override
+    public CompletableFuture<HealingPlanResponse> regenerateFixAsync(HealingRequest request,
+                                                                     String previousFixJson, String feedback) {
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("LLM circuit breaker is open"));
+        }
+        CompletableFuture<HealingPlanResponse> call;
+        try {
+            call = delegate.regenerateFixAsync(request, previousFixJson, feedback);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<HealingPlanResponse> attempt = call;
+        return call.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS).whenComplete((plan, ex) -> {
+            if (ex == null) {
+                breaker.onSuccess();
+            } else {
+                attempt.cancel(true);
+                if (ex instanceof TimeoutException) {
+                    deadlineExceeded.increment();
+                    log.warn("{} fix regeneration exceeded its {} deadline", request.failureType(), deadline);
+                }
+                recordFailure(ex);
+            }
+        });
+    }
+
+    private void recordFailure(Throwable error) {
+        if (isOutage(error)) {
+            breaker.onFailure();
+        } else {
+            breaker.onIgnored();
+        }
+    }
+
+    /** Whether {@code error} means the LLM is unreachable or failing: a timeout, connection error or 5xx. */
+    static boolean isOutage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof TimeoutException
+                || cause instanceof WebClientRequestException
+                || cause instanceof WebClientResponseException e && e.getStatusCode().is5xxServerError();
+    }
+
+    private long hedgeDelayMs() {
+        if (!hedgingEnabled || breaker.state() != LlmCircuitBreaker.State.CLOSED) return 0;
+        long p95 = latencies.percentile(0.95, hedgeMinSamples);
+        return p95 < 0 ? 0 : Math.max(hedgeMinDelayMs, p95);
+    }
+
+    private static PlanProgressListener once(PlanProgressListener listener) {
+        AtomicBoolean called = new AtomicBoolean();
+        return (failureSummary, fixType) -> {
+            if (called.compareAndSet(false, true)) listener.onPreliminaryPlan(failureSummary, fixType);
+        };
+    }
+
+    /** The primary request and, if fired, the hedge; the first plan completes {@link #result}. */
+    private final class Call {
+        final HealingRequest request;
+        final PlanProgressListener listener;
+        final CompletableFuture<HealingPlanResponse> result = new CompletableFuture<>();
+        final List<CompletableFuture<HealingPlanResponse>> attempts = new CopyOnWriteArrayList<>();
+        final AtomicInteger outstanding = new AtomicInteger();
+        volatile boolean hedged;
+
+        Call(HealingRequest request, PlanProgressListener listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        void launch(boolean hedge) {
+            if (hedge) hedged = true;
+            outstanding.incrementAndGet();
+            CompletableFuture<HealingPlanResponse> attempt;
+            try {
+                attempt = delegate.generateFixAsync(request, listener);
+            } catch (RuntimeException e) {
+                attempt = CompletableFuture.failedFuture(e);
+            }
+            attempts.add(attempt);
+            attempt.whenComplete((plan, ex) -> {
+                if (ex == null) {
+                    if (result.complete(plan) && hedged) (hedge ? hedgeWins : primaryWins).increment();
+                } else if (outstanding.decrementAndGet() == 0) {
+                    // Only fail once no other attempt can still answer
+                    result.completeExceptionally(ex);
+                }
+            });
+            if (result.isDone()) attempt.cancel(true);
+        }
+    }
+
+    /** Latencies of the last {@code size} successful calls. */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        LatencyWindow(int size) {
+            this.samples = new long[Math.max(1, size)];
+        }
+
+        synchronized void record(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) count++;
+        }
+
+        /** The {@code quantile} latency, or -1 with fewer than {@code minSamples} samples. */
+        synchronized long percentile(double quantile, int minSamples) {
+            if (count == 0 || count < minSamples) return -1;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(quantile * count) - 1)];
+        }
+    }
+}
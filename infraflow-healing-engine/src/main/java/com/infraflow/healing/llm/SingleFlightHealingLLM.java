@@ -0,0 +1,101 @@
+package com.infraflow.healing.llm;
+
+import com.infraflow.common.dto.HealingPlanResponse;
+import com.infraflow.common.dto.HealingRequest;
+import com.infraflow.healing.knowledge.ErrorSignature;
+import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.port.PlanProgressListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces concurrent fix generations for the same failure: while a request
+ * for a given failure type + {@link ErrorSignature} is in flight, identical
+ * requests wait on it and share its plan instead of making their own LLM
+ * call. The key is forgotten as soon as the call completes, so later
+ * requests go to the Knowledge Base / LLM as usual.
+ *
+ * <p>Only the leading request's {@link PlanProgressListener} sees the
+ * preliminary plan; waiters get the final one. Re-code requests carry
+ * developer feedback and are never coalesced.</p>
+ *
+ * <p>Metrics: {@code infraflow.llm.singleflight{role=leader|waiter}} and the
+ * gauge {@code infraflow.llm.singleflight.keys}.</p>
+ */
+@Slf4j
+public class SingleFlightHealingLLM implements HealingLLMPort {
+
+    private final HealingLLMPort delegate;
+    private final Map<String, CompletableFuture<HealingPlanResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter waiters;
+
+    public SingleFlightHealingLLM(HealingLLMPort delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.leaders = Counter.builder("infraflow.llm.singleflight")
+                .tag("role", "leader")
+                .description("Fix generations that made their own LLM call")
+                .register(meterRegistry);
+        this.waiters = Counter.builder("infraflow.llm.singleflight")
+                .tag("role", "waiter")
+                .description("Fix generations that shared an identical in-flight LLM call")
+                .register(meterRegistry);
+        Gauge.builder("infraflow.llm.singleflight.keys", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public HealingPlanResponse generateFix(HealingRequest request) {
+        return generateFixAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request,
+                                                                   PlanProgressListener listener) {
+        String key = key(request);
+        CompletableFuture<HealingPlanResponse> leader = new CompletableFuture<>();
+        CompletableFuture<HealingPlanResponse> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            waiters.increment();
+            log.info("Coalescing {} fix generation with an identical request in flight", request.failureType());
+            // Waiters must not be able to complete (or cancel) the shared future
+            return existing.thenApply(plan -> plan);
+        }
+
+        leaders.increment();
+        CompletableFuture<HealingPlanResponse> call;
+        try {
+            call = delegate.generateFixAsync(request, listener);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((plan, ex) -> {
+            inFlight.remove(key, leader);
+            if (ex != null) leader.completeExceptionally(ex);
+            else leader.complete(plan);
+        });
+        return leader.thenApply(plan -> plan);
+    }
+
+    @Override
+    public HealingPlanResponse regenerateFix(HealingRequest request, String previousFixJson, String feedback) {
+        return delegate.regenerateFix(request, previousFixJson, feedback);
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> regenerateFixAsync(HealingRequest request,
+                                                                     String previousFixJson, String feedback) {
+        return delegate.regenerateFixAsync(request, previousFixJson, feedback);
+    }
+
+    private static String key(HealingRequest request) {
+        String failureType = String.valueOf(request.failureType());
+        return failureType + ":" + ErrorSignature.of(request.failureLogs()).forType(failureType);
+    }
+}
@@ -0,0 +1,104 @@
+package com.infraflow.healing.llm;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.infraflow.healing.port.PlanProgressListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses a {@code HealingPlanResponse} JSON document as its text streams in,
+ * using Jackson's non-blocking parser. Once the top-level
+ * {@code failureSummary} and {@code fixType} strings have both arrived, the
+ * {@link PlanProgressListener} is called — typically long before the file
+ * changes are complete.
+ *
+ * <p>Text before the first {@code '{'} (e.g. a markdown fence) and after the
+ * closing brace is ignored. If the JSON turns out to be malformed, incremental
+ * parsing stops quietly; the full {@link #text()} is still parsed at the end.</p>
+ */
+@Slf4j
+public class StreamingPlanParser {
+
+    private final PlanProgressListener listener;
+    private final StringBuilder text = new StringBuilder();
+    private final JsonParser parser;
+
+    private boolean started;
+    private boolean stopped;
+    private int depth;
+    private String field;
+    private String failureSummary;
+    private String fixType;
+
+    public StreamingPlanParser(JsonFactory jsonFactory, PlanProgressListener listener) {
+        this.listener = listener;
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Non-blocking JSON parser unavailable", e);
+        }
+    }
+
+    /** Appends the next chunk of generated text. */
+    public void accept(String chunk) {
+        text.append(chunk);
+        if (stopped) return;
+
+        String json = chunk;
+        if (!started) {
+            int brace = chunk.indexOf('{');
+            if (brace < 0) return;
+            started = true;
+            json = chunk.substring(brace);
+        }
+        try {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while (!stopped && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                onToken(token);
+            }
+        } catch (IOException e) {
+            log.debug("Incremental plan parsing stopped: {}", e.getMessage());
+            stopped = true;
+        }
+    }
+
+    /** Everything received so far. */
+    public String text() {
+        return text.toString();
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT, START_ARRAY -> depth++;
+            case END_OBJECT, END_ARRAY -> {
+                if (--depth == 0) stopped = true;
+            }
+            case FIELD_NAME -> {
+                if (depth == 1) field = parser.currentName();
+            }
+            case VALUE_STRING -> {
+                if (depth != 1) return;
+                if ("failureSummary".equals(field)) failureSummary = parser.getText();
+                else if ("fixType".equals(field)) fixType = parser.getText();
+                else return;
+                if (failureSummary != null && fixType != null) {
+                    // Nothing else is needed incrementally
+                    stopped = true;
+                    try {
+                        listener.onPreliminaryPlan(failureSummary, fixType);
+                    } catch (RuntimeException e) {
+                        log.warn("Preliminary plan listener failed: {}", e.getMessage());
+                    }
+                }
+            }
+            default -> { }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.infraflow.healing.pipeline;
+
+import com.infraflow.common.dto.HealingPlanResponse;
+import com.infraflow.common.enums.FailureType;
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.common.model.HealingSession;
+import com.infraflow.common.model.PipelineEvent;
+import com.infraflow.healing.knowledge.ErrorSignature;
+import com.infraflow.healing.knowledge.node.FailurePatternNode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * State of one healing run as it moves through the {@link HealingStage}s.
+ * Each stage reads what earlier stages produced and fills in its own part.
+ */
+@Getter
+@Setter
+public class HealingContext {
+
+    private final PipelineEventMessage eventData;
+
+    private PipelineEvent pipelineEvent;
+    private String logs;
+    private FailureType failureType;
+    /** Set by ANALYZE when the signature / pattern prefetch finished in time; otherwise computed by KNOWLEDGE. */
+    private ErrorSignature errorSignature;
+    private Map<String, FailurePatternNode> prefetchedPatterns;
+    private HealingSession session;
+    private HealingPlanResponse plan;
+    /** Why {@link HealingStage#LLM} produced no plan, if it failed. */
+    private Throwable llmFailure;
+
+    public HealingContext(PipelineEventMessage eventData) {
+        this.eventData = eventData;
+    }
+}
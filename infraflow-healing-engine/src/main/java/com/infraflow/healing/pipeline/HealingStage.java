@@ -0,0 +1,20 @@
+package com.infraflow.healing.pipeline;
+
+/**
+ * Steps of healing a failed pipeline, in order. Each stage hands the
+ * {@link HealingContext} to the next one, or ends the run.
+ */
+public enum HealingStage {
+    /** Store the pipeline event and resolve its raw logs. */
+    PERSIST,
+    /** Security scan, failure classification and healing session creation. */
+    ANALYZE,
+    /** Knowledge Base lookup for a proven fix. */
+    KNOWLEDGE,
+    /** Fix generation by the LLM; completes asynchronously without holding a worker. */
+    LLM,
+    /** Record the generated plan and decide: escalate, await approval or apply. */
+    DECIDE,
+    /** Commit the fix to a branch and retry the pipeline (GitHub). */
+    APPLY
+}
@@ -0,0 +1,235 @@
+package com.infraflow.healing.pipeline;
+
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.healing.scheduling.HealingScheduler;
+import com.infraflow.healing.service.HealingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the {@link HealingStage}s of {@link HealingService} on one executor
+ * per stage, each with its own bounded queue, so the cheap stages are not
+ * stuck behind LLM and GitHub latency and each stage can be sized on its own
+ * ({@code infraflow.healing.pipeline.<stage>.threads / queue-capacity}).
+ *
+ * <p>A stage hands the {@link HealingContext} to the next stage's queue. When
+ * that queue is full the handing-off worker blocks until there is room, so a
+ * slow stage pushes back on the stages before it. The Kafka consumer pauses
+ * on {@link #occupancy()} well before the first queue fills.</p>
+ *
+ * <p>The LLM stage returns as soon as its request is sent; the response is
+ * handed to DECIDE from a hand-off thread, so LLM workers are not held for
+ * the round trip.</p>
+ *
+ * <p>On shutdown, contexts already submitted are given up to 30s to finish
+ * before the stage executors stop, so none is stranded between stages. The
+ * parallel consumer stops handing in new events before that.</p>
+ *
+ * <p>Metrics per {@code stage}: {@code infraflow.healing.stage.queue}
+ * (depth), {@code infraflow.healing.stage.wait} (time queued) and
+ * {@code infraflow.healing.stage.service} (time running, including the LLM
+ * round trip).</p>
+ */
+@Component
+@ConditionalOnProperty(name = "infraflow.consumer.mode", havingValue = "staged")
+@RequiredArgsConstructor
+@Slf4j
+public class StagedHealingPipeline {
+
+    private static final Map<HealingStage, int[]> DEFAULT_SIZING = Map.of(
+            // {threads, queue capacity}
+            HealingStage.PERSIST, new int[]{2, 200},
+            HealingStage.ANALYZE, new int[]{Runtime.getRuntime().availableProcessors(), 200},
+            HealingStage.KNOWLEDGE, new int[]{2, 200},
+            HealingStage.LLM, new int[]{4, 100},
+            HealingStage.DECIDE, new int[]{2, 100},
+            HealingStage.APPLY, new int[]{2, 100});
+
+    private final HealingService healingService;
+    private final HealingScheduler healingScheduler;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    private final Map<HealingStage, StageExecutor> stages = new EnumMap<>(HealingStage.class);
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean shuttingDown;
+    private final ExecutorService handoff = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "heal-handoff");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    void init() {
+        for (HealingStage stage : HealingStage.values()) {
+            String prefix = "infraflow.healing.pipeline." + stage.name().toLowerCase(Locale.ROOT) + ".";
+            int threads = environment.getProperty(prefix + "threads", Integer.class, DEFAULT_SIZING.get(stage)[0]);
+            int capacity = environment.getProperty(prefix + "queue-capacity", Integer.class, DEFAULT_SIZING.get(stage)[1]);
+            stages.put(stage, new StageExecutor(stage, threads, capacity));
+            log.info("Healing stage {}: threads={}, queueCapacity={}", stage, threads, capacity);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        shuttingDown = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (pending.get() > 0 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(100);
+        }
+        if (pending.get() > 0) {
+            log.warn("{} healing contexts still in progress at shutdown", pending.get());
+        }
+        // Upstream first, so work in flight can still be handed downstream
+        for (StageExecutor stage : stages.values()) {
+            stage.executor.shutdown();
+            if (!stage.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Healing stage {} still busy at shutdown", stage.stage);
+            }
+        }
+        handoff.shutdown();
+    }
+
+    /**
+     * Starts healing the event. The future completes when the last stage is
+     * done, exceptionally if a stage throws.
+     */
+    public CompletableFuture<Void> submit(PipelineEventMessage event) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        pending.incrementAndGet();
+        done.whenComplete((result, ex) -> pending.decrementAndGet());
+        enqueue(HealingStage.PERSIST, new HealingContext(event), done);
+        return done;
+    }
+
+    /** Whether shutdown has begun; stages then reject work with {@link RejectedExecutionException}. */
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    /** Fill ratio of the fullest stage queue or of the fair-scheduling queue, 0.0–1.0. */
+    public double occupancy() {
+        // LLM workers hand generations to the scheduler, so its backlog must throttle intake too
+        double max = healingScheduler.occupancy();
+        for (StageExecutor stage : stages.values()) {
+            max = Math.max(max, (double) stage.queue.size() / stage.capacity);
+        }
+        return max;
+    }
+
+    private void enqueue(HealingStage stage, HealingContext ctx, CompletableFuture<Void> done) {
+        StageExecutor target = stages.get(stage);
+        long enqueuedAt = System.nanoTime();
+        try {
+            target.executor.execute(() -> {
+                target.waitTime.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                long start = System.nanoTime();
+                CompletableFuture<HealingStage> next = runStage(stage, ctx);
+                if (next.isDone()) {
+                    advance(target, start, ctx, done, next);
+                } else {
+                    // LLM: the worker is free again; hand off from a thread that may block on a full queue
+                    next.whenCompleteAsync((stageAfter, ex) -> advance(target, start, ctx, done, next), handoff);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            done.completeExceptionally(e);
+        }
+    }
+
+    private CompletableFuture<HealingStage> runStage(HealingStage stage, HealingContext ctx) {
+        try {
+            return healingService.runStage(stage, ctx);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void advance(StageExecutor from, long start, HealingContext ctx,
+                         CompletableFuture<Void> done, CompletableFuture<HealingStage> result) {
+        from.serviceTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        HealingStage next;
+        try {
+            next = result.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.error("Healing stage {} failed for {}", from.stage, ctx.getEventData().repoName(), cause);
+            done.completeExceptionally(cause);
+            return;
+        }
+        if (next == null) {
+            done.complete(null);
+        } else {
+            enqueue(next, ctx, done);
+        }
+    }
+
+    private final class StageExecutor {
+        final HealingStage stage;
+        final int capacity;
+        final BlockingQueue<Runnable> queue;
+        final ThreadPoolExecutor executor;
+        final Timer waitTime;
+        final Timer serviceTime;
+
+        StageExecutor(HealingStage stage, int threads, int capacity) {
+            this.stage = stage;
+            this.capacity = capacity;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            String name = stage.name().toLowerCase(Locale.ROOT);
+            AtomicInteger threadIds = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, r -> {
+                Thread t = new Thread(r, "heal-" + name + "-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, (task, pool) -> {
+                // Full queue: block the handing-off thread rather than drop work
+                if (pool.isShutdown()) throw new RejectedExecutionException("Healing stage " + stage + " shut down");
+                try {
+                    pool.getQueue().put(task);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(ie);
+                }
+            });
+
+            Tags tags = Tags.of("stage", name);
+            Gauge.builder("infraflow.healing.stage.queue", queue, BlockingQueue::size)
+                    .tags(tags)
+                    .description("Healing contexts waiting for a stage worker")
+                    .register(meterRegistry);
+            this.waitTime = Timer.builder("infraflow.healing.stage.wait")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.95)
+                    .register(meterRegistry);
+            this.serviceTime = Timer.builder("infraflow.healing.stage.service")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+    }
+}
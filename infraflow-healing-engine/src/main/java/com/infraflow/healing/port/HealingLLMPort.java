@@ -3,10 +3,34 @@ package com.infraflow.healing.port;
 import com.infraflow.common.dto.HealingPlanResponse;
 import com.infraflow.common.dto.HealingRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface HealingLLMPort {
 
     HealingPlanResponse generateFix(HealingRequest request);
 
+    /**
+     * Non-blocking variant of {@link #generateFix}.
+     */
+    default CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request) {
+        return generateFixAsync(request, PlanProgressListener.NONE);
+    }
+
+    /**
+     * Non-blocking variant of {@link #generateFix} that reports the plan's
+     * summary to {@code listener} as soon as it is known. The default runs
+     * the blocking call on the caller's thread and never calls the listener;
+     * adapters with an async or streaming client override it.
+     */
+    default CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request,
+                                                                    PlanProgressListener listener) {
+        try {
+            return CompletableFuture.completedFuture(generateFix(request));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Generate a new fix considering the previous rejected fix and developer feedback.
      * Used by the re-code / fix-again feature.
@@ -16,4 +40,18 @@ public interface HealingLLMPort {
         // ClaudeHealingAdapter overrides this with context-aware prompt.
         return generateFix(request);
     }
+
+    /**
+     * Non-blocking variant of {@link #regenerateFix}. The default runs the
+     * blocking call on the caller's thread; adapters with an async client
+     * override it.
+     */
+    default CompletableFuture<HealingPlanResponse> regenerateFixAsync(HealingRequest request,
+                                                                      String previousFixJson, String feedback) {
+        try {
+            return CompletableFuture.completedFuture(regenerateFix(request, previousFixJson, feedback));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.infraflow.healing.port;
+
+/**
+ * Receives the first parts of a fix plan while the LLM is still generating
+ * the rest. Called at most once per request, from whichever thread is
+ * reading the response, so implementations must not block.
+ */
+@FunctionalInterface
+public interface PlanProgressListener {
+
+    PlanProgressListener NONE = (failureSummary, fixType) -> { };
+
+    /** {@code failureSummary} and {@code fixType} of the plan being generated. */
+    void onPreliminaryPlan(String failureSummary, String fixType);
+}
@@ -3,6 +3,8 @@ package com.infraflow.healing.prompt;
 import com.infraflow.common.dto.HealingRequest;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component
 public class HealingPromptRouter {
 
@@ -32,6 +34,20 @@ public class HealingPromptRouter {
             0.00 - 0.49 : Insufficient context, always ESCALATE
             """;
 
+    /**
+     * Log tokens per failure type. Compile and test failures need room for
+     * several errors and their traces; the others usually hinge on one line.
+     */
+    private static final Map<String, Integer> LOG_BUDGET_TOKENS = Map.of(
+            "BUILD_COMPILE", 700,
+            "TEST_FAILURE", 800,
+            "DEPENDENCY_CONFLICT", 600,
+            "INFRASTRUCTURE", 500,
+            "DOCKER_FAILURE", 600);
+    private static final int DEFAULT_LOG_BUDGET_TOKENS = 750;
+
+    private final LogExcerptExtractor logExtractor = new LogExcerptExtractor();
+
     public String getSystemPrompt() {
         return SYSTEM_PROMPT;
     }
@@ -83,7 +99,7 @@ public class HealingPromptRouter {
                 """.formatted(
                 req.buildTool(),
                 req.repoLanguage(),
-                truncateLogs(req.failureLogs()),
+                excerptLogs(req),
                 req.repoStructure()
         );
     }
@@ -109,7 +125,7 @@ public class HealingPromptRouter {
                 Return ONLY the same JSON structure as above.
                 """.formatted(
                 req.repoLanguage(),
-                truncateLogs(req.failureLogs())
+                excerptLogs(req)
         );
     }
 
@@ -135,7 +151,7 @@ public class HealingPromptRouter {
                 """.formatted(
                 req.buildTool(),
                 req.buildFileContent(),
-                truncateLogs(req.failureLogs())
+                excerptLogs(req)
         );
     }
 
@@ -160,7 +176,7 @@ public class HealingPromptRouter {
                 """.formatted(
                 req.environment(),
                 req.workflowFileContent(),
-                truncateLogs(req.failureLogs())
+                excerptLogs(req)
         );
     }
 
@@ -183,7 +199,7 @@ public class HealingPromptRouter {
                 Return ONLY the same JSON structure with fixType: "CONFIG_CHANGE".
                 """.formatted(
                 req.dockerfileContent(),
-                truncateLogs(req.failureLogs())
+                excerptLogs(req)
         );
     }
 
@@ -205,18 +221,19 @@ public class HealingPromptRouter {
                 """.formatted(
                 req.repoLanguage(),
                 req.buildTool(),
-                truncateLogs(req.failureLogs())
+                excerptLogs(req)
         );
     }
 
-    private String truncateLogs(String logs) {
-        if (logs == null) return "[no logs available]";
-        int max = 3000;
-        if (logs.length() <= max) return logs;
-        int headSize = max / 5;
-        int tailSize = max - headSize;
-        return logs.substring(0, headSize)
-                + "\n\n[... logs truncated ...]\n\n"
-                + logs.substring(logs.length() - tailSize);
+    /**
+     * Log excerpt for the prompt, packed into the failure type's token budget
+     * by {@link LogExcerptExtractor}.
+     */
+    private String excerptLogs(HealingRequest req) {
+        return logExtractor.extract(req.failureLogs(), logBudgetTokens(req.failureType()));
+    }
+
+    static int logBudgetTokens(String failureType) {
+        return LOG_BUDGET_TOKENS.getOrDefault(failureType, DEFAULT_LOG_BUDGET_TOKENS);
     }
 }
@@ -0,0 +1,145 @@
+package com.infraflow.healing.prompt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Packs the most diagnostic parts of a CI log into a token budget.
+ *
+ * <p>Every line is scored: error markers ({@code [ERROR]}, {@code ##[error]},
+ * {@code error:}), build/compile failure banners, exception and
+ * {@code Caused by:} heads, assertion messages and surefire/failsafe
+ * summaries score high; warnings and stack frames low; download/progress
+ * noise zero. Lines at or above {@link #SEED_SCORE} seed a window of a little
+ * context before and after them (more after a stack-trace head, to keep its
+ * first frames). Windows are taken highest-scoring seed first, earlier line on
+ * ties, skipping seeds whose text is already included, until the budget is
+ * spent. The last few lines of the log are always kept, since they usually
+ * carry the final summary. Kept lines are emitted in log order with the gaps
+ * marked.</p>
+ *
+ * <p>Tokens are estimated as characters / 4. Logs already within budget are
+ * returned unchanged.</p>
+ */
+public class LogExcerptExtractor {
+
+    static final int SEED_SCORE = 5;
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MAX_LINE_CHARS = 400;
+    private static final int CONTEXT_BEFORE = 2;
+    private static final int CONTEXT_AFTER = 3;
+    private static final int STACK_FRAMES_KEPT = 6;
+    private static final int TAIL_LINES = 5;
+
+    private record Rule(Pattern pattern, int score) {}
+
+    private static final List<Rule> RULES = List.of(
+            new Rule(Pattern.compile("^\\s*(\\[ERROR]|##\\[error]|ERROR:|error:|E\\s{2,})"), 10),
+            new Rule(Pattern.compile("(?i)compilation (error|failure)|cannot find symbol|incompatible types|BUILD FAILURE"), 10),
+            new Rule(Pattern.compile("Tests run: \\d+, Failures: [1-9]|Tests run: \\d+, Failures: \\d+, Errors: [1-9]|<<< (FAILURE|ERROR)!"), 9),
+            new Rule(Pattern.compile("(?i)expected:?\\s*<?.*but was|AssertionError|ComparisonFailure"), 9),
+            new Rule(Pattern.compile("^\\s*(Caused by: )?([\\w$]+\\.)+[\\w$]*(Exception|Error)(:|\\s*$)"), 8),
+            new Rule(Pattern.compile("(?i)could not resolve|non-resolvable|failed to execute goal|COPY failed|pull access denied"), 8),
+            new Rule(Pattern.compile("(?i)OutOfMemoryError|no space left|connection refused|timed out|exit code [1-9]"), 7),
+            new Rule(Pattern.compile("(?i)\\bFAIL(ED|URE)?\\b"), 5),
+            new Rule(Pattern.compile("^\\s*(\\[WARNING]|##\\[warning]|WARNING:)"), 2),
+            new Rule(Pattern.compile("^\\s+at [\\w$.]+\\("), 1)
+    );
+
+    private static final Pattern NOISE =
+            Pattern.compile("(?i)^\\s*(\\[INFO] )?(Download(ing|ed) from|Progress|\\d+/\\d+ (KB|MB))|^\\s*$");
+    private static final Pattern STACK_HEAD =
+            Pattern.compile("^\\s*(Caused by: )?([\\w$]+\\.)+[\\w$]*(Exception|Error)(:|\\s*$)");
+
+    /**
+     * Best excerpt of {@code logs} within roughly {@code budgetTokens} tokens.
+     * Never returns {@code null}.
+     */
+    public String extract(String logs, int budgetTokens) {
+        if (logs == null || logs.isBlank()) return "[no logs available]";
+        int budgetChars = budgetTokens * CHARS_PER_TOKEN;
+        if (logs.length() <= budgetChars) return logs;
+
+        String[] lines = logs.split("\n", -1);
+        int n = lines.length;
+        int[] score = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (lines[i].length() > MAX_LINE_CHARS) {
+                lines[i] = lines[i].substring(0, MAX_LINE_CHARS) + " …";
+            }
+            score[i] = score(lines[i]);
+        }
+
+        boolean[] keep = new boolean[n];
+        int used = 0;
+
+        // Reserve the tail first: build tools print their verdict last
+        for (int i = Math.max(0, n - TAIL_LINES); i < n; i++) {
+            used += cost(lines[i]);
+            keep[i] = true;
+        }
+
+        List<Integer> seeds = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (score[i] >= SEED_SCORE) seeds.add(i);
+        }
+        seeds.sort(Comparator.<Integer>comparingInt(i -> -score[i]).thenComparingInt(i -> i));
+
+        Set<String> seen = new HashSet<>();
+        for (int seed : seeds) {
+            if (!seen.add(lines[seed].strip())) continue;
+            int after = STACK_HEAD.matcher(lines[seed]).find() ? STACK_FRAMES_KEPT : CONTEXT_AFTER;
+            int from = Math.max(0, seed - CONTEXT_BEFORE);
+            int to = Math.min(n - 1, seed + after);
+
+            int windowCost = 0;
+            for (int i = from; i <= to; i++) {
+                if (!keep[i] && !NOISE.matcher(lines[i]).find()) windowCost += cost(lines[i]);
+            }
+            if (used + windowCost > budgetChars) {
+                // Fall back to the seed line alone
+                if (used + cost(lines[seed]) > budgetChars) continue;
+                from = to = seed;
+                windowCost = cost(lines[seed]);
+            }
+            for (int i = from; i <= to; i++) {
+                if (i == seed || !NOISE.matcher(lines[i]).find()) keep[i] = true;
+            }
+            used += windowCost;
+        }
+
+        StringBuilder out = new StringBuilder(Math.min(logs.length(), budgetChars + 256));
+        int omitted = 0;
+        for (int i = 0; i < n; i++) {
+            if (!keep[i]) {
+                omitted++;
+                continue;
+            }
+            if (omitted > 0) {
+                out.append("[... ").append(omitted).append(" lines omitted ...]\n");
+                omitted = 0;
+            }
+            out.append(lines[i]).append('\n');
+        }
+        return out.toString();
+    }
+
+    /** Diagnostic value of one log line; 0 for noise. */
+    static int score(String line) {
+        if (NOISE.matcher(line).find()) return 0;
+        int best = 0;
+        for (Rule rule : RULES) {
+            if (rule.score() > best && rule.pattern().matcher(line).find()) best = rule.score();
+        }
+        return best;
+    }
+
+    private static int cost(String line) {
+        return line.length() + 1;
+    }
+}
@@ -0,0 +1,14 @@
+package com.infraflow.healing.repository;
+
+import com.infraflow.common.model.MonitoredRepo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface MonitoredRepoRepository extends JpaRepository<MonitoredRepo, Long> {
+
+    @Query("SELECT r FROM MonitoredRepo r JOIN FETCH r.user WHERE r.repoFullName = :repoFullName")
+    List<MonitoredRepo> findWithUserByRepoFullName(@Param("repoFullName") String repoFullName);
+}
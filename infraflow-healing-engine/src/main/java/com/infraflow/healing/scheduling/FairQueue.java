@@ -0,0 +1,180 @@
+package com.infraflow.healing.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Start-time fair queue: at most {@code maxConcurrent} pieces of work run,
+ * and the rest are started in order of their virtual start tag. A key's
+ * consecutive items are spaced 1/weight apart in virtual time, so a key with
+ * a burst queued cannot hold back another key's first item, and a heavier
+ * key is served proportionally more often. Items of one key start in
+ * submission order. An item that has waited {@code maxWait} is started next
+ * regardless of its tag.
+ *
+ * <p>Work is started outside the lock, by one thread at a time: whichever
+ * thread makes items ready while no other is starting them keeps starting
+ * until none are left, and the rest just hand theirs over. Work that
+ * completes synchronously therefore frees its slot without recursing into
+ * the next start, however long the queue.</p>
+ *
+ * <p>Used by {@link HealingScheduler} in front of fix generation and by the
+ * parallel consumer in front of its per-repo chains.</p>
+ */
+public class FairQueue {
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final Counter aged;
+
+    private final TreeSet<Item> byStartTag = new TreeSet<>(
+            Comparator.comparingDouble((Item i) -> i.startTag).thenComparingLong(i -> i.seq));
+    private final TreeSet<Item> byArrival = new TreeSet<>(
+            Comparator.comparingLong((Item i) -> i.enqueuedAt).thenComparingLong(i -> i.seq));
+    private final Map<String, Double> lastFinishTag = new HashMap<>();
+    private final Deque<Item> toStart = new ArrayDeque<>();
+    private boolean starting;
+    private double virtualTime;
+    private int running;
+    private long nextSeq;
+
+    /**
+     * @param aged counts items started out of fair order after waiting {@code maxWait}
+     */
+    public FairQueue(int maxConcurrent, int maxQueued, Duration maxWait, Counter aged) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.aged = aged;
+    }
+
+    /**
+     * Starts {@code work} when it is {@code key}'s turn. The returned future
+     * completes with the work's result; the slot is held until then. Fails
+     * with {@link RejectedExecutionException} when {@code maxQueued} items
+     * are already waiting.
+     *
+     * @param waitTimer records how long the item waited for its turn
+     */
+    public <T> CompletableFuture<T> submit(String key, double weight, Timer waitTimer,
+                                           Supplier<CompletableFuture<T>> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<Item> ready;
+        synchronized (this) {
+            if (byStartTag.size() >= maxQueued) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "Fair queue full (" + maxQueued + " waiting)"));
+            }
+            double startTag = Math.max(virtualTime, lastFinishTag.getOrDefault(key, 0.0));
+            lastFinishTag.put(key, startTag + 1 / weight);
+
+            Item item = new Item(nextSeq++, startTag, System.nanoTime(), waitTimer, () -> launch(work, result));
+            byStartTag.add(item);
+            byArrival.add(item);
+            ready = dispatch();
+        }
+        start(ready);
+        return result;
+    }
+
+    public synchronized int queued() {
+        return byStartTag.size();
+    }
+
+    public synchronized int running() {
+        return running;
+    }
+
+    /** Fill ratio of the wait queue, 0.0–1.0. */
+    public synchronized double occupancy() {
+        return (double) byStartTag.size() / maxQueued;
+    }
+
+    private <T> void launch(Supplier<CompletableFuture<T>> work, CompletableFuture<T> result) {
+        CompletableFuture<T> call;
+        try {
+            call = work.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((value, ex) -> {
+            release();
+            if (ex != null) result.completeExceptionally(ex);
+            else result.complete(value);
+        });
+    }
+
+    private void release() {
+        List<Item> ready;
+        synchronized (this) {
+            running--;
+            ready = dispatch();
+        }
+        start(ready);
+    }
+
+    /** Starts {@code ready}, unless another thread is already starting items, which then starts them too. */
+    private void start(List<Item> ready) {
+        synchronized (this) {
+            toStart.addAll(ready);
+            if (starting || toStart.isEmpty()) return;
+            starting = true;
+        }
+        while (true) {
+            Item next;
+            synchronized (this) {
+                next = toStart.poll();
+                if (next == null) {
+                    starting = false;
+                    return;
+                }
+            }
+            next.start.run();
+        }
+    }
+
+    /** Takes the items to start now; they must be started outside the lock, via {@link #start}. */
+    private List<Item> dispatch() {
+        List<Item> ready = new ArrayList<>();
+        long now = System.nanoTime();
+        while (running < maxConcurrent && !byStartTag.isEmpty()) {
+            Item oldest = byArrival.first();
+            Item next;
+            if (now - oldest.enqueuedAt >= maxWaitNanos) {
+                next = oldest;
+                aged.increment();
+            } else {
+                next = byStartTag.first();
+            }
+            byStartTag.remove(next);
+            byArrival.remove(next);
+            virtualTime = Math.max(virtualTime, next.startTag);
+            running++;
+            next.waitTimer.record(now - next.enqueuedAt, TimeUnit.NANOSECONDS);
+            ready.add(next);
+        }
+        if (byStartTag.isEmpty()) {
+            // End of a busy period: only keys still owed service need their tags
+            lastFinishTag.values().removeIf(tag -> tag <= virtualTime);
+        }
+        return ready;
+    }
+
+    private record Item(long seq, double startTag, long enqueuedAt, Timer waitTimer, Runnable start) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.infraflow.healing.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Weighted fair queue in front of LLM fix generation. At most
+ * {@code max-concurrent} generations run; the rest wait in a
+ * {@link FairQueue} keyed by {@link HealingTenant}, so a tenant with a burst
+ * of failures cannot delay everyone else's.
+ *
+ * <p>Each item's weight is 1, times {@code pro-weight} for PRO tenants, times
+ * {@code default-branch-weight} for a failure on the repo's default branch;
+ * a tenant's consecutive items are spaced 1/weight apart in virtual time. An
+ * item that has waited {@code max-wait} is started next regardless, which
+ * bounds how long low-weight work can be held back.</p>
+ *
+ * <p>Metrics: {@code infraflow.healing.scheduler.wait{plan=pro|free,branch=default|other}},
+ * {@code infraflow.healing.scheduler.queued}, {@code .running} and {@code .aged}.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HealingScheduler {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${infraflow.healing.scheduler.max-concurrent:16}")
+    private int maxConcurrent;
+
+    @Value("${infraflow.healing.scheduler.max-queued:1000}")
+    private int maxQueued;
+
+    @Value("${infraflow.healing.scheduler.pro-weight:4}")
+    private double proWeight;
+
+    @Value("${infraflow.healing.scheduler.default-branch-weight:2}")
+    private double defaultBranchWeight;
+
+    @Value("${infraflow.healing.scheduler.max-wait:2m}")
+    private Duration maxWait;
+
+    private FairQueue queue;
+
+    private final Map<String, Timer> waitTimers = new HashMap<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        for (String plan : new String[]{"pro", "free"}) {
+            for (String branch : new String[]{"default", "other"}) {
+                waitTimers.put(plan + "/" + branch, Timer.builder("infraflow.healing.scheduler.wait")
+                        .tag("plan", plan)
+                        .tag("branch", branch)
+                        .description("Time a fix generation waited for its turn")
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry));
+            }
+        }
+        Counter aged = Counter.builder("infraflow.healing.scheduler.aged")
+                .description("Fix generations started out of fair order after waiting max-wait")
+                .register(meterRegistry);
+        queue = new FairQueue(maxConcurrent, maxQueued, maxWait, aged);
+        Gauge.builder("infraflow.healing.scheduler.queued", this, HealingScheduler::queued)
+                .register(meterRegistry);
+        Gauge.builder("infraflow.healing.scheduler.running", this, HealingScheduler::running)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts {@code work} when it is {@code tenant}'s turn. The returned future
+     * completes with the work's result; the slot is held until then.
+     */
+    public <T> CompletableFuture<T> submit(HealingTenant tenant, boolean defaultBranch,
+                                           Supplier<CompletableFuture<T>> work) {
+        Timer waitTimer = waitTimers.get((tenant.pro() ? "pro" : "free") + "/" + (defaultBranch ? "default" : "other"));
+        return queue.submit(tenant.key(), weight(tenant, defaultBranch), waitTimer, work);
+    }
+
+    /** Scheduling weight of a tenant's failure: PRO and default-branch failures are served more often. */
+    public double weight(HealingTenant tenant, boolean defaultBranch) {
+        return (tenant.pro() ? proWeight : 1) * (defaultBranch ? defaultBranchWeight : 1);
+    }
+
+    public int queued() {
+        return queue.queued();
+    }
+
+    public int running() {
+        return queue.running();
+    }
+
+    /** Fill ratio of the wait queue, 0.0–1.0. */
+    public double occupancy() {
+        return queue.occupancy();
+    }
+}
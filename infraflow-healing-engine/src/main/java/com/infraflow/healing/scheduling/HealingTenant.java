@@ -0,0 +1,16 @@
+package com.infraflow.healing.scheduling;
+
+/**
+ * Whose healing work an event is, for fair scheduling: the owning user of a
+ * monitored repo ({@code user:<id>}), or the repo itself when nobody
+ * monitors it ({@code repo:<name>}).
+ */
+public record HealingTenant(String key, boolean pro, String defaultBranch) {
+
+    /** Whether {@code branch} is the repo's default branch; main/master when that is unknown. */
+    public boolean isDefaultBranch(String branch) {
+        if (branch == null) return false;
+        if (defaultBranch != null) return defaultBranch.equals(branch);
+        return "main".equals(branch) || "master".equals(branch);
+    }
+}
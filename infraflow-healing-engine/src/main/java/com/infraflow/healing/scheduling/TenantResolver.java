@@ -0,0 +1,127 @@
+package com.infraflow.healing.scheduling;
+
+import com.infraflow.common.model.MonitoredRepo;
+import com.infraflow.healing.repository.MonitoredRepoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps a repo to its {@link HealingTenant} via {@code monitored_repos}.
+ * When several users monitor the same repo, a PRO owner is preferred, then
+ * the earliest. Results are cached for
+ * {@code infraflow.healing.scheduler.tenant-cache-ttl}, so a plan upgrade
+ * takes effect within that time.
+ *
+ * <p>{@link #resolveAsync} never touches the database on the calling thread,
+ * for callers such as the Kafka poll loop: a stale entry is returned at once
+ * and refreshed in the background, and a miss is looked up on a small
+ * lookup pool. Concurrent misses for one repo share a single lookup.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TenantResolver {
+
+    private final MonitoredRepoRepository monitoredRepoRepository;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<HealingTenant>> loading = new ConcurrentHashMap<>();
+    private final ExecutorService lookupPool = Executors.newFixedThreadPool(2, daemonThreads());
+
+    @Value("${infraflow.healing.scheduler.tenant-cache-ttl:5m}")
+    private Duration cacheTtl;
+
+    public HealingTenant resolve(String repoName) {
+        String key = repoName != null ? repoName : "";
+        long now = System.nanoTime();
+        Cached cached = cache.get(key);
+        if (cached != null && now - cached.loadedAt < cacheTtl.toNanos()) {
+            return cached.tenant;
+        }
+        HealingTenant tenant = load(key);
+        cache.put(key, new Cached(tenant, now));
+        return tenant;
+    }
+
+    /** Like {@link #resolve}, but a lookup runs on the lookup pool; a stale entry is used meanwhile. */
+    public CompletableFuture<HealingTenant> resolveAsync(String repoName) {
+        String key = repoName != null ? repoName : "";
+        Cached cached = cache.get(key);
+        if (cached != null && System.nanoTime() - cached.loadedAt < cacheTtl.toNanos()) {
+            return CompletableFuture.completedFuture(cached.tenant);
+        }
+        CompletableFuture<HealingTenant> lookup = lookup(key);
+        return cached != null ? CompletableFuture.completedFuture(cached.tenant) : lookup;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lookupPool.shutdownNow();
+    }
+
+    private CompletableFuture<HealingTenant> lookup(String key) {
+        CompletableFuture<HealingTenant> mine = new CompletableFuture<>();
+        CompletableFuture<HealingTenant> existing = loading.putIfAbsent(key, mine);
+        if (existing != null) return existing;
+        try {
+            lookupPool.execute(() -> {
+                long now = System.nanoTime();
+                HealingTenant tenant = load(key);
+                cache.put(key, new Cached(tenant, now));
+                loading.remove(key, mine);
+                mine.complete(tenant);
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down: don't block the caller on the database
+            loading.remove(key, mine);
+            mine.complete(unmonitored(key));
+        }
+        return mine;
+    }
+
+    private HealingTenant load(String repoName) {
+        try {
+            List<MonitoredRepo> repos = monitoredRepoRepository.findWithUserByRepoFullName(repoName);
+            return repos.stream()
+                    .min(Comparator.comparing((MonitoredRepo r) -> !r.getUser().isProPlan())
+                            .thenComparing(MonitoredRepo::getId))
+                    .map(r -> new HealingTenant("user:" + r.getUser().getId(), r.getUser().isProPlan(),
+                            r.getDefaultBranch()))
+                    .orElseGet(() -> unmonitored(repoName));
+        } catch (Exception e) {
+            log.warn("Tenant lookup failed for {} — scheduling as unmonitored: {}", repoName, e.getMessage());
+            return unmonitored(repoName);
+        }
+    }
+
+    private static HealingTenant unmonitored(String repoName) {
+        return new HealingTenant("repo:" + repoName, false, null);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger ids = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "tenant-lookup-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private record Cached(HealingTenant tenant, long loadedAt) {
+    }
+}
@@ -1,21 +1,37 @@
 package com.infraflow.healing.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infraflow.common.dto.FileChange;
 import com.infraflow.common.dto.HealingPlanResponse;
 import com.infraflow.common.dto.HealingRequest;
+import com.infraflow.healing.llm.LlmAdmissionController;
+import com.infraflow.healing.llm.LlmAdmissionController.Priority;
+import com.infraflow.healing.llm.StreamingPlanParser;
 import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.port.PlanProgressListener;
 import com.infraflow.healing.prompt.HealingPromptRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,8 +40,16 @@ import java.util.regex.Pattern;
 @Slf4j
 public class ClaudeHealingAdapter implements HealingLLMPort {
 
+    private static final int MAX_TOKENS = 4096;
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_EVENT =
+            new ParameterizedTypeReference<>() { };
+
     private final HealingPromptRouter promptRouter;
     private final ObjectMapper objectMapper;
+    private final WebClient anthropicWebClient;
+    private final LlmAdmissionController llmAdmissionController;
+    private final MeterRegistry meterRegistry;
 
     @Value("${infraflow.anthropic.api-key}")
     private String apiKey;
@@ -36,16 +60,34 @@ public class ClaudeHealingAdapter implements HealingLLMPort {
     @Value("${infraflow.healing.demo-mode:false}")
     private boolean demoMode;
 
-    private final WebClient webClient = WebClient.builder()
-            .baseUrl("https://api.anthropic.com")
-            .build();
+    @Value("${infraflow.anthropic.streaming:true}")
+    private boolean streaming;
+
+    @Value("${infraflow.anthropic.client.rate-limit-retries:3}")
+    private int rateLimitRetries;
+
+    private Timer preliminaryLatency;
+
+    @PostConstruct
+    void registerMetrics() {
+        preliminaryLatency = Timer.builder("infraflow.llm.preliminary.latency")
+                .description("Time from request to the streamed failure summary and fix type")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+    }
 
     @Override
     public HealingPlanResponse generateFix(HealingRequest request) {
+        return generateFixAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request,
+                                                                   PlanProgressListener listener) {
         // If demo mode is enabled, return smart analysis based on logs
         if (demoMode) {
             log.info("Demo mode enabled — generating AI-style fix analysis for {} failure", request.failureType());
-            return generateSmartDemoResponse(request);
+            return CompletableFuture.completedFuture(generateSmartDemoResponse(request));
         }
 
         String userPrompt = promptRouter.route(request);
@@ -53,57 +95,24 @@ public class ClaudeHealingAdapter implements HealingLLMPort {
 
         log.info("Calling Claude API for {} failure with model={}", request.failureType(), model);
 
-        try {
-            Map<String, Object> body = Map.of(
-                    "model", model,
-                    "max_tokens", 4096,
-                    "system", systemPrompt,
-                    "messages", List.of(
-                            Map.of("role", "user", "content", userPrompt)
-                    )
-            );
-
-            String response = webClient.post()
-                    .uri("/v1/messages")
-                    .header("x-api-key", apiKey)
-                    .header("anthropic-version", "2023-06-01")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            // Extract text content from Claude response
-            var responseNode = objectMapper.readTree(response);
-            String content = responseNode.path("content").get(0).path("text").asText();
-
-            // Clean any markdown wrapping
-            content = content.strip();
-            if (content.startsWith("```json")) {
-                content = content.substring(7);
-            }
-            if (content.startsWith("```")) {
-                content = content.substring(3);
-            }
-            if (content.endsWith("```")) {
-                content = content.substring(0, content.length() - 3);
-            }
-
-            return objectMapper.readValue(content.strip(), HealingPlanResponse.class);
-
-        } catch (Exception e) {
-            log.error("Claude API call failed — falling back to smart analysis", e);
-            // Fallback: Use smart log analysis instead of giving up
-            return generateSmartDemoResponse(request);
-        }
+        // Failures propagate; FallbackHealingLLM answers them with fallbackPlan()
+        return (streaming
+                ? streamClaude(systemPrompt, userPrompt, listener)
+                : callClaude(systemPrompt, userPrompt, "generate", Priority.HEALING)).toFuture();
     }
 
     @Override
     public HealingPlanResponse regenerateFix(HealingRequest request, String previousFixJson, String feedback) {
+        return regenerateFixAsync(request, previousFixJson, feedback).join();
+    }
+
+    @Override
+    public CompletableFuture<HealingPlanResponse> regenerateFixAsync(HealingRequest request,
+                                                                     String previousFixJson, String feedback) {
         if (demoMode) {
             log.info("Demo mode — regenerating fix for {} with feedback: {}",
                     request.failureType(), feedback != null ? feedback : "(none)");
-            return generateSmartDemoResponse(request);
+            return CompletableFuture.completedFuture(generateSmartDemoResponse(request));
         }
 
         String userPrompt = promptRouter.route(request);
@@ -127,39 +136,150 @@ public class ClaudeHealingAdapter implements HealingLLMPort {
         String systemPrompt = promptRouter.getSystemPrompt();
         log.info("Calling Claude API for re-code of {} failure", request.failureType());
 
-        try {
-            Map<String, Object> body = Map.of(
-                    "model", model,
-                    "max_tokens", 4096,
-                    "system", systemPrompt,
-                    "messages", List.of(
-                            Map.of("role", "user", "content", enhanced.toString())
-                    )
-            );
-
-            String response = webClient.post()
+        return callClaude(systemPrompt, enhanced.toString(), "regenerate", Priority.INTERACTIVE).toFuture();
+    }
+
+    /** Local log analysis used when the Claude call fails. */
+    public HealingPlanResponse fallbackPlan(HealingRequest request) {
+        return generateSmartDemoResponse(request);
+    }
+
+    /**
+     * One Messages API round trip, admitted through the {@link LlmAdmissionController}.
+     * A 429 / 529 goes back into the admission queue (which pauses for the
+     * {@code retry-after}) up to {@code rate-limit-retries} times before it is
+     * reported as a failure. Latency is recorded in {@code infraflow.llm.latency}
+     * by operation and outcome; time spent waiting for admission is not included.
+     */
+    private Mono<HealingPlanResponse> callClaude(String systemPrompt, String userPrompt, String operation,
+                                                 Priority priority) {
+        Map<String, Object> body = requestBody(systemPrompt, userPrompt, false);
+        return llmAdmissionController.run(priority, estimateTokens(systemPrompt, userPrompt), () ->
+                        timed(operation, anthropicWebClient.post()
+                                .uri("/v1/messages")
+                                .header("x-api-key", apiKey)
+                                .header("anthropic-version", "2023-06-01")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(body)
+                                .retrieve()
+                                .bodyToMono(String.class)))
+                .retryWhen(rateLimitRetry())
+                .map(this::parsePlan);
+    }
+
+    /**
+     * As {@link #callClaude}, using the streaming Messages API: text deltas are
+     * fed to a {@link StreamingPlanParser} so {@code listener} hears the
+     * summary and fix type as soon as they are generated; the plan is parsed
+     * from the full text once the stream ends.
+     */
+    private Mono<HealingPlanResponse> streamClaude(String systemPrompt, String userPrompt,
+                                                   PlanProgressListener listener) {
+        Map<String, Object> body = requestBody(systemPrompt, userPrompt, true);
+        return llmAdmissionController.run(Priority.HEALING, estimateTokens(systemPrompt, userPrompt), () -> {
+            long start = System.nanoTime();
+            StreamingPlanParser parser = new StreamingPlanParser(objectMapper.getFactory(),
+                    (failureSummary, fixType) -> {
+                        preliminaryLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        listener.onPreliminaryPlan(failureSummary, fixType);
+                    });
+            return timed("stream", anthropicWebClient.post()
                     .uri("/v1/messages")
                     .header("x-api-key", apiKey)
                     .header("anthropic-version", "2023-06-01")
                     .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
                     .bodyValue(body)
                     .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+                    .bodyToFlux(SSE_EVENT)
+                    .doOnNext(event -> onStreamEvent(event, parser))
+                    .then(Mono.fromCallable(parser::text)));
+        }).retryWhen(rateLimitRetry()).map(this::parsePlanText);
+    }
+
+    private void onStreamEvent(ServerSentEvent<String> event, StreamingPlanParser parser) {
+        String type = event.event();
+        if ("content_block_delta".equals(type)) {
+            JsonNode delta = readTree(event.data()).path("delta");
+            if ("text_delta".equals(delta.path("type").asText())) {
+                parser.accept(delta.path("text").asText());
+            }
+        } else if ("error".equals(type)) {
+            throw new IllegalStateException("Claude stream error: " + event.data());
+        }
+    }
+
+    private Map<String, Object> requestBody(String systemPrompt, String userPrompt, boolean stream) {
+        return Map.of(
+                "model", model,
+                "max_tokens", MAX_TOKENS,
+                "stream", stream,
+                "system", systemPrompt,
+                "messages", List.of(
+                        Map.of("role", "user", "content", userPrompt)
+                )
+        );
+    }
+
+    private Retry rateLimitRetry() {
+        return Retry.max(rateLimitRetries)
+                .filter(LlmAdmissionController::isThrottled)
+                .doBeforeRetry(signal -> log.warn("Claude API rate limited — re-queueing request (retry {})",
+                        signal.totalRetries() + 1))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
 
-            var responseNode = objectMapper.readTree(response);
-            String content = responseNode.path("content").get(0).path("text").asText();
+    /** Rough input size (~4 characters per token) plus the full output allowance. */
+    private static long estimateTokens(String systemPrompt, String userPrompt) {
+        return (systemPrompt.length() + userPrompt.length()) / 4 + MAX_TOKENS;
+    }
+
+    private <T> Mono<T> timed(String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnEach(signal -> {
+                if (signal.isOnNext() || signal.isOnError()) {
+                    Timer.builder("infraflow.llm.latency")
+                            .tag("operation", operation)
+                            .tag("outcome", signal.isOnNext() ? "success" : "error")
+                            .publishPercentileHistogram()
+                            .register(meterRegistry)
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        });
+    }
 
-            content = content.strip();
-            if (content.startsWith("```json")) content = content.substring(7);
-            if (content.startsWith("```")) content = content.substring(3);
-            if (content.endsWith("```")) content = content.substring(0, content.length() - 3);
+    private HealingPlanResponse parsePlan(String response) {
+        // Extract text content from Claude response
+        String content = readTree(response).path("content").get(0).path("text").asText();
+        return parsePlanText(content);
+    }
 
+    private HealingPlanResponse parsePlanText(String content) {
+        // Clean any markdown wrapping
+        content = content.strip();
+        if (content.startsWith("```json")) {
+            content = content.substring(7);
+        }
+        if (content.startsWith("```")) {
+            content = content.substring(3);
+        }
+        if (content.endsWith("```")) {
+            content = content.substring(0, content.length() - 3);
+        }
+        try {
             return objectMapper.readValue(content.strip(), HealingPlanResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Claude re-code API call failed — falling back to smart analysis", e);
-            return generateSmartDemoResponse(request);
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
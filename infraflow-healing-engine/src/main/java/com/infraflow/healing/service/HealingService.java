@@ -4,25 +4,58 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infraflow.common.dto.HealingPlanResponse;
 import com.infraflow.common.dto.HealingRequest;
 import com.infraflow.common.enums.*;
+import com.infraflow.common.event.HealingEventMessage;
+import com.infraflow.common.event.PipelineEventMessage;
 import com.infraflow.common.model.FixAuditLog;
 import com.infraflow.common.model.HealingSession;
 import com.infraflow.common.model.PipelineEvent;
 import com.infraflow.healing.classifier.FailureClassifier;
+import com.infraflow.healing.knowledge.ErrorSignature;
 import com.infraflow.healing.knowledge.KnowledgeBaseService;
+import com.infraflow.healing.knowledge.node.FailurePatternNode;
+import com.infraflow.healing.pipeline.HealingContext;
+import com.infraflow.healing.pipeline.HealingStage;
 import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.port.PlanProgressListener;
 import com.infraflow.healing.repository.FixAuditLogRepository;
 import com.infraflow.healing.repository.HealingSessionRepository;
 import com.infraflow.healing.repository.PipelineEventRepository;
+import com.infraflow.healing.scheduling.HealingScheduler;
+import com.infraflow.healing.scheduling.HealingTenant;
+import com.infraflow.healing.scheduling.TenantResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -37,8 +70,14 @@ public class HealingService {
     private final FixExecutorService fixExecutor;
     private final SecurityScannerService securityScannerService;
     private final ObjectMapper objectMapper;
-    private final KafkaTemplate<String, Map<String, Object>> kafkaTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
     private final KnowledgeBaseService knowledgeBaseService;
+    private final RawLogResolver rawLogResolver;
+    private final HealingScheduler healingScheduler;
+    private final TenantResolver tenantResolver;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<HealingStage, Timer> stageTimers = new EnumMap<>(HealingStage.class);
 
     @Value("${infraflow.healing.confidence-threshold:0.75}")
     private double confidenceThreshold;
@@ -52,124 +91,392 @@ public class HealingService {
     @Value("${infraflow.kafka.topic.healing-events}")
     private String healingEventsTopic;
 
+    /** 0: two per concurrent ANALYZE stage (classification and KB prefetch). */
+    @Value("${infraflow.healing.analysis.threads:0}")
+    private int analysisThreads;
+
+    @Value("${infraflow.healing.session-writes.threads:2}")
+    private int sessionWriteThreads;
+
+    @Value("${infraflow.consumer.mode:sequential}")
+    private String consumerMode;
+
+    @Value("${infraflow.consumer.parallel.workers:8}")
+    private int consumerWorkers;
+
+    @Value("${infraflow.healing.pipeline.analyze.threads:0}")
+    private int analyzeStageThreads;
+
+    @Value("${infraflow.healing.analysis.classify-timeout-ms:5000}")
+    private long classifyTimeoutMs;
+
+    @Value("${infraflow.healing.analysis.kb-prefetch-timeout-ms:2000}")
+    private long kbPrefetchTimeoutMs;
+
+    @Value("${infraflow.healing.analysis.security-scan-timeout-ms:30000}")
+    private long securityScanTimeoutMs;
+
+    private ExecutorService analysisPool;
+    private ExecutorService sessionWritePool;
+    private ExecutorService securityScanPool;
+
+    @PostConstruct
+    void startExecutors() {
+        // Only ANALYZE forks onto this pool, at most two branches per event, so with this sizing a
+        // branch starts at once and its timeout is spent running; a full pool means stuck branches
+        int forkThreads = analysisThreads > 0 ? analysisThreads : 2 * analyzeConcurrency();
+        analysisPool = new ThreadPoolExecutor(forkThreads, forkThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(forkThreads), daemonThreads("healing-analysis-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Session updates that arrive on LLM response threads, kept off the analysis fork
+        sessionWritePool = Executors.newFixedThreadPool(sessionWriteThreads, daemonThreads("healing-session-write-"));
+        // Scans are best-effort: when this backlog is full new ones are skipped, never queued on the caller
+        securityScanPool = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), daemonThreads("security-scan-"), new ThreadPoolExecutor.AbortPolicy());
+        for (HealingStage stage : HealingStage.values()) {
+            stageTimers.put(stage, Timer.builder("infraflow.healing.stage.duration")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .description("Time from starting a healing stage to its result, in every consumer mode")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        analysisPool.shutdown();
+        sessionWritePool.shutdown();
+        securityScanPool.shutdown();
+    }
+
+    /** How many ANALYZE stages can run at once in the configured consumer mode. */
+    private int analyzeConcurrency() {
+        return switch (consumerMode) {
+            case "staged" -> analyzeStageThreads > 0 ? analyzeStageThreads : Runtime.getRuntime().availableProcessors();
+            case "parallel" -> consumerWorkers;
+            default -> 1;
+        };
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger ids = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
     @Transactional
-    public PipelineEvent persistPipelineEvent(Map<String, Object> eventData) {
+    public PipelineEvent persistPipelineEvent(PipelineEventMessage eventData) {
         PipelineEvent pipelineEvent = PipelineEvent.builder()
-                .repoUrl((String) eventData.get("repoUrl"))
-                .repoName((String) eventData.get("repoName"))
-                .branch((String) eventData.get("branch"))
-                .commitSha((String) eventData.get("commitSha"))
-                .provider((String) eventData.get("provider"))
+                .repoUrl(eventData.repoUrl())
+                .repoName(eventData.repoName())
+                .branch(eventData.branch())
+                .commitSha(eventData.commitSha())
+                .provider(eventData.provider())
                 .status(PipelineStatus.FAILED)
-                .workflowRunId(eventData.get("workflowRunId") != null
-                        ? ((Number) eventData.get("workflowRunId")).longValue() : null)
-                .workflowName((String) eventData.get("workflowName"))
+                .workflowRunId(eventData.workflowRunId() != 0 ? eventData.workflowRunId() : null)
+                .workflowName(eventData.workflowName())
+                .triggeredAt(eventData.triggeredAt())
+                .completedAt(eventData.completedAt())
+                .failedStep(eventData.failedStep())
                 .build();
         return eventRepository.save(pipelineEvent);
     }
 
-    public void initiateHealing(Map<String, Object> eventData) {
+    /**
+     * Heals a failed pipeline by running every {@link HealingStage} in turn on
+     * the calling thread. The staged pipeline runs the same stages on separate
+     * executors.
+     */
+    public void initiateHealing(PipelineEventMessage eventData) {
+        HealingContext ctx = new HealingContext(eventData);
+        HealingStage stage = HealingStage.PERSIST;
+        while (stage != null) {
+            stage = runStage(stage, ctx).join();
+        }
+    }
+
+    /**
+     * Runs one stage and yields the stage to run next, or {@code null} when
+     * healing is done. Only {@link HealingStage#LLM} completes asynchronously;
+     * it does no more than store the plan (or failure) on the context, so it
+     * is safe to continue from whichever thread completes it.
+     */
+    public CompletableFuture<HealingStage> runStage(HealingStage stage, HealingContext ctx) {
+        long start = System.nanoTime();
+        return dispatch(stage, ctx).whenComplete((next, ex) ->
+                stageTimers.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private CompletableFuture<HealingStage> dispatch(HealingStage stage, HealingContext ctx) {
+        if (stage == HealingStage.LLM) {
+            return llmStage(ctx);
+        }
+        try {
+            return CompletableFuture.completedFuture(switch (stage) {
+                case PERSIST -> persistStage(ctx);
+                case ANALYZE -> analyzeStage(ctx);
+                case KNOWLEDGE -> knowledgeStage(ctx);
+                case DECIDE -> decideStage(ctx);
+                case APPLY -> applyStage(ctx);
+                case LLM -> throw new IllegalStateException("unreachable");
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HealingStage persistStage(HealingContext ctx) {
         // 1. Persist the pipeline event (separate transaction — always committed)
-        PipelineEvent pipelineEvent = persistPipelineEvent(eventData);
+        PipelineEvent pipelineEvent = persistPipelineEvent(ctx.getEventData());
         log.info("Persisted pipeline event: id={}, repo={}", pipelineEvent.getId(), pipelineEvent.getRepoName());
+        ctx.setPipelineEvent(pipelineEvent);
+        ctx.setLogs(rawLogResolver.resolve(ctx.getEventData()));
+        return HealingStage.ANALYZE;
+    }
+
+    private HealingStage analyzeStage(HealingContext ctx) {
+        PipelineEvent pipelineEvent = ctx.getPipelineEvent();
+        String logs = ctx.getLogs();
+
+        // 2. Run security scan on the raw logs (best-effort, off the critical path)
+        scanInBackground(pipelineEvent, logs);
+
+        // 3. Classify the failure while the KB patterns for its signature are prefetched
+        ErrorSignature signature = kbEnabled ? ErrorSignature.of(logs) : null;
+        CompletableFuture<FailureType> classification = fork(() -> classifier.classify(logs));
+        CompletableFuture<Map<String, FailurePatternNode>> prefetch = kbEnabled
+                ? fork(() -> knowledgeBaseService.prefetchPatterns(signature))
+                : CompletableFuture.completedFuture(null);
 
-        // 2. Run security scan on the raw logs (best-effort – never blocks healing)
-        String logs = (String) eventData.getOrDefault("rawLogs", "");
+        FailureType failureType = await(classification, classifyTimeoutMs, FailureType.UNKNOWN,
+                "classification", pipelineEvent);
+        log.info("Classified failure as: {} (failed step: {})", failureType,
+                ctx.getEventData().failedStep() != null ? ctx.getEventData().failedStep() : "unknown");
+        ctx.setFailureType(failureType);
+
+        // 4. Create healing session (overlaps with the KB prefetch)
+        ctx.setSession(createHealingSession(pipelineEvent, failureType));
+
+        if (kbEnabled) {
+            ctx.setPrefetchedPatterns(await(prefetch, kbPrefetchTimeoutMs, null, "KB prefetch", pipelineEvent));
+            ctx.setErrorSignature(signature);
+        }
+        return kbEnabled ? HealingStage.KNOWLEDGE : HealingStage.LLM;
+    }
+
+    private void scanInBackground(PipelineEvent pipelineEvent, String logs) {
         try {
-            securityScannerService.scanPipelineEvent(pipelineEvent, logs);
-        } catch (Exception e) {
-            log.warn("Security scan failed for event {}: {}", pipelineEvent.getId(), e.getMessage());
+            CompletableFuture.runAsync(() -> securityScannerService.scanPipelineEvent(pipelineEvent, logs), securityScanPool)
+                    .orTimeout(securityScanTimeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        log.warn("Security scan failed for event {}: {}", pipelineEvent.getId(), e.toString());
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            log.warn("Security scan queue full — skipping scan for event {}", pipelineEvent.getId());
+        }
+    }
+
+    /**
+     * Runs one branch of the analysis fork on the analysis pool. Cancelling
+     * the returned future interrupts the branch if it has started. When the
+     * pool is saturated the branch fails at once rather than queueing.
+     */
+    private <T> CompletableFuture<T> fork(Supplier<T> branch) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            Future<?> running = analysisPool.submit(() -> {
+                try {
+                    result.complete(branch.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            result.whenComplete((value, ex) -> {
+                if (result.isCancelled()) running.cancel(true);
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
         }
+        return result;
+    }
 
-        // 3. Classify the failure
-        FailureType failureType = classifier.classify(logs);
-        log.info("Classified failure as: {}", failureType);
+    /**
+     * Joins one branch of the analysis fork, giving up on it after
+     * {@code timeoutMs}. A branch that fails or times out yields {@code fallback}.
+     */
+    private <T> T await(CompletableFuture<T> branch, long timeoutMs, T fallback, String name, PipelineEvent event) {
+        try {
+            return branch.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            branch.cancel(true);
+            log.warn("{} for event {} timed out after {} ms", name, event.getId(), timeoutMs);
+        } catch (ExecutionException e) {
+            log.warn("{} for event {} failed: {}", name, event.getId(), e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            branch.cancel(true);
+        }
+        return fallback;
+    }
 
-        // 4. Create healing session
-        HealingSession session = createHealingSession(pipelineEvent, failureType);
+    private HealingStage knowledgeStage(HealingContext ctx) {
+        PipelineEvent pipelineEvent = ctx.getPipelineEvent();
+        HealingSession session = ctx.getSession();
 
         // 5. Fast path: check Knowledge Base before calling LLM
-        if (kbEnabled) {
-            Optional<HealingPlanResponse> cached = knowledgeBaseService.findCachedFix(
-                    failureType.name(), pipelineEvent.getRepoName(), logs);
-            if (cached.isPresent()) {
-                HealingPlanResponse plan = cached.get();
-                log.info("Knowledge Base HIT — using cached fix for session {}, failureType={}",
-                        session.getId(), failureType);
-                updateSessionWithPlan(session, plan);
-                audit(session, AuditAction.FIX_GENERATED, "KNOWLEDGE_BASE",
-                        "Cached fix applied | Confidence: " + plan.confidenceScore());
+        ErrorSignature signature = ctx.getErrorSignature() != null
+                ? ctx.getErrorSignature() : ErrorSignature.of(ctx.getLogs());
+        Optional<HealingPlanResponse> cached = knowledgeBaseService.findCachedFix(
+                ctx.getFailureType().name(), pipelineEvent.getRepoName(), signature, ctx.getPrefetchedPatterns());
+        if (cached.isEmpty()) {
+            return HealingStage.LLM;
+        }
 
-                if ("ESCALATE".equals(plan.fixType()) || plan.confidenceScore() < confidenceThreshold) {
-                    session.setStatus(HealingStatus.ESCALATED);
-                } else if (autoApply) {
-                    session.setStatus(HealingStatus.APPLYING);
-                    sessionRepository.save(session);
-                    applyFix(session, plan);
-                    return;
-                } else {
-                    session.setStatus(HealingStatus.PENDING_APPROVAL);
-                }
-                sessionRepository.save(session);
-                eventRepository.save(pipelineEvent);
-                publishHealingEvent(session, pipelineEvent);
-                return;  // Skip LLM call entirely
-            }
+        HealingPlanResponse plan = cached.get();
+        log.info("Knowledge Base HIT — using cached fix for session {}, failureType={}",
+                session.getId(), ctx.getFailureType());
+        updateSessionWithPlan(session, plan);
+        audit(session, AuditAction.FIX_GENERATED, "KNOWLEDGE_BASE",
+                "Cached fix applied | Confidence: " + plan.confidenceScore());
+
+        if ("ESCALATE".equals(plan.fixType()) || plan.confidenceScore() < confidenceThreshold) {
+            session.setStatus(HealingStatus.ESCALATED);
+        } else if (autoApply) {
+            ctx.setPlan(plan);
+            return HealingStage.APPLY;
+        } else {
+            session.setStatus(HealingStatus.PENDING_APPROVAL);
+        }
+        sessionRepository.save(session);
+        eventRepository.save(pipelineEvent);
+        publishHealingEvent(session, pipelineEvent);
+        return null;  // Skip LLM call entirely
+    }
+
+    private CompletableFuture<HealingStage> llmStage(HealingContext ctx) {
+        // 6. Attempt LLM fix generation (non-blocking)
+        HealingRequest request = new HealingRequest(
+                ctx.getLogs(),
+                "Java",
+                "Maven",
+                ctx.getFailureType().name(),
+                null, null, "ci",
+                null, null, null, null
+        );
+        // The preliminary update runs on the session-write pool (the listener
+        // is called on the response thread) and DECIDE waits for it, so the
+        // session is never written by two threads at once
+        AtomicReference<CompletableFuture<Void>> preliminary =
+                new AtomicReference<>(CompletableFuture.completedFuture(null));
+        PlanProgressListener listener = (failureSummary, fixType) -> preliminary.set(
+                CompletableFuture.runAsync(() -> publishPreliminaryPlan(ctx, failureSummary, fixType), sessionWritePool)
+                        .exceptionally(ex -> {
+                            log.warn("Failed to publish preliminary plan for session {}: {}",
+                                    ctx.getSession().getId(), ex.getMessage());
+                            return null;
+                        }));
+
+        // Fair share across tenants: a burst from one repo or user does not hold up the others
+        PipelineEvent pipelineEvent = ctx.getPipelineEvent();
+        CompletableFuture<HealingPlanResponse> plan;
+        try {
+            HealingTenant tenant = tenantResolver.resolve(pipelineEvent.getRepoName());
+            plan = healingScheduler.submit(tenant, tenant.isDefaultBranch(pipelineEvent.getBranch()),
+                    () -> healingLLM.generateFixAsync(request, listener));
+        } catch (RuntimeException e) {
+            plan = CompletableFuture.failedFuture(e);
         }
+        return plan.handle((generated, ex) -> {
+            ctx.setPlan(generated);
+            ctx.setLlmFailure(ex);
+            return preliminary.get();
+        }).thenCompose(done -> done.thenApply(v -> HealingStage.DECIDE));
+    }
 
-        // 6. Attempt LLM fix generation
+    /**
+     * Shows the streamed failure summary and fix type on the dashboard while
+     * the file changes are still being generated. The session stays ANALYZING;
+     * DECIDE overwrites both fields with the final plan.
+     */
+    private void publishPreliminaryPlan(HealingContext ctx, String failureSummary, String fixType) {
+        HealingSession session = ctx.getSession();
+        session.setFailureSummary(failureSummary);
         try {
-            HealingRequest request = new HealingRequest(
-                    logs,
-                    "Java",
-                    "Maven",
-                    failureType.name(),
-                    null, null, "ci",
-                    null, null, null, null
-            );
+            session.setFixType(FixType.valueOf(fixType));
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring unknown preliminary fix type {}", fixType);
+        }
+        sessionRepository.save(session);
+        publishHealingEvent(session, ctx.getPipelineEvent());
+        log.info("Preliminary plan published for session {}: {}", session.getId(), fixType);
+    }
+
+    private HealingStage decideStage(HealingContext ctx) {
+        PipelineEvent pipelineEvent = ctx.getPipelineEvent();
+        HealingSession session = ctx.getSession();
+        String logs = ctx.getLogs();
 
-            HealingPlanResponse plan = healingLLM.generateFix(request);
+        Throwable failure = ctx.getLlmFailure() instanceof CompletionException ce && ce.getCause() != null
+                ? ce.getCause() : ctx.getLlmFailure();
+        if (failure == null) {
+            try {
+                HealingPlanResponse plan = ctx.getPlan();
 
-            // 7. Update session with the fix plan
-            updateSessionWithPlan(session, plan);
+                // 7. Update session with the fix plan
+                updateSessionWithPlan(session, plan);
 
-            audit(session, AuditAction.FIX_GENERATED, "AI",
-                    "Confidence: " + plan.confidenceScore() + " | Type: " + plan.fixType());
+                audit(session, AuditAction.FIX_GENERATED, "AI",
+                        "Confidence: " + plan.confidenceScore() + " | Type: " + plan.fixType());
 
-            // Store fix in Knowledge Base for future fast-path hits
-            if (kbEnabled) {
-                try {
-                    knowledgeBaseService.storeFix(session, plan, logs);
-                } catch (Exception e) {
-                    log.warn("Failed to store fix in Knowledge Base: {}", e.getMessage());
+                // Store fix in Knowledge Base for future fast-path hits
+                if (kbEnabled) {
+                    try {
+                        knowledgeBaseService.storeFix(session, plan, logs);
+                    } catch (Exception e) {
+                        log.warn("Failed to store fix in Knowledge Base: {}", e.getMessage());
+                    }
                 }
-            }
 
-            // 8. Decision: auto-apply, require approval, or escalate
-            if ("ESCALATE".equals(plan.fixType()) || plan.confidenceScore() < confidenceThreshold) {
-                session.setStatus(HealingStatus.ESCALATED);
-                audit(session, AuditAction.ESCALATED, "AI",
-                        "Confidence " + plan.confidenceScore() + " below threshold " + confidenceThreshold);
-                pipelineEvent.setStatus(PipelineStatus.ESCALATED);
-            } else if (autoApply) {
-                session.setStatus(HealingStatus.APPLYING);
-                sessionRepository.save(session);
-                applyFix(session, plan);
-                return;
-            } else {
-                session.setStatus(HealingStatus.PENDING_APPROVAL);
+                // 8. Decision: auto-apply, require approval, or escalate
+                if ("ESCALATE".equals(plan.fixType()) || plan.confidenceScore() < confidenceThreshold) {
+                    session.setStatus(HealingStatus.ESCALATED);
+                    audit(session, AuditAction.ESCALATED, "AI",
+                            "Confidence " + plan.confidenceScore() + " below threshold " + confidenceThreshold);
+                    pipelineEvent.setStatus(PipelineStatus.ESCALATED);
+                } else if (autoApply) {
+                    return HealingStage.APPLY;
+                } else {
+                    session.setStatus(HealingStatus.PENDING_APPROVAL);
+                }
+            } catch (Exception e) {
+                failure = e;
             }
-        } catch (Exception e) {
-            log.error("LLM fix generation failed — escalating session {}", session.getId(), e);
+        }
+
+        if (failure != null) {
+            log.error("LLM fix generation failed — escalating session {}", session.getId(), failure);
             session.setStatus(HealingStatus.ESCALATED);
-            session.setFailureSummary("AI analysis failed: " + e.getMessage());
-            audit(session, AuditAction.ESCALATED, "AI", "LLM call failed: " + e.getMessage());
+            session.setFailureSummary("AI analysis failed: " + failure.getMessage());
+            audit(session, AuditAction.ESCALATED, "AI", "LLM call failed: " + failure.getMessage());
             pipelineEvent.setStatus(PipelineStatus.ESCALATED);
         }
 
         sessionRepository.save(session);
         eventRepository.save(pipelineEvent);
         publishHealingEvent(session, pipelineEvent);
+        return null;
+    }
+
+    private HealingStage applyStage(HealingContext ctx) {
+        HealingSession session = ctx.getSession();
+        session.setStatus(HealingStatus.APPLYING);
+        sessionRepository.save(session);
+        applyFix(session, ctx.getPlan());
+        return null;
     }
 
     @Transactional
@@ -270,6 +577,8 @@ public class HealingService {
     /**
      * Regenerate a fix: rejects the current session, creates a new one
      * linked via parent_session_id, and re-runs the LLM with feedback context.
+     * Returns the new session while it is still ANALYZING; the plan is filled
+     * in, and a healing event published, when the LLM answers.
      */
     @Transactional
     public HealingSession regenerateFix(Long sessionId, String feedback) {
@@ -305,40 +614,67 @@ public class HealingService {
         log.info("Regenerating fix for session {} → new session {} (attempt #{})",
                 sessionId, newSession.getId(), newSession.getAttemptNumber());
 
-        // Re-run LLM with feedback context (async-style but synchronous for now)
+        // Re-run the LLM with feedback context once the new session is committed;
+        // the controller answers "regenerating" without waiting for the plan
+        PipelineEvent event = original.getPipelineEvent();
+        HealingRequest request = new HealingRequest(
+                event.getRawLogs() != null ? event.getRawLogs() : "", "Java", "Maven",
+                original.getFailureType().name(),
+                null, null, "ci",
+                null, null, null, null
+        );
+        String previousFixJson = original.getFixPlanJson();
+        HealingSession regenerating = newSession;
+        afterCommit(() -> regenerateInBackground(regenerating, request, previousFixJson, feedback));
+
+        return newSession;
+    }
+
+    private void regenerateInBackground(HealingSession session, HealingRequest request,
+                                        String previousFixJson, String feedback) {
+        CompletableFuture<HealingPlanResponse> plan;
         try {
-            PipelineEvent event = original.getPipelineEvent();
-            String logs = event.getRawLogs() != null ? event.getRawLogs() : "";
-
-            HealingRequest request = new HealingRequest(
-                    logs, "Java", "Maven",
-                    original.getFailureType().name(),
-                    null, null, "ci",
-                    null, null, null, null
-            );
-
-            HealingPlanResponse plan = healingLLM.regenerateFix(
-                    request, original.getFixPlanJson(), feedback);
-
-            updateSessionWithPlan(newSession, plan);
-            audit(newSession, AuditAction.FIX_GENERATED, "AI",
-                    "Re-code confidence: " + plan.confidenceScore());
-
-            if ("ESCALATE".equals(plan.fixType()) || plan.confidenceScore() < confidenceThreshold) {
-                newSession.setStatus(HealingStatus.ESCALATED);
-            } else {
-                newSession.setStatus(HealingStatus.PENDING_APPROVAL);
-            }
-        } catch (Exception e) {
-            log.error("Re-code LLM call failed for session {}", newSession.getId(), e);
-            newSession.setStatus(HealingStatus.ESCALATED);
-            newSession.setFailureSummary("Re-code failed: " + e.getMessage());
+            plan = healingLLM.regenerateFixAsync(request, previousFixJson, feedback);
+        } catch (RuntimeException e) {
+            plan = CompletableFuture.failedFuture(e);
         }
+        // The LLM client completes on its I/O thread; persist from the session-write pool instead
+        plan.whenCompleteAsync((result, ex) -> {
+            try {
+                if (ex == null) {
+                    updateSessionWithPlan(session, result);
+                    audit(session, AuditAction.FIX_GENERATED, "AI",
+                            "Re-code confidence: " + result.confidenceScore());
+                    if ("ESCALATE".equals(result.fixType()) || result.confidenceScore() < confidenceThreshold) {
+                        session.setStatus(HealingStatus.ESCALATED);
+                    } else {
+                        session.setStatus(HealingStatus.PENDING_APPROVAL);
+                    }
+                } else {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    log.error("Re-code LLM call failed for session {}", session.getId(), cause);
+                    session.setStatus(HealingStatus.ESCALATED);
+                    session.setFailureSummary("Re-code failed: " + cause.getMessage());
+                }
+                sessionRepository.save(session);
+                publishHealingEvent(session, session.getPipelineEvent());
+            } catch (Exception e) {
+                log.error("Failed to record re-code result for session {}", session.getId(), e);
+            }
+        }, sessionWritePool);
+    }
 
-        sessionRepository.save(newSession);
-        publishHealingEvent(newSession, newSession.getPipelineEvent());
-
-        return newSession;
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private void audit(HealingSession session, AuditAction action, String actor, String notes) {
@@ -352,15 +688,15 @@ public class HealingService {
     }
 
     private void publishHealingEvent(HealingSession session, PipelineEvent event) {
-        Map<String, Object> healingEvent = Map.of(
-                "sessionId", session.getId(),
-                "pipelineEventId", event.getId(),
-                "repoName", event.getRepoName() != null ? event.getRepoName() : "",
-                "failureType", session.getFailureType().name(),
-                "healingStatus", session.getStatus().name(),
-                "confidence", session.getConfidenceScore() != null ? session.getConfidenceScore() : 0.0,
-                "fixBranch", session.getFixBranch() != null ? session.getFixBranch() : "",
-                "summary", session.getFailureSummary() != null ? session.getFailureSummary() : ""
+        HealingEventMessage healingEvent = new HealingEventMessage(
+                session.getId(),
+                event.getId(),
+                event.getRepoName() != null ? event.getRepoName() : "",
+                session.getFailureType(),
+                session.getStatus(),
+                session.getConfidenceScore() != null ? session.getConfidenceScore() : 0.0,
+                session.getFixBranch() != null ? session.getFixBranch() : "",
+                session.getFailureSummary() != null ? session.getFailureSummary() : ""
         );
         kafkaTemplate.send(healingEventsTopic, event.getRepoName(), healingEvent);
     }
@@ -0,0 +1,45 @@
+package com.infraflow.healing.service;
+
+import com.infraflow.common.blob.BlobStore;
+import com.infraflow.common.event.PipelineEventMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Resolves the raw CI log of a pipeline event. Small logs arrive inline as
+ * {@code rawLogs}; large ones arrive as a {@code rawLogsRef} claim check and
+ * are only read from the {@link BlobStore} here — i.e. only for events that
+ * actually get analysed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RawLogResolver {
+
+    private final BlobStore blobStore;
+
+    /** Returns the log text, or an empty string if the event carries none or the blob is gone. */
+    public String resolve(PipelineEventMessage event) {
+        if (event.rawLogs() != null) {
+            return event.rawLogs();
+        }
+        String digest = event.rawLogsRef();
+        if (digest != null) {
+            try {
+                String logs = blobStore.getString(digest).orElse(null);
+                if (logs == null) {
+                    log.warn("Raw log blob {} not found — continuing without logs", digest);
+                    return "";
+                }
+                log.info("Loaded {} chars of raw logs from blob {}", logs.length(), digest);
+                return logs;
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Failed to read raw log blob {}: {}", digest, e.getMessage());
+            }
+        }
+        return "";
+    }
+}
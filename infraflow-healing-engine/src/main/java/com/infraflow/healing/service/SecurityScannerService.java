@@ -1,5 +1,6 @@
 package com.infraflow.healing.service;
 
+import com.infraflow.common.event.SecurityEventMessage;
 import com.infraflow.common.model.PipelineEvent;
 import com.infraflow.common.model.SecurityScanResult;
 import com.infraflow.healing.repository.SecurityScanResultRepository;
@@ -12,7 +13,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,7 +36,7 @@ import java.util.regex.Pattern;
 public class SecurityScannerService {
 
     private final SecurityScanResultRepository scanResultRepository;
-    private final KafkaTemplate<String, Map<String, Object>> kafkaTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
 
     @Value("${infraflow.kafka.topic.security-events:pipeline.events.security}")
     private String securityEventsTopic;
@@ -353,16 +353,16 @@ public class SecurityScannerService {
 
         // Publish summary event to Kafka so Dashboard can push real-time alerts via WebSocket
         try {
-            Map<String, Object> securityEvent = Map.of(
-                    "repoName",      repoName,
-                    "branch",        branch != null ? branch : "",
-                    "commitSha",     commitSha != null ? commitSha : "",
-                    "totalFindings", findings.size(),
-                    "critical",      criticalCount,
-                    "high",          highCount,
-                    "medium",        mediumCount,
-                    "low",           lowCount,
-                    "pipelineEventId", event.getId()
+            SecurityEventMessage securityEvent = new SecurityEventMessage(
+                    repoName,
+                    branch != null ? branch : "",
+                    commitSha != null ? commitSha : "",
+                    findings.size(),
+                    criticalCount,
+                    highCount,
+                    mediumCount,
+                    lowCount,
+                    event.getId()
             );
             kafkaTemplate.send(securityEventsTopic, repoName, securityEvent);
         } catch (Exception e) {
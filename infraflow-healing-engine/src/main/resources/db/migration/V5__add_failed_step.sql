@@ -0,0 +1,7 @@
+-- =====================================================
+-- V5: Failed GitHub Actions step recognised by the normalizer
+--     (raw_logs / rawLogsRef then hold only that step)
+-- =====================================================
+
+ALTER TABLE pipeline_events
+    ADD COLUMN IF NOT EXISTS failed_step TEXT;
@@ -0,0 +1,50 @@
+package com.infraflow.healing.consumer;
+
+import com.infraflow.common.event.EventHeaders;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FailedPipelineEventFilterTest {
+
+    private final FailedPipelineEventFilter filter = new FailedPipelineEventFilter();
+
+    @Test
+    void keepsFailedEvents() {
+        assertThat(filter.filter(record("event", "FAILED"))).isFalse();
+    }
+
+    @Test
+    void dropsOtherStatuses() {
+        assertThat(filter.filter(record("event", "RUNNING"))).isTrue();
+        assertThat(filter.filter(record("event", "SUCCESS"))).isTrue();
+    }
+
+    @Test
+    void keepsEventsWithoutStatusHeader() {
+        assertThat(filter.filter(record("event", null))).isFalse();
+    }
+
+    @Test
+    void dropsRecordsTheDeserializerSkipped() {
+        assertThat(filter.filter(record(null, "FAILED"))).isTrue();
+    }
+
+    @Test
+    void dropsSkippedRecordsWithoutStatusHeader() {
+        assertThat(filter.filter(record(null, null))).isTrue();
+    }
+
+    @Test
+    void dropsUnknownStatuses() {
+        assertThat(filter.filter(record("event", "failed"))).isTrue();
+        assertThat(filter.filter(record("event", ""))).isTrue();
+    }
+
+    private static ConsumerRecord<String, Object> record(Object value, String status) {
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("pipeline.events.raw", 0, 0L, "acme/shop:9fceb02", value);
+        EventHeaders.put(record.headers(), EventHeaders.PIPELINE_STATUS, status);
+        return record;
+    }
+}
@@ -0,0 +1,168 @@
+package com.infraflow.healing.consumer;
+
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.RetriableCommitFailedException;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionOffsetTrackerTest {
+
+    private static final TopicPartition P0 = new TopicPartition("pipeline.events.raw", 0);
+    private static final TopicPartition P1 = new TopicPartition("pipeline.events.raw", 1);
+
+    private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+    private final Map<String, PartitionOffsetTracker.Dispatch> dispatches = new HashMap<>();
+    private MockConsumer<String, Object> consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(P0, P1));
+    }
+
+    @Test
+    void commitsUpToTheFirstRecordStillInFlight() {
+        dispatch(P0, 10, 11, 12, 13);
+        complete(P0, 10);
+        complete(P0, 12);
+        complete(P0, 13);
+
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isEqualTo(11);
+    }
+
+    @Test
+    void outOfOrderCompletionAdvancesOnceTheGapCloses() {
+        dispatch(P0, 10, 11, 12);
+        complete(P0, 12);
+        complete(P0, 11);
+        tracker.commit(consumer);
+        assertThat(committed(P0)).isEqualTo(10);
+
+        complete(P0, 10);
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isEqualTo(13);
+    }
+
+    @Test
+    void partitionsAreTrackedIndependently() {
+        dispatch(P0, 5, 6);
+        dispatch(P1, 100);
+        complete(P1, 100);
+
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isEqualTo(5);
+        assertThat(committed(P1)).isEqualTo(101);
+    }
+
+    @Test
+    void doesNotCommitAgainUntilTheOffsetMoves() {
+        dispatch(P0, 1);
+        complete(P0, 1);
+        tracker.commit(consumer);
+        consumer.commitSync(Map.of(P0, new OffsetAndMetadata(0)));
+
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isZero();
+    }
+
+    @Test
+    void revocationCommitsTheCompletedPrefixAndForgetsThePartition() {
+        dispatch(P0, 20, 21, 22);
+        complete(P0, 20);
+
+        tracker.onPartitionsRevokedBeforeCommit(consumer, List.of(P0));
+        assertThat(committed(P0)).isEqualTo(21);
+
+        // Work still running for the revoked partition completes late
+        complete(P0, 21);
+        complete(P0, 22);
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isEqualTo(21);
+    }
+
+    @Test
+    void lateCompletionFromAnEarlierAssignmentDoesNotReleaseTheRedeliveredRecord() {
+        dispatch(P0, 40, 41);
+        PartitionOffsetTracker.Dispatch stale = dispatches.get(P0 + "@41");
+        complete(P0, 40);
+        tracker.onPartitionsRevokedBeforeCommit(consumer, List.of(P0));
+        assertThat(committed(P0)).isEqualTo(41);
+
+        // Re-assigned: 41 is redelivered and running again, 42 is new and done
+        dispatch(P0, 41, 42);
+        complete(P0, 42);
+        // The worker from the first assignment finishes 41 late
+        tracker.completed(stale);
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isEqualTo(41);
+
+        complete(P0, 41);
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isEqualTo(43);
+    }
+
+    @Test
+    void failedAsyncCommitIsRetried() {
+        MockConsumer<String, Object> failing = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets,
+                                                 OffsetCommitCallback callback) {
+                callback.onComplete(offsets, new RetriableCommitFailedException("broker unavailable"));
+            }
+        };
+        failing.assign(List.of(P0));
+        dispatch(P0, 50);
+        complete(P0, 50);
+        tracker.commit(failing);
+
+        tracker.commit(consumer);
+
+        assertThat(committed(P0)).isEqualTo(51);
+    }
+
+    @Test
+    void lostPartitionsAreForgottenWithoutCommitting() {
+        dispatch(P0, 30);
+        complete(P0, 30);
+
+        tracker.onPartitionsLost(consumer, List.of(P0));
+        tracker.commit(consumer);
+
+        assertThat(consumer.committed(Set.of(P0)).get(P0)).isNull();
+    }
+
+    private void dispatch(TopicPartition partition, long... offsets) {
+        for (long offset : offsets) {
+            dispatches.put(partition + "@" + offset, tracker.dispatched(partition, offset));
+        }
+    }
+
+    private void complete(TopicPartition partition, long offset) {
+        tracker.completed(dispatches.get(partition + "@" + offset));
+    }
+
+    private long committed(TopicPartition partition) {
+        OffsetAndMetadata committed = consumer.committed(Set.of(partition)).get(partition);
+        assertThat(committed).as("committed offset of %s", partition).isNotNull();
+        return committed.offset();
+    }
+}
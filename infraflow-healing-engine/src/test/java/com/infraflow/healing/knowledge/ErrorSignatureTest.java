@@ -0,0 +1,54 @@
+package com.infraflow.healing.knowledge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorSignatureTest {
+
+    private static final String ERROR = """
+            [ERROR] /home/runner/work/shop/src/main/java/Shop.java:[12,5] cannot find symbol
+            [ERROR]   symbol:   method taxRate()
+            """;
+
+    @Test
+    void excerptIsSignedByTheFailedStepNotItsContext() {
+        String excerpt = "--- context: Set up JDK (last 2 lines) ---\n"
+                + "Java 17 installed\n"
+                + "Cache restored\n"
+                + "=== step: Build ===\n"
+                + ERROR;
+
+        assertThat(ErrorSignature.of(excerpt).sample()).isEqualTo(ERROR);
+    }
+
+    @Test
+    void sameErrorAfterDifferentSetupGivesTheSameSignature() {
+        String afterJdk = "--- context: Set up JDK (last 1 lines) ---\nJava 17 installed\n=== step: Build ===\n" + ERROR;
+        String afterNode = "--- context: Set up Node (last 1 lines) ---\nnode 20.11.0\n=== step: Build ===\n" + ERROR;
+
+        assertThat(ErrorSignature.of(afterJdk).forType("BUILD_COMPILE"))
+                .isEqualTo(ErrorSignature.of(afterNode).forType("BUILD_COMPILE"));
+    }
+
+    @Test
+    void excerptWithoutContextSkipsTheStepHeader() {
+        assertThat(ErrorSignature.of("=== step: Build ===\n" + ERROR).sample()).isEqualTo(ERROR);
+    }
+
+    @Test
+    void fullLogsAreSampledFromTheStart() {
+        String logs = "Run mvn -B verify\n" + ERROR;
+
+        assertThat(ErrorSignature.of(logs).sample()).isEqualTo(logs);
+    }
+
+    @Test
+    void normalizationIgnoresLineNumbersPathsAndTimestamps() {
+        String first = "2024-01-15T10:30:00Z at com.acme.Shop.total(Shop.java:42) /tmp/a/b.txt 0x7f3b";
+        String second = "2024-02-01T08:00:00Z at com.acme.Shop.total(Shop.java:57) /var/c/d.txt 0x1a2b";
+
+        assertThat(ErrorSignature.of(first).forType("TEST_FAILURE"))
+                .isEqualTo(ErrorSignature.of(second).forType("TEST_FAILURE"));
+    }
+}
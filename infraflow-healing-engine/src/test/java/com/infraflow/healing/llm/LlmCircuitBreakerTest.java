@@ -0,0 +1,127 @@
+package com.infraflow.healing.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmCircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+    // Opens when half of the last 10 calls failed, judged from the 4th call on
+    private final LlmCircuitBreaker breaker =
+            new LlmCircuitBreaker(10, 4, 0.5, Duration.ofSeconds(30), 2, clock);
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThresholdAfterMinCalls() {
+        // 3 of 3, but fewer than minCalls
+        call(true);
+        call(true);
+        call(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+
+        for (int i = 0; i < 5; i++) call(false);
+        // 4 of 9
+        call(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+
+        // 5 of 10
+        call(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void onlyTheLastWindowOfCallsCounts() {
+        for (int i = 0; i < 10; i++) call(false);
+        for (int i = 0; i < 4; i++) call(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+
+        // 5 of 15 calls failed, but 5 of the last 10
+        call(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void closesAfterTheHalfOpenTrialsSucceed() {
+        open();
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialReopens() {
+        open();
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void ignoredCallsDoNotCountAndFreeTheirTrialSlot() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onIgnored();
+        }
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+
+        open();
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onIgnored();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.HALF_OPEN);
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) call(true);
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+    }
+
+    private void call(boolean failed) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        if (failed) breaker.onFailure();
+        else breaker.onSuccess();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-05-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.infraflow.healing.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.common.dto.HealingPlanResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptCacheStoreTest {
+
+    private static final String KEY = "ab" + "0".repeat(62);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentWritesOfOneKeyKeepTheDiskTotalExact() throws Exception {
+        PromptCacheStore store = store(Long.MAX_VALUE);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int writer = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 50; i++) {
+                    // Plans of different sizes, so a mis-measured replace shows in the total
+                    store.put(KEY, plan("x".repeat((writer * 50 + i) % 300)));
+                }
+            });
+            thread.start();
+            writers.add(thread);
+        }
+        go.countDown();
+        for (Thread thread : writers) thread.join();
+
+        assertThat(store.diskBytes()).isEqualTo(bytesOnDisk());
+        assertThat(tempFiles()).isEmpty();
+    }
+
+    @Test
+    void evictsTheOldestEntriesPastTheCap() throws IOException {
+        long entryBytes = Files.size(writeOne());
+        PromptCacheStore store = store(entryBytes * 5);
+        for (int i = 0; i < 8; i++) {
+            store.put(String.format("%02x", i) + "0".repeat(62), plan("same size"));
+        }
+
+        assertThat(store.diskBytes()).isEqualTo(bytesOnDisk()).isLessThanOrEqualTo(entryBytes * 5);
+        assertThat(store.getFromDisk("07" + "0".repeat(62))).isPresent();
+    }
+
+    @Test
+    void failedWriteLeavesNoTempFile() throws IOException {
+        PromptCacheStore store = store(Long.MAX_VALUE);
+        // A directory where the entry should go makes the move fail after the temp file is written
+        Files.createDirectories(dir.resolve("ab").resolve(KEY + ".json").resolve("blocker"));
+
+        store.put(KEY, plan("lost"));
+
+        assertThat(tempFiles()).isEmpty();
+        assertThat(store.getFromMemory(KEY)).isPresent();
+    }
+
+    private Path writeOne() throws IOException {
+        Path probe = Files.createTempDirectory("probe");
+        new PromptCacheStore(probe, 10, Long.MAX_VALUE, Duration.ofDays(1), new ObjectMapper(), Clock.systemUTC())
+                .put(KEY, plan("same size"));
+        return probe.resolve("ab").resolve(KEY + ".json");
+    }
+
+    private PromptCacheStore store(long maxDiskBytes) throws IOException {
+        return new PromptCacheStore(dir, 10, maxDiskBytes, Duration.ofDays(1), new ObjectMapper(), Clock.systemUTC());
+    }
+
+    private long bytesOnDisk() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(p -> p.toString().endsWith(".json")).filter(Files::isRegularFile)
+                    .mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    private List<Path> tempFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(p -> p.toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    private static HealingPlanResponse plan(String summary) {
+        return new HealingPlanResponse(summary, "root cause", "explanation", "CONFIG_CHANGE",
+                List.of(), List.of(), 0.9, "reason", List.of());
+    }
+}
@@ -0,0 +1,86 @@
+package com.infraflow.healing.llm;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.infraflow.common.dto.HealingPlanResponse;
+import com.infraflow.common.dto.HealingRequest;
+import com.infraflow.healing.port.HealingLLMPort;
+import com.infraflow.healing.port.PlanProgressListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResilientHealingLLMTest {
+
+    private static final HealingRequest REQUEST =
+            new HealingRequest("logs", "Java", "Maven", "BUILD_COMPILE", null, null, "ci", null, null, null, null);
+
+    private final LlmCircuitBreaker breaker =
+            new LlmCircuitBreaker(10, 4, 0.5, Duration.ofSeconds(30), 1, Clock.systemUTC());
+
+    @Test
+    void serverErrorsTimeoutsAndConnectionErrorsOpenTheBreaker() {
+        assertThat(ResilientHealingLLM.isOutage(response(500))).isTrue();
+        assertThat(ResilientHealingLLM.isOutage(response(529))).isTrue();
+        assertThat(ResilientHealingLLM.isOutage(new TimeoutException())).isTrue();
+        assertThat(ResilientHealingLLM.isOutage(new WebClientRequestException(new ConnectException("refused"),
+                HttpMethod.POST, URI.create("https://api.anthropic.com/v1/messages"), new HttpHeaders()))).isTrue();
+
+        ResilientHealingLLM llm = resilient(failingWith(response(503)));
+        for (int i = 0; i < 4; i++) llm.generateFixAsync(REQUEST);
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void badRequestsAndUnparseablePlansDoNotCount() {
+        assertThat(ResilientHealingLLM.isOutage(response(400))).isFalse();
+        assertThat(ResilientHealingLLM.isOutage(response(401))).isFalse();
+        assertThat(ResilientHealingLLM.isOutage(response(429))).isFalse();
+        assertThat(ResilientHealingLLM.isOutage(new JsonParseException(null, "unexpected end of plan"))).isFalse();
+
+        ResilientHealingLLM badRequests = resilient(failingWith(response(400)));
+        ResilientHealingLLM badPlans = resilient(failingWith(new IllegalStateException("plan has no fileChanges")));
+        for (int i = 0; i < 10; i++) {
+            badRequests.generateFixAsync(REQUEST);
+            badPlans.generateFixAsync(REQUEST);
+        }
+
+        assertThat(breaker.state()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+    }
+
+    private ResilientHealingLLM resilient(HealingLLMPort delegate) {
+        return new ResilientHealingLLM(delegate, breaker, Duration.ofSeconds(5), false, 100, 20,
+                Duration.ofSeconds(1), Runnable::run, new SimpleMeterRegistry());
+    }
+
+    private static HealingLLMPort failingWith(Throwable error) {
+        return new HealingLLMPort() {
+            @Override
+            public HealingPlanResponse generateFix(HealingRequest request) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<HealingPlanResponse> generateFixAsync(HealingRequest request,
+                                                                           PlanProgressListener listener) {
+                return CompletableFuture.failedFuture(error);
+            }
+        };
+    }
+
+    private static WebClientResponseException response(int status) {
+        return WebClientResponseException.create(status, "status " + status, new HttpHeaders(), new byte[0], null);
+    }
+}
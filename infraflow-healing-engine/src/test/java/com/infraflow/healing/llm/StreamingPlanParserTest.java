@@ -0,0 +1,124 @@
+package com.infraflow.healing.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infraflow.healing.loadtest.AnthropicStubController;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingPlanParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> preliminary = new ArrayList<>();
+    private final StreamingPlanParser parser = new StreamingPlanParser(objectMapper.getFactory(),
+            (failureSummary, fixType) -> preliminary.add(failureSummary + " / " + fixType));
+
+    @Test
+    void reportsSummaryAndFixTypeFromTheStubStreamBeforeTheFileChanges() throws Exception {
+        List<ServerSentEvent<String>> events = stubStream();
+        int deltas = 0;
+        int reportedAt = -1;
+
+        for (ServerSentEvent<String> event : events) {
+            if (!"content_block_delta".equals(event.event())) continue;
+            JsonNode delta = objectMapper.readTree(event.data()).path("delta");
+            parser.accept(delta.path("text").asText());
+            deltas++;
+            if (reportedAt < 0 && !preliminary.isEmpty()) {
+                reportedAt = deltas;
+                assertThat(parser.text()).doesNotContain("fileChanges");
+            }
+        }
+
+        assertThat(preliminary).containsExactly(
+                "Unit test OrderServiceTest.shouldApplyDiscount fails on an assertion / CODE_CHANGE");
+        assertThat(reportedAt).isPositive().isLessThan(deltas);
+        assertThat(objectMapper.readTree(parser.text()).path("fileChanges")).hasSize(1);
+    }
+
+    @Test
+    void skipsTextBeforeTheOpeningBraceOneCharacterAtATime() {
+        feedByChar("```json\n{\"failureSummary\":\"Build \\\"broke\\\"\",\"fixType\":\"CONFIG_CHANGE\"}\n```");
+
+        assertThat(preliminary).containsExactly("Build \"broke\" / CONFIG_CHANGE");
+        assertThat(parser.text()).startsWith("```json\n{").endsWith("}\n```");
+    }
+
+    @Test
+    void ignoresNestedFieldsWithTheSameNames() {
+        parser.accept("{\"fileChanges\":[{\"failureSummary\":\"nested\",\"fixType\":\"nested\"}],");
+        parser.accept("\"details\":{\"fixType\":\"nested\"},");
+
+        assertThat(preliminary).isEmpty();
+
+        parser.accept("\"fixType\":\"DEPENDENCY_UPDATE\",\"failureSummary\":\"Outdated lockfile\"}");
+
+        assertThat(preliminary).containsExactly("Outdated lockfile / DEPENDENCY_UPDATE");
+    }
+
+    @Test
+    void doesNotReportAPlanMissingEitherField() {
+        parser.accept("{\"failureSummary\":\"Only a summary\",\"fixType\":null}");
+        parser.accept("{\"fixType\":\"CODE_CHANGE\"}");
+
+        assertThat(preliminary).isEmpty();
+        assertThat(parser.text()).isEqualTo("{\"failureSummary\":\"Only a summary\",\"fixType\":null}{\"fixType\":\"CODE_CHANGE\"}");
+    }
+
+    @Test
+    void malformedJsonStopsParsingButKeepsTheText() {
+        parser.accept("{\"failureSummary\": oops,");
+        parser.accept("\"fixType\":\"CODE_CHANGE\",\"failureSummary\":\"late\"}");
+
+        assertThat(preliminary).isEmpty();
+        assertThat(parser.text()).isEqualTo("{\"failureSummary\": oops,\"fixType\":\"CODE_CHANGE\",\"failureSummary\":\"late\"}");
+    }
+
+    @Test
+    void listenerFailureDoesNotStopTheStream() {
+        StreamingPlanParser failing = new StreamingPlanParser(objectMapper.getFactory(), (failureSummary, fixType) -> {
+            throw new IllegalStateException("listener down");
+        });
+
+        failing.accept("{\"failureSummary\":\"s\",\"fixType\":\"CODE_CHANGE\",");
+        failing.accept("\"fileChanges\":[]}");
+
+        assertThat(failing.text()).endsWith("\"fileChanges\":[]}");
+    }
+
+    private void feedByChar(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            parser.accept(text.substring(i, i + 1));
+        }
+    }
+
+    /** The canned plan as streamed by the load-test stub, with no simulated latency. */
+    private List<ServerSentEvent<String>> stubStream() {
+        AnthropicStubController stub = new AnthropicStubController(objectMapper);
+        ReflectionTestUtils.setField(stub, "latencyDistribution", "fixed");
+        ReflectionTestUtils.setField(stub, "medianLatencyMs", 0L);
+        ReflectionTestUtils.setField(stub, "maxLatencyMs", 0L);
+
+        return WebTestClient.bindToController(stub).build()
+                .post().uri("/v1/messages")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(Map.of("model", "stub", "messages", List.of()))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<String>>() { })
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,219 @@
+package com.infraflow.healing.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the Anthropic Messages API, active only with the
+ * {@code anthropic-stub} profile. Point {@code ANTHROPIC_BASE_URL} at this
+ * service to run the healing engine, or {@link HealingLoadTestRunner}, without
+ * an API key or API budget.
+ *
+ * <p>Behaviour is set under {@code infraflow.anthropic.stub}:</p>
+ * <ul>
+ *   <li>{@code latency.distribution} — {@code fixed}, {@code uniform}
+ *       (0.5–1.5x median) or {@code lognormal}, around {@code latency.median-ms},
+ *       capped at {@code latency.max-ms}; streamed responses spend a fifth of it
+ *       before the first event and spread the rest over the text deltas;</li>
+ *   <li>{@code error-rate} — share of requests answered with 529 overloaded;</li>
+ *   <li>{@code throttle-rate} — share answered with 429 and {@code retry-after};</li>
+ *   <li>{@code requests-per-minute} — when positive, an enforced budget
+ *       reported in {@code anthropic-ratelimit-requests-*} headers.</li>
+ * </ul>
+ * Requests accepting {@code text/event-stream} get the canned plan as SSE
+ * text deltas; others get it as a single message.
+ */
+@RestController
+@Profile("anthropic-stub")
+@RequiredArgsConstructor
+public class AnthropicStubController {
+
+    private static final String PLAN = """
+            {"failureSummary":"Unit test OrderServiceTest.shouldApplyDiscount fails on an assertion",\
+            "rootCause":"Discount is applied before tax while the test expects it after tax",\
+            "fixType":"CODE_CHANGE",\
+            "fixExplanation":"Apply the discount to the taxed total in OrderService.total()",\
+            "confidenceScore":0.82,\
+            "fileChanges":[{"filePath":"src/main/java/com/example/OrderService.java",\
+            "originalContent":"return applyDiscount(subtotal).add(tax);",\
+            "fixedContent":"return applyDiscount(subtotal.add(tax));",\
+            "description":"Apply discount after tax"}]}""";
+
+    private static final int CHUNK_CHARS = 16;
+    private static final Duration RATE_WINDOW = Duration.ofMinutes(1);
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${infraflow.anthropic.stub.latency.distribution:lognormal}")
+    private String latencyDistribution;
+
+    @Value("${infraflow.anthropic.stub.latency.median-ms:1500}")
+    private long medianLatencyMs;
+
+    @Value("${infraflow.anthropic.stub.latency.sigma:0.6}")
+    private double latencySigma;
+
+    @Value("${infraflow.anthropic.stub.latency.max-ms:60000}")
+    private long maxLatencyMs;
+
+    @Value("${infraflow.anthropic.stub.error-rate:0.0}")
+    private double errorRate;
+
+    @Value("${infraflow.anthropic.stub.throttle-rate:0.0}")
+    private double throttleRate;
+
+    @Value("${infraflow.anthropic.stub.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Value("${infraflow.anthropic.stub.requests-per-minute:0}")
+    private int requestsPerMinute;
+
+    private Instant windowStart = Instant.EPOCH;
+    private int windowRequests;
+
+    @PostMapping(value = "/v1/messages", headers = "Accept=text/event-stream",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<String>>> stream(@RequestBody Map<String, Object> request) {
+        Admission admission = admit();
+        if (!admission.status.is2xxSuccessful()) {
+            return ResponseEntity.status(admission.status).headers(admission.headers)
+                    .body(Flux.just(event("error", error(admission.status))));
+        }
+
+        long latencyMs = sampleLatencyMs();
+        long firstEventMs = latencyMs / 5;
+        List<ServerSentEvent<String>> deltas = new ArrayList<>();
+        for (int i = 0; i < PLAN.length(); i += CHUNK_CHARS) {
+            String text = PLAN.substring(i, Math.min(PLAN.length(), i + CHUNK_CHARS));
+            deltas.add(event("content_block_delta", Map.of("type", "content_block_delta", "index", 0,
+                    "delta", Map.of("type", "text_delta", "text", text))));
+        }
+        Duration gap = Duration.ofMillis((latencyMs - firstEventMs) / deltas.size());
+
+        Flux<ServerSentEvent<String>> events = Flux.concat(
+                Mono.delay(Duration.ofMillis(firstEventMs)).thenMany(Flux.just(
+                        event("message_start", Map.of("type", "message_start",
+                                "message", message(request, List.of()))),
+                        event("content_block_start", Map.of("type", "content_block_start", "index", 0,
+                                "content_block", Map.of("type", "text", "text", ""))))),
+                Flux.fromIterable(deltas).delayElements(gap),
+                Flux.just(
+                        event("content_block_stop", Map.of("type", "content_block_stop", "index", 0)),
+                        event("message_delta", Map.of("type", "message_delta",
+                                "delta", Map.of("stop_reason", "end_turn"))),
+                        event("message_stop", Map.of("type", "message_stop"))));
+        return ResponseEntity.ok().headers(admission.headers).body(events);
+    }
+
+    @PostMapping(value = "/v1/messages", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> complete(@RequestBody Map<String, Object> request) {
+        Admission admission = admit();
+        if (!admission.status.is2xxSuccessful()) {
+            return Mono.just(ResponseEntity.status(admission.status).headers(admission.headers)
+                    .body(error(admission.status)));
+        }
+        Map<String, Object> message = message(request, List.of(Map.of("type", "text", "text", PLAN)));
+        return Mono.delay(Duration.ofMillis(sampleLatencyMs()))
+                .map(tick -> ResponseEntity.ok().headers(admission.headers).body(message));
+    }
+
+    /** Decides the outcome of one request and the rate-limit headers to send with it. */
+    private synchronized Admission admit() {
+        HttpHeaders headers = new HttpHeaders();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (requestsPerMinute > 0) {
+            Instant now = Instant.now();
+            if (!now.isBefore(windowStart.plus(RATE_WINDOW))) {
+                windowStart = now;
+                windowRequests = 0;
+            }
+            Instant reset = windowStart.plus(RATE_WINDOW);
+            boolean exhausted = windowRequests >= requestsPerMinute;
+            if (!exhausted) windowRequests++;
+            headers.set("anthropic-ratelimit-requests-limit", String.valueOf(requestsPerMinute));
+            headers.set("anthropic-ratelimit-requests-remaining", String.valueOf(requestsPerMinute - windowRequests));
+            headers.set("anthropic-ratelimit-requests-reset", reset.atOffset(ZoneOffset.UTC).toString());
+            if (exhausted) {
+                long waitSeconds = Math.max(1, Duration.between(now, reset).toSeconds());
+                headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(waitSeconds));
+                return new Admission(HttpStatus.TOO_MANY_REQUESTS, headers);
+            }
+        }
+
+        double roll = random.nextDouble();
+        if (roll < throttleRate) {
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return new Admission(HttpStatus.TOO_MANY_REQUESTS, headers);
+        }
+        if (roll < throttleRate + errorRate) {
+            return new Admission(HttpStatusCode.valueOf(529), headers);
+        }
+        return new Admission(HttpStatus.OK, headers);
+    }
+
+    private long sampleLatencyMs() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double latency = switch (latencyDistribution.toLowerCase(Locale.ROOT)) {
+            case "fixed" -> medianLatencyMs;
+            case "uniform" -> medianLatencyMs * (0.5 + random.nextDouble());
+            default -> medianLatencyMs * Math.exp(latencySigma * random.nextGaussian());
+        };
+        return Math.min(maxLatencyMs, Math.max(0, Math.round(latency)));
+    }
+
+    private static Map<String, Object> message(Map<String, Object> request, List<Map<String, Object>> content) {
+        Object model = request.get("model");
+        return Map.of(
+                "id", "msg_stub",
+                "type", "message",
+                "role", "assistant",
+                "model", model != null ? model : "stub",
+                "content", content,
+                "usage", Map.of(
+                        "input_tokens", String.valueOf(request.get("messages")).length() / 4,
+                        "output_tokens", PLAN.length() / 4));
+    }
+
+    private static Map<String, Object> error(HttpStatusCode status) {
+        String type = status.value() == 429 ? "rate_limit_error" : "overloaded_error";
+        return Map.of("type", "error", "error", Map.of("type", type, "message", "Stubbed " + type));
+    }
+
+    private ServerSentEvent<String> event(String type, Map<String, Object> data) {
+        try {
+            return ServerSentEvent.<String>builder()
+                    .event(type)
+                    .data(objectMapper.writeValueAsString(data))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Admission(HttpStatusCode status, HttpHeaders headers) {
+    }
+}
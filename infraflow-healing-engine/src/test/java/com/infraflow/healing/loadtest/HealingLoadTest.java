@@ -0,0 +1,33 @@
+package com.infraflow.healing.loadtest;
+
+import com.infraflow.healing.HealingEngineApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.stream.Stream;
+
+/**
+ * Starts the healing engine from the test classpath with the {@code loadtest}
+ * and {@code anthropic-stub} profiles, waits for {@link HealingLoadTestRunner}
+ * to finish and exits with its code (1 if any healing failed).
+ *
+ * <pre>
+ * mvn -pl infraflow-healing-engine spring-boot:test-run \
+ *   -Dspring-boot.run.main-class=com.infraflow.healing.loadtest.HealingLoadTest
+ * </pre>
+ */
+public final class HealingLoadTest {
+
+    private HealingLoadTest() {
+    }
+
+    public static void main(String[] args) {
+        String[] withProfiles = Stream.concat(Stream.of("--spring.profiles.include=anthropic-stub,loadtest"),
+                Stream.of(args)).toArray(String[]::new);
+        // Application runners have completed by the time run() returns
+        ConfigurableApplicationContext context = SpringApplication.from(HealingEngineApplication::main)
+                .run(withProfiles)
+                .getApplicationContext();
+        System.exit(SpringApplication.exit(context));
+    }
+}
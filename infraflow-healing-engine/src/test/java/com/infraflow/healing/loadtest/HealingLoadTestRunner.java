@@ -0,0 +1,335 @@
+package com.infraflow.healing.loadtest;
+
+import com.infraflow.common.enums.PipelineStatus;
+import com.infraflow.common.event.PipelineEventMessage;
+import com.infraflow.healing.service.HealingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop load test of {@link HealingService#initiateHealing}, active only
+ * with the {@code loadtest} profile. Synthetic failed-pipeline events are
+ * started at {@code infraflow.loadtest.rate} per second for
+ * {@code infraflow.loadtest.duration}, whether or not earlier ones have
+ * finished, so latency includes any queueing. Run it with the
+ * {@code anthropic-stub} profile and {@code ANTHROPIC_BASE_URL} pointing at
+ * this service to avoid spending API budget. Start it with
+ * {@link HealingLoadTest}.
+ *
+ * <p>The events go through the real {@code HealingService}, so the run
+ * refuses to start unless it is isolated: auto-apply off (no branches or PRs
+ * on GitHub), Knowledge Base off, Kafka listeners not started, and a
+ * datasource whose database name contains {@code loadtest}.
+ * {@code application-loadtest.yml} sets all of these, and
+ * {@link LoadTestConfiguration} replaces the Kafka publisher with one that
+ * drops every record.</p>
+ *
+ * <p>When the run has drained, one report is logged: throughput, end-to-end
+ * latency percentiles, per-stage latency from
+ * {@code infraflow.healing.stage.duration}, peak threads (and live threads
+ * by pool at the end of the load), and peak Anthropic connections, in-flight
+ * and queued LLM requests.</p>
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class HealingLoadTestRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final String[][] FAILURES = {
+            {"TEST_FAILURE", "[ERROR] Tests run: 42, Failures: 1, Errors: 0, Skipped: 0",
+                    "[ERROR] OrderServiceTest%d.shouldApplyDiscount:%d expected:<90.00> but was:<99.00>",
+                    "[ERROR] Failed to execute goal org.apache.maven.plugins:maven-surefire-plugin:3.2.5:test"},
+            {"BUILD_COMPILE", "[ERROR] COMPILATION ERROR :",
+                    "[ERROR] /src/main/java/com/example/Invoice%d.java:[%d,17] cannot find symbol",
+                    "[ERROR]   symbol:   method taxRate()"},
+            {"DEPENDENCY_CONFLICT", "[ERROR] Failed to execute goal on project service-%d:",
+                    "[ERROR] Could not resolve dependencies for com.example:lib-%d:jar:1.0",
+                    "[ERROR] artifact not found in central"},
+            {"DOCKER_FAILURE", "#12 [build 4/7] COPY target/app-%d.jar /app.jar",
+                    "#12 ERROR: COPY failed: file not found in build context (line %d)",
+                    "docker build error: process exited with code 1"}
+    };
+
+    private final HealingService healingService;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    @Value("${infraflow.loadtest.rate:5}")
+    private double ratePerSecond;
+
+    @Value("${infraflow.loadtest.duration:60s}")
+    private Duration duration;
+
+    @Value("${infraflow.loadtest.workers:64}")
+    private int workers;
+
+    @Value("${infraflow.loadtest.max-outstanding:1000}")
+    private int maxOutstanding;
+
+    @Value("${infraflow.loadtest.distinct-failures:100}")
+    private int distinctFailures;
+
+    @Value("${infraflow.loadtest.log-lines:300}")
+    private int logLines;
+
+    @Value("${infraflow.loadtest.drain-timeout:5m}")
+    private Duration drainTimeout;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<Long> latenciesMs = new ArrayList<>();
+
+    private final Peaks peaks = new Peaks();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        requireIsolation();
+        log.info("Load test: {} events/s for {} ({} workers, max {} outstanding, {} distinct failures)",
+                ratePerSecond, duration, workers, maxOutstanding, distinctFailures);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        Map<String, Long> stageCountsBefore = stageCounts();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "loadtest-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "loadtest-ticker");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        Instant begin = Instant.now();
+        ticker.scheduleAtFixedRate(() -> fire(pool), 0, periodNanos, TimeUnit.NANOSECONDS);
+        ticker.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.SECONDS);
+
+        Thread.sleep(duration.toMillis());
+        ticker.shutdownNow();
+        Map<String, Integer> threadsByPool = threadsByPool(threads);
+        log.info("Load test: sending stopped, waiting for {} outstanding healings", outstanding.get());
+
+        pool.shutdown();
+        if (!pool.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Load test: {} healings still running after {}", outstanding.get(), drainTimeout);
+        }
+        Duration elapsed = Duration.between(begin, Instant.now());
+
+        report(elapsed, stageCountsBefore, threads.getPeakThreadCount(), threadsByPool);
+    }
+
+    @Override
+    public int getExitCode() {
+        return failed.get() == 0 ? 0 : 1;
+    }
+
+    private void requireIsolation() {
+        List<String> problems = new ArrayList<>();
+        if (environment.getProperty("infraflow.healing.auto-apply", Boolean.class, false)) {
+            problems.add("infraflow.healing.auto-apply must be false");
+        }
+        if (environment.getProperty("infraflow.knowledge.enabled", Boolean.class, true)) {
+            problems.add("infraflow.knowledge.enabled must be false");
+        }
+        if (environment.getProperty("spring.kafka.listener.auto-startup", Boolean.class, true)) {
+            problems.add("spring.kafka.listener.auto-startup must be false");
+        }
+        String datasource = environment.getProperty("spring.datasource.url", "");
+        if (!datasource.substring(datasource.lastIndexOf('/') + 1).contains("loadtest")) {
+            problems.add("spring.datasource.url must name a loadtest database, not " + datasource);
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Refusing to run the load test outside isolation: "
+                    + String.join("; ", problems));
+        }
+    }
+
+    private void fire(ExecutorService pool) {
+        if (outstanding.get() >= maxOutstanding) {
+            dropped.incrementAndGet();
+            return;
+        }
+        long n = started.incrementAndGet();
+        outstanding.incrementAndGet();
+        long scheduledAt = System.nanoTime();
+        pool.execute(() -> {
+            try {
+                healingService.initiateHealing(syntheticEvent(n));
+                succeeded.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                log.debug("Load test healing {} failed: {}", n, e.getMessage());
+            } finally {
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledAt);
+                synchronized (latenciesMs) {
+                    latenciesMs.add(latencyMs);
+                }
+                outstanding.decrementAndGet();
+            }
+        });
+    }
+
+    private PipelineEventMessage syntheticEvent(long n) {
+        int variant = (int) (n % Math.max(1, distinctFailures));
+        String[] failure = FAILURES[variant % FAILURES.length];
+        StringBuilder logs = new StringBuilder();
+        for (int i = 0; i < logLines - 3; i++) {
+            logs.append("[INFO] Downloaded from central: https://repo.maven.apache.org/maven2/org/example/lib")
+                    .append(i).append("/1.0/lib").append(i).append("-1.0.jar (12 kB at 340 kB/s)\n");
+        }
+        for (int i = 1; i < failure.length; i++) {
+            logs.append(String.format(failure[i], variant, 40 + variant)).append('\n');
+        }
+
+        Instant now = Instant.now();
+        return new PipelineEventMessage(
+                "https://github.com/loadtest/repo-" + (n % 20),
+                "loadtest/repo-" + (n % 20),
+                "main",
+                String.format("%040x", n),
+                "github",
+                PipelineStatus.FAILED,
+                1_000_000 + n,
+                "CI",
+                now.minusSeconds(120),
+                now,
+                logs.toString(),
+                null,
+                logs.length(),
+                failure[0].toLowerCase(Locale.ROOT));
+    }
+
+    private void sample() {
+        peaks.threads = Math.max(peaks.threads, ManagementFactory.getThreadMXBean().getThreadCount());
+        peaks.activeConnections = Math.max(peaks.activeConnections,
+                gaugeSum("reactor.netty.connection.provider.active.connections"));
+        peaks.totalConnections = Math.max(peaks.totalConnections,
+                gaugeSum("reactor.netty.connection.provider.total.connections"));
+        peaks.llmInFlight = Math.max(peaks.llmInFlight, gaugeSum("infraflow.llm.inflight"));
+        peaks.llmQueued = Math.max(peaks.llmQueued, gaugeSum("infraflow.llm.queued"));
+        peaks.outstanding = Math.max(peaks.outstanding, outstanding.get());
+    }
+
+    private double gaugeSum(String name) {
+        double sum = 0;
+        for (Gauge gauge : meterRegistry.find(name).gauges()) {
+            // Connection pool gauges: only the Anthropic pool is of interest
+            String pool = gauge.getId().getTag("name");
+            if (pool == null || pool.equals("anthropic")) sum += gauge.value();
+        }
+        return sum;
+    }
+
+    private Map<String, Long> stageCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("infraflow.healing.stage.duration").timers()) {
+            counts.put(timer.getId().getTag("stage"), timer.count());
+        }
+        return counts;
+    }
+
+    private static Map<String, Integer> threadsByPool(ThreadMXBean threads) {
+        Map<String, Integer> byPool = new TreeMap<>();
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null) continue;
+            // "heal-llm-3", "reactor-http-nio-2" -> "heal-llm", "reactor-http-nio"
+            String pool = info.getThreadName().replaceAll("[-#\\s]*\\d+$", "");
+            byPool.merge(pool, 1, Integer::sum);
+        }
+        return byPool;
+    }
+
+    private void report(Duration elapsed, Map<String, Long> stageCountsBefore, int peakThreads,
+                        Map<String, Integer> threadsByPool) {
+        long[] sorted;
+        synchronized (latenciesMs) {
+            sorted = latenciesMs.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        double seconds = elapsed.toMillis() / 1000.0;
+
+        StringBuilder report = new StringBuilder("\n===== Healing load test =====\n");
+        report.append(String.format("Target rate      : %.1f/s for %s%n", ratePerSecond, duration));
+        report.append(String.format("Started          : %d (dropped at max outstanding: %d)%n",
+                started.get(), dropped.get()));
+        report.append(String.format("Completed        : %d ok, %d failed in %.1fs -> %.2f/s%n",
+                succeeded.get(), failed.get(), seconds, (succeeded.get() + failed.get()) / seconds));
+        report.append(String.format("End-to-end (ms)  : p50=%d p95=%d p99=%d max=%d%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+
+        report.append("Stages (ms, recent window):\n");
+        for (Timer timer : meterRegistry.find("infraflow.healing.stage.duration").timers()) {
+            String stage = timer.getId().getTag("stage");
+            long runs = timer.count() - stageCountsBefore.getOrDefault(stage, 0L);
+            if (runs == 0) continue;
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            StringBuilder percentiles = new StringBuilder();
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                percentiles.append(String.format(" p%.0f=%.0f", value.percentile() * 100,
+                        value.value(TimeUnit.MILLISECONDS)));
+            }
+            report.append(String.format("  %-10s n=%-6d%s max=%.0f%n", stage, runs, percentiles,
+                    snapshot.max(TimeUnit.MILLISECONDS)));
+        }
+
+        report.append(String.format("Threads          : peak %d (sampled %d), live at end of load by pool:%n",
+                peakThreads, (int) peaks.threads));
+        threadsByPool.forEach((pool, count) -> report.append(String.format("  %-28s %d%n", pool, count)));
+        report.append(String.format("Anthropic pool   : peak active=%.0f total=%.0f%n",
+                peaks.activeConnections, peaks.totalConnections));
+        report.append(String.format("LLM admission    : peak in-flight=%.0f queued=%.0f%n",
+                peaks.llmInFlight, peaks.llmQueued));
+        report.append(String.format("Outstanding      : peak %d%n", (int) peaks.outstanding));
+        log.info(report.toString());
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    /** Maxima of the once-a-second samples. */
+    private static final class Peaks {
+        volatile double threads;
+        volatile double activeConnections;
+        volatile double totalConnections;
+        volatile double llmInFlight;
+        volatile double llmQueued;
+        volatile double outstanding;
+    }
+}
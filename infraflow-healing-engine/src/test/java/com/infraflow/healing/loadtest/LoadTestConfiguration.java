@@ -0,0 +1,52 @@
+package com.infraflow.healing.loadtest;
+
+import io.micrometer.observation.Observation;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps load-test healings off the shared topics: healing and security
+ * events are counted and dropped instead of being sent to Kafka, so the
+ * dashboard and other consumers never see synthetic sessions.
+ */
+@Configuration
+@Profile("loadtest")
+@Slf4j
+public class LoadTestConfiguration {
+
+    @Bean
+    @Primary
+    public KafkaTemplate<String, Object> loadTestKafkaTemplate() {
+        return new DroppingKafkaTemplate();
+    }
+
+    /** Completes every send at once without a producer; never connects to a broker. */
+    static final class DroppingKafkaTemplate extends KafkaTemplate<String, Object> {
+
+        private final AtomicLong dropped = new AtomicLong();
+
+        DroppingKafkaTemplate() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        protected CompletableFuture<SendResult<String, Object>> doSend(ProducerRecord<String, Object> record,
+                                                                       Observation observation) {
+            if (dropped.incrementAndGet() % 1000 == 1) {
+                log.info("Load test: dropped {} Kafka record(s), latest to {}", dropped.get(), record.topic());
+            }
+            return CompletableFuture.completedFuture(new SendResult<>(record, null));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.infraflow.healing.prompt;
+
+import com.infraflow.common.enums.FailureType;
+import com.infraflow.healing.classifier.FailureClassifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Offline comparison of {@link LogExcerptExtractor} against the old
+ * head-600 / tail-2400 character truncation, over logs on disk: plain files,
+ * or the {@code .gz} blobs of the claim-check store
+ * ({@code infraflow.blob-store.root}).
+ *
+ * <p>For every log it reports the prompt size each method produces and its
+ * error-line recall: the share of distinct lines scoring at least
+ * {@link LogExcerptExtractor#SEED_SCORE} (errors, failure banners, exception
+ * heads, test summaries) that survive into the excerpt.</p>
+ *
+ * <p>A developer tool kept with the tests, so it is not shipped in the
+ * service jar. Run it from the IDE, or:</p>
+ *
+ * <pre>
+ * mvn -q -pl infraflow-healing-engine test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp infraflow-healing-engine/target/test-classes:infraflow-healing-engine/target/classes:$(cat infraflow-healing-engine/cp.txt) \
+ *   com.infraflow.healing.prompt.LogExcerptEvaluation ~/.infraflow/blobs
+ * </pre>
+ */
+public final class LogExcerptEvaluation {
+
+    private static final int LEGACY_MAX_CHARS = 3000;
+
+    private LogExcerptEvaluation() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: LogExcerptEvaluation <log file or directory>...");
+            return;
+        }
+        FailureClassifier classifier = new FailureClassifier();
+        LogExcerptExtractor extractor = new LogExcerptExtractor();
+
+        long files = 0, legacyChars = 0, excerptChars = 0, keyLines = 0, legacyKept = 0, excerptKept = 0;
+        System.out.printf("%-48s %-19s %8s %8s %8s %7s %7s%n",
+                "log", "type", "chars", "legacy", "excerpt", "rec-old", "rec-new");
+        for (String arg : args) {
+            List<Path> paths;
+            try (Stream<Path> walk = Files.walk(Path.of(arg))) {
+                paths = walk.filter(Files::isRegularFile)
+                        .filter(p -> !p.getFileName().toString().endsWith(".tmp"))
+                        .sorted()
+                        .toList();
+            }
+            for (Path path : paths) {
+                String logs = read(path);
+                FailureType type = classifier.classify(logs);
+                String legacy = legacyTruncate(logs);
+                String excerpt = extractor.extract(logs, HealingPromptRouter.logBudgetTokens(type.name()));
+
+                List<String> key = logs.lines()
+                        .filter(line -> LogExcerptExtractor.score(line) >= LogExcerptExtractor.SEED_SCORE)
+                        .map(String::strip)
+                        .distinct()
+                        .toList();
+                long oldHits = key.stream().filter(legacy::contains).count();
+                long newHits = key.stream().filter(excerpt::contains).count();
+
+                files++;
+                legacyChars += legacy.length();
+                excerptChars += excerpt.length();
+                keyLines += key.size();
+                legacyKept += oldHits;
+                excerptKept += newHits;
+                System.out.printf("%-48s %-19s %8d %8d %8d %7s %7s%n",
+                        abbreviate(path.toString()), type, logs.length(), legacy.length(), excerpt.length(),
+                        recall(oldHits, key.size()), recall(newHits, key.size()));
+            }
+        }
+
+        System.out.printf("%n%d log(s): legacy %d chars (~%d tokens), excerpt %d chars (~%d tokens)%n",
+                files, legacyChars, legacyChars / 4, excerptChars, excerptChars / 4);
+        System.out.printf("error-line recall: legacy %s, excerpt %s (%d key lines)%n",
+                recall(legacyKept, keyLines), recall(excerptKept, keyLines), keyLines);
+    }
+
+    /** The truncation {@code HealingPromptRouter} used before the extractor. */
+    static String legacyTruncate(String logs) {
+        if (logs.length() <= LEGACY_MAX_CHARS) return logs;
+        int headSize = LEGACY_MAX_CHARS / 5;
+        int tailSize = LEGACY_MAX_CHARS - headSize;
+        return logs.substring(0, headSize)
+                + "\n\n[... logs truncated ...]\n\n"
+                + logs.substring(logs.length() - tailSize);
+    }
+
+    private static String read(Path path) throws IOException {
+        try (InputStream in = path.toString().endsWith(".gz")
+                ? new GZIPInputStream(Files.newInputStream(path))
+                : Files.newInputStream(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String recall(long hits, long total) {
+        return total == 0 ? "-" : String.format("%.0f%%", 100.0 * hits / total);
+    }
+
+    private static String abbreviate(String path) {
+        return path.length() <= 48 ? path : "…" + path.substring(path.length() - 47);
+    }
+}
@@ -0,0 +1,78 @@
+package com.infraflow.healing.prompt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogExcerptExtractorTest {
+
+    private final LogExcerptExtractor extractor = new LogExcerptExtractor();
+
+    @Test
+    void returnsLogsWithinBudgetUnchanged() {
+        String logs = "[INFO] Building shop\n[ERROR] cannot find symbol\n";
+
+        assertThat(extractor.extract(logs, 1000)).isEqualTo(logs);
+    }
+
+    @Test
+    void placeholderForMissingLogs() {
+        assertThat(extractor.extract(null, 1000)).isEqualTo("[no logs available]");
+        assertThat(extractor.extract("  \n", 1000)).isEqualTo("[no logs available]");
+    }
+
+    @Test
+    void keepsErrorBuriedInNoiseAndDropsNoise() {
+        String logs = noise(0, 400)
+                + "[ERROR] /src/main/java/Shop.java:[12,5] cannot find symbol\n"
+                + noise(400, 800)
+                + "[INFO] BUILD FAILURE\n";
+
+        String excerpt = extractor.extract(logs, 200);
+
+        assertThat(excerpt).contains("[ERROR] /src/main/java/Shop.java:[12,5] cannot find symbol");
+        assertThat(excerpt).contains("[INFO] BUILD FAILURE");
+        assertThat(excerpt).doesNotContain("lib10.jar", "lib390.jar", "lib410.jar");
+        assertThat(excerpt).contains("lines omitted");
+        assertThat(excerpt.length()).isLessThanOrEqualTo(200 * 4 + 256);
+    }
+
+    @Test
+    void keepsFirstStackFramesAfterExceptionHead() {
+        String logs = noise(0, 300)
+                + "java.lang.IllegalStateException: port already bound\n"
+                + IntStream.range(0, 20).mapToObj(i -> "\tat com.acme.Frame" + i + ".run(Frame.java:" + i + ")\n")
+                        .collect(Collectors.joining())
+                + noise(300, 600);
+
+        String excerpt = extractor.extract(logs, 200);
+
+        assertThat(excerpt).contains("java.lang.IllegalStateException: port already bound");
+        assertThat(excerpt).contains("com.acme.Frame0.run", "com.acme.Frame5.run");
+        assertThat(excerpt).doesNotContain("com.acme.Frame15.run");
+    }
+
+    @Test
+    void alwaysKeepsTheTail() {
+        String logs = noise(0, 500) + "Process completed with exit code 1.\n";
+
+        assertThat(extractor.extract(logs, 100)).contains("Process completed with exit code 1.");
+    }
+
+    @Test
+    void scoresErrorsAboveWarningsAboveNoise() {
+        assertThat(LogExcerptExtractor.score("[ERROR] Failed to execute goal"))
+                .isGreaterThan(LogExcerptExtractor.score("[WARNING] deprecated API"));
+        assertThat(LogExcerptExtractor.score("[WARNING] deprecated API")).isGreaterThan(0);
+        assertThat(LogExcerptExtractor.score("Downloading from central: https://repo1/x.jar")).isZero();
+    }
+
+    private static String noise(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> "Downloading from central: https://repo1.maven.org/lib" + i + ".jar\n")
+                .collect(Collectors.joining());
+    }
+}
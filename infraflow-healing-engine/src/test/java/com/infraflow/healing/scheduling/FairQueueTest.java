@@ -0,0 +1,155 @@
+package com.infraflow.healing.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairQueueTest {
+
+    private static final double FREE = 1;
+    private static final double PRO = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Counter aged = meterRegistry.counter("aged");
+    private final Timer waitTimer = meterRegistry.timer("wait");
+
+    private final List<String> started = new ArrayList<>();
+    private final Deque<CompletableFuture<Void>> running = new ArrayDeque<>();
+
+    @Test
+    void proEventOvertakesAnotherTenantsBurst() {
+        FairQueue queue = new FairQueue(1, Integer.MAX_VALUE, Duration.ofMinutes(2), aged);
+        for (int i = 0; i < 20; i++) {
+            submit(queue, "user:burst", FREE, "burst-" + i);
+        }
+        submit(queue, "user:pro", PRO, "pro-0");
+        submit(queue, "user:pro", PRO, "pro-1");
+        submit(queue, "user:pro", PRO, "pro-2");
+
+        finishAll();
+
+        assertThat(started).startsWith("burst-0", "pro-0", "pro-1", "pro-2", "burst-1", "burst-2");
+        assertThat(started).hasSize(23);
+    }
+
+    @Test
+    void equalWeightTenantsTakeTurns() {
+        FairQueue queue = new FairQueue(1, Integer.MAX_VALUE, Duration.ofMinutes(2), aged);
+        for (int i = 0; i < 5; i++) {
+            submit(queue, "user:burst", FREE, "burst-" + i);
+        }
+        submit(queue, "user:other", FREE, "other-0");
+        submit(queue, "user:other", FREE, "other-1");
+
+        finishAll();
+
+        assertThat(started).containsExactly("burst-0", "other-0", "burst-1", "other-1", "burst-2", "burst-3", "burst-4");
+    }
+
+    @Test
+    void itemsOfOneKeyStartInSubmissionOrder() {
+        FairQueue queue = new FairQueue(2, Integer.MAX_VALUE, Duration.ofMinutes(2), aged);
+        for (int i = 0; i < 6; i++) {
+            submit(queue, "user:a", i % 2 == 0 ? FREE : PRO, "a-" + i);
+            submit(queue, "user:b", PRO, "b-" + i);
+        }
+
+        finishAll();
+
+        assertThat(started.stream().filter(name -> name.startsWith("a-")))
+                .containsExactly("a-0", "a-1", "a-2", "a-3", "a-4", "a-5");
+    }
+
+    @Test
+    void itemsPastMaxWaitStartInArrivalOrder() {
+        FairQueue queue = new FairQueue(1, Integer.MAX_VALUE, Duration.ZERO, aged);
+        submit(queue, "user:burst", FREE, "burst-0");
+        submit(queue, "user:burst", FREE, "burst-1");
+        submit(queue, "user:pro", PRO, "pro-0");
+
+        finishAll();
+
+        assertThat(started).containsExactly("burst-0", "burst-1", "pro-0");
+        assertThat(aged.count()).isEqualTo(3);
+    }
+
+    @Test
+    void holdsTheSlotUntilTheWorkCompletes() {
+        FairQueue queue = new FairQueue(1, Integer.MAX_VALUE, Duration.ofMinutes(2), aged);
+        CompletableFuture<Void> first = submit(queue, "user:a", FREE, "a-0");
+        submit(queue, "user:b", FREE, "b-0");
+
+        assertThat(queue.running()).isEqualTo(1);
+        assertThat(queue.queued()).isEqualTo(1);
+        assertThat(started).containsExactly("a-0");
+
+        running.poll().complete(null);
+
+        assertThat(first).isCompleted();
+        assertThat(started).containsExactly("a-0", "b-0");
+    }
+
+    @Test
+    void synchronouslyCompletingWorkDoesNotRecurseIntoTheNextStart() {
+        FairQueue queue = new FairQueue(1, Integer.MAX_VALUE, Duration.ofMinutes(2), aged);
+        CompletableFuture<Void> first = submit(queue, "user:a", FREE, "a-0");
+        int depth = Thread.currentThread().getStackTrace().length;
+        List<Integer> depths = new ArrayList<>();
+        List<CompletableFuture<Integer>> rest = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int n = i;
+            rest.add(queue.submit("user:" + (i % 7), FREE, waitTimer, () -> {
+                depths.add(Thread.currentThread().getStackTrace().length - depth);
+                return CompletableFuture.completedFuture(n);
+            }));
+        }
+
+        running.poll().complete(null);
+
+        assertThat(first).isCompleted();
+        assertThat(rest).allMatch(f -> f.isDone() && !f.isCompletedExceptionally());
+        assertThat(depths).hasSize(20_000).allMatch(d -> d < 100);
+        assertThat(queue.running()).isZero();
+    }
+
+    @Test
+    void rejectsWhenTheWaitQueueIsFull() {
+        FairQueue queue = new FairQueue(1, 1, Duration.ofMinutes(2), aged);
+        submit(queue, "user:a", FREE, "a-0");
+        submit(queue, "user:a", FREE, "a-1");
+
+        CompletableFuture<Void> rejected = submit(queue, "user:b", PRO, "b-0");
+
+        assertThat(rejected).failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(queue.occupancy()).isEqualTo(1.0);
+    }
+
+    private CompletableFuture<Void> submit(FairQueue queue, String key, double weight, String name) {
+        return queue.submit(key, weight, waitTimer, () -> {
+            started.add(name);
+            CompletableFuture<Void> work = new CompletableFuture<>();
+            running.add(work);
+            return work;
+        });
+    }
+
+    private void finishAll() {
+        while (!running.isEmpty()) {
+            running.poll().complete(null);
+        }
+    }
+}